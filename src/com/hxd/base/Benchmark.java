@@ -0,0 +1,69 @@
+package com.hxd.base;
+
+import com.hxd.introcs.stdlib.StdStats;
+
+/**
+ * 候旭东 20261017 基准测试的公共部分
+ * Stopwatch只能对一次运行计时,这里按照JMH的方式:先预热若干轮,再测量若干轮,每轮至少运行一段固定的时间,
+ * 报告吞吐量的均值和99.9%置信区间(Student t分布).被测的操作返回一个long,累加到sink中,防止JIT把
+ * 没有使用结果的计算消除掉
+ * */
+public class Benchmark {
+	//99.9%置信区间的t分布临界值,下标为自由度(1..30),更大的自由度使用正态分布的近似值
+	private static final double[] T_999 = { Double.NaN,
+			636.619, 31.599, 12.924, 8.610, 6.869, 5.959, 5.408, 5.041, 4.781, 4.587,
+			4.437, 4.318, 4.221, 4.140, 4.073, 4.015, 3.965, 3.922, 3.883, 3.850,
+			3.819, 3.792, 3.768, 3.745, 3.725, 3.707, 3.690, 3.674, 3.659, 3.646 };
+	private static final double Z_999 = 3.291;
+
+	private static volatile long sink;
+
+	private Benchmark() {}
+
+	/**
+	 * 被测的操作
+	 * */
+	public interface Op { long run(); }
+
+	/**
+	 * 反复运行op直到累计时间达到millis毫秒,返回每秒运行的次数
+	 * */
+	public static double iteration(Op op, long millis) {
+		long budget = millis * 1000000L;
+		long ops = 0, result = 0;
+		long start = System.nanoTime(), elapsed;
+		do {
+			result += op.run();
+			ops++;
+			elapsed = System.nanoTime() - start;
+		} while (elapsed < budget);
+		sink += result;
+		return ops * 1e9 / elapsed;
+	}
+
+	/**
+	 * 预热warmups轮之后测量iterations轮,返回每轮的吞吐量(ops/s)
+	 * */
+	public static double[] measure(Op op, int warmups, int iterations, long millis) {
+		for (int i = 0; i < warmups; i++)
+			iteration(op, millis);
+		double[] samples = new double[iterations];
+		for (int i = 0; i < iterations; i++)
+			samples[i] = iteration(op, millis);
+		return samples;
+	}
+
+	/**
+	 * 均值的99.9%置信区间的半宽
+	 * */
+	public static double error(double[] samples) {
+		int df = samples.length - 1;
+		if (df < 1) return Double.NaN;
+		double t = df < T_999.length ? T_999[df] : Z_999;
+		return t * StdStats.stddev(samples) / Math.sqrt(samples.length);
+	}
+
+	public static double mean(double[] samples) {
+		return StdStats.mean(samples);
+	}
+}
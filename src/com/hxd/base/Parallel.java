@@ -0,0 +1,49 @@
+package com.hxd.base;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * 候旭东 20261017 并行算法的公共部分
+ * 把工作分成P段,在ForkJoinPool中对每一段运行一次action,段号为0..P-1.任务按段号二分地fork,
+ * 空闲的线程可以窃取另一半;只有一段时直接在调用线程中运行,不提交任务
+ * */
+public class Parallel {
+	private Parallel() {}
+
+	/**
+	 * 对一段工作的操作,c是段号
+	 * */
+	public interface ChunkAction { void run(int c); }
+
+	/**
+	 * 在pool中对c = 0..P-1运行action.run(c),全部完成后返回;P &lt;= 0时什么也不做
+	 * */
+	public static void forEach(ForkJoinPool pool, int P, ChunkAction action) {
+		if (P <= 0) return;
+		if (P == 1) action.run(0);
+		else        pool.invoke(new ForEach(0, P, action));
+	}
+
+	private static class ForEach extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final int lo, hi;
+		private final ChunkAction action;
+
+		ForEach(int lo, int hi, ChunkAction action) {
+			this.lo = lo;
+			this.hi = hi;
+			this.action = action;
+		}
+
+		@Override
+		protected void compute() {
+			if (hi - lo == 1) {
+				action.run(lo);
+				return;
+			}
+			int mid = (lo + hi) >>> 1;
+			invokeAll(new ForEach(lo, mid, action), new ForEach(mid, hi, action));
+		}
+	}
+}
@@ -0,0 +1,211 @@
+package com.hxd.base.uf;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import com.hxd.base.Benchmark;
+import com.hxd.introcs.stdlib.StdRandom;
+
+/**
+ * 候旭东 20261017 无锁的并发union-find
+ * 和WeightQuickUnionCompressionUF一样使用父链接表示的森林,但是父链接保存在AtomicIntegerArray中,
+ * 可以被多个线程同时调用find(),union()和connected():
+ *    1: find()使用路径分割:沿途用CAS把每个结点链接到它的祖父结点,然后移到原来的父结点.CAS失败说明别的线程
+ *       已经改过这个链接,忽略即可,所以find()不会等待别的线程,是无等待的;
+ *    2: union()找到两个根结点之后,用CAS把优先级较低的根结点链接到优先级较高的根结点上.CAS失败说明这个根结点
+ *       刚刚被别的线程链接到了其他结点下,重新查找根结点再试;
+ *    3: 优先级在构造时确定并且不再改变,所以链接总是从低优先级指向高优先级,不会形成环.
+ *       按秩链接需要在链接的同时原子地修改秩,单个CAS做不到,这里用两种不变的优先级代替:
+ *       INDEX  编号较小的优先级较高,根结点总是分量中编号最小的触点(ParallelCC依赖这一点);
+ *       RANDOM 优先级是编号经过一个双射打乱之后的值,相当于随机的编号,树的期望高度是对数级别的
+ *              (Jayanti和Tarjan的随机按编号链接),适合编号和连接的顺序有关的输入,例如逐行打开的渗透网格.
+ *    4: connected()在两个根结点不同时,确认第一个根结点仍然是根结点才返回false,所以结果是可线性化的.
+ * 父类的id[]不再使用,count()返回原子计数器的值.
+ * */
+public class ConcurrentUF extends UF {
+	public enum Linking { INDEX, RANDOM }
+
+	private final AtomicIntegerArray parent;
+	private final AtomicInteger components;
+	private final Linking linking;
+
+	/**
+	 * 以整数标识(0到N-1)初始化N个触点,使用随机的优先级
+	 * */
+	public ConcurrentUF(int N) {
+		this(N, Linking.RANDOM);
+	}
+
+	public ConcurrentUF(int N, Linking linking) {
+		if (N < 0) throw new IllegalArgumentException("number of sites must be nonnegative: " + N);
+		parent = new AtomicIntegerArray(N);
+		for (int i = 0; i < N; i++)
+			parent.set(i, i);
+		components = new AtomicInteger(N);
+		count = N;
+		this.linking = linking;
+	}
+
+	@Override
+	public int count() {
+		return components.get();
+	}
+
+	@Override
+	public void validate(int p) {
+		if (p < 0 || p >= parent.length())
+			throw new IndexOutOfBoundsException("site " + p + " is not between 0 and " + (parent.length() - 1));
+	}
+
+	// 优先级较高的根结点作为合并之后的根结点
+	private int priority(int p) {
+		if (linking == Linking.INDEX) return -p;
+		int h = p * 0x9E3779B9;		// 乘以奇数和异或右移都是双射,不同的触点的优先级一定不同
+		return h ^ (h >>> 16);
+	}
+
+	/**
+	 * 路径分割:把路径上的每个结点链接到它的祖父结点
+	 * */
+	@Override
+	public int find(int p) {
+		validate(p);
+		while (true) {
+			int q = parent.get(p);
+			if (q == p) return p;
+			int r = parent.get(q);
+			if (q != r) parent.weakCompareAndSetVolatile(p, q, r);
+			p = q;
+		}
+	}
+
+	@Override
+	public boolean connected(int p, int q) {
+		while (true) {
+			int rp = find(p);
+			int rq = find(q);
+			if (rp == rq) return true;
+			if (parent.get(rp) == rp) return false;
+		}
+	}
+
+	@Override
+	public void union(int p, int q) {
+		while (true) {
+			int rp = find(p);
+			int rq = find(q);
+			if (rp == rq) return;
+			if (priority(rp) > priority(rq)) { int t = rp; rp = rq; rq = t; }
+			if (parent.compareAndSet(rp, rp, rq)) {
+				components.decrementAndGet();
+				return;
+			}
+		}
+	}
+
+	/***************************************************************************
+	 *  基准测试
+	 ***************************************************************************/
+
+	interface Workload { void run(UF uf, int lo, int hi); }
+
+	// 用threads个线程把[0, n)分段执行workload;threads为0时在当前线程中执行(用于顺序的UF)
+	private static void run(ForkJoinPool pool, int threads, UF uf, int n, Workload workload) {
+		if (threads == 0) {
+			workload.run(uf, 0, n);
+			return;
+		}
+		List<Callable<Object>> tasks = new ArrayList<Callable<Object>>();
+		for (int t = 0; t < threads; t++) {
+			int lo = (int) ((long) n * t / threads), hi = (int) ((long) n * (t + 1) / threads);
+			tasks.add(() -> { workload.run(uf, lo, hi); return null; });
+		}
+		pool.invokeAll(tasks);
+	}
+
+	private static void report(String workload, String name, int ops, Benchmark.Op run, int warmups, int iterations, long millis) {
+		double[] samples = Benchmark.measure(run, warmups, iterations, millis);
+		for (int i = 0; i < samples.length; i++)
+			samples[i] *= ops / 1e6;
+		System.out.printf("%-12s %-34s %14.2f %12.2f\n", workload, name, Benchmark.mean(samples), Benchmark.error(samples));
+	}
+
+	/**
+	 * 两种负载,每种比较WeightQuickUnionCompressionUF(单线程)和1,2,4...个线程的ConcurrentUF:
+	 *    percolation  n*n的网格,每个格子以0.593的概率打开,把所有相邻的打开的格子连接起来,
+	 *                 第一行和最后一行分别连接到两个虚拟触点,最后检查两者是否连通;
+	 *    kruskal      n*n个触点和2*n*n条随机的边,按顺序对每条边先检查connected(),不连通时再union().
+	 * 吞吐量按处理的连接(边)数计算.
+	 * 用法: java ConcurrentUF [n] [最大线程数] [预热轮数] [测量轮数] [每轮毫秒数]
+	 * */
+	public static void main(String[] args) {
+		int n = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+		int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+		int warmups = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+		int iterations = args.length > 3 ? Integer.parseInt(args[3]) : 5;
+		long millis = args.length > 4 ? Long.parseLong(args[4]) : 1000;
+
+		// 渗透:网格中相邻的打开的格子组成的边,top = n*n, bottom = n*n+1
+		int N = n * n;
+		boolean[] open = new boolean[N];
+		for (int i = 0; i < N; i++)
+			open[i] = StdRandom.bernoulli(0.593);
+		int m = 0;
+		int[] from = new int[2 * N + 2 * n], to = new int[2 * N + 2 * n];
+		for (int i = 0; i < N; i++) {
+			if (!open[i]) continue;
+			int row = i / n, col = i % n;
+			if (row == 0)           { from[m] = i; to[m++] = N; }
+			if (row == n - 1)       { from[m] = i; to[m++] = N + 1; }
+			if (col + 1 < n && open[i + 1]) { from[m] = i; to[m++] = i + 1; }
+			if (row + 1 < n && open[i + n]) { from[m] = i; to[m++] = i + n; }
+		}
+		int edges = m;
+		Workload percolation = (uf, lo, hi) -> {
+			for (int i = lo; i < hi; i++)
+				uf.union(from[i], to[i]);
+		};
+
+		// Kruskal:随机的边
+		int[] p = new int[2 * N], q = new int[2 * N];
+		for (int i = 0; i < 2 * N; i++) {
+			p[i] = StdRandom.uniform(N);
+			q[i] = StdRandom.uniform(N);
+		}
+		Workload kruskal = (uf, lo, hi) -> {
+			for (int i = lo; i < hi; i++)
+				if (!uf.connected(p[i], q[i])) uf.union(p[i], q[i]);
+		};
+
+		System.out.printf("n = %d (%d sites), %d x %d ms\n", n, N, iterations, millis);
+		System.out.printf("%-12s %-34s %14s %12s\n", "workload", "union-find", "Mlinks/s", "error(99.9%)");
+		String[] names = { "percolation", "kruskal" };
+		Workload[] workloads = { percolation, kruskal };
+		int[] ops = { edges, 2 * N };
+		for (int w = 0; w < workloads.length; w++) {
+			Workload workload = workloads[w];
+			int count = ops[w];
+			report(names[w], "WeightQuickUnionCompressionUF", count, () -> {
+				UF uf = new WeightQuickUnionCompressionUF(N + 2);
+				run(null, 0, uf, count, workload);
+				return uf.count();
+			}, warmups, iterations, millis);
+			for (Linking linking : Linking.values()) {
+				for (int threads = 1; threads <= maxThreads; threads *= 2) {
+					int t = threads;
+					ForkJoinPool pool = new ForkJoinPool(t);
+					report(names[w], "ConcurrentUF " + linking + ", " + t + " threads", count, () -> {
+						UF uf = new ConcurrentUF(N + 2, linking);
+						run(pool, t, uf, count, workload);
+						return uf.count();
+					}, warmups, iterations, millis);
+					pool.shutdown();
+				}
+			}
+		}
+	}
+}
@@ -25,7 +25,7 @@ public class WeightQuickUnionCompressionUF extends UF {
 	public int find(int p) {
 		validate(p);
 		int root=p;
-		while (root!=id[p])
+		while (root!=id[root])
 			root=id[root];
 		while (p!=root) {
 			int newp=id[p];
@@ -39,6 +39,7 @@ public class WeightQuickUnionCompressionUF extends UF {
 	public void union(int p, int q) {
 		int pRoot=find(p);
 		int qRoot=find(q);
+		if (pRoot==qRoot) return;
 		if (sz[pRoot]<sz[qRoot]) {
 			id[pRoot]=qRoot;
 			sz[qRoot]+=sz[pRoot];
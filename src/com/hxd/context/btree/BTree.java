@@ -1,5 +1,9 @@
 package com.hxd.context.btree;
 
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
 /**
  * 平衡树算法的扩展,多向平衡查找树<br>
  * 不会将数据保存在树中,而是构造一课由键的副本组成的树,每个副本都关联着一条连接.这种方式
@@ -34,56 +38,64 @@ package com.hxd.context.btree;
  * 它不调用{@code equals（）}或{@code hashCode（）}。在最坏的情况下，get，put和
  * contains操作都使logm n探测，其中n是键值对的数量，m是分支因子。大小和空的操作需要不断
  * 的时间。施工需要不断的时间。
+ * <br>-------------------------------------><br>
+ * 候旭东 20261017 默认的分支数M = 128,结点内用二分查找;支持delete(),删除后结点不足M/2对时向兄弟借或者合并;
+ * 外部结点之间有右兄弟链接,rangeScan(lo, hi)沿链接顺序扫描.
  * @author houxu_000
  *
  */
 @SuppressWarnings("rawtypes")
 public class BTree<Key extends Comparable<Key>, Value> {
-	
-	private static final int M = 4;
-	
+
+	private static final int DEFAULT_M = 128;
+
+	private final int M;		// 结点的最大分支数
 	private Node root;			//root of the B-tree
 	private int height;			// height of the B-tree
 	private int count;				// number of key-value pairs in the B-tree
-	
+
 	/**
 	 * B-Tree数据结构
+	 * 候旭东 20261017 键和值(或子结点)分别保存在两个并列的数组中,不再为每一对键值分配一个Entry,
+	 * 结点内的二分查找只扫描连续的键数组
+	 * 内部结点:只使用 keys 和 children,keys[j]是children[j]子树中所有键的下界,keys[0]相当于哨兵
+	 * 外部结点:只使用 keys, vals 和 right
 	 * @author houxu_000
 	 *
 	 */
 	private static final class Node {
 		private int number;								// number of children
-		private Entry[] children = new Entry[M];	// the array of children
-		private Node(int k) {
-			number = k;
+		private final Comparable[] keys;
+		private final Object[] vals;					// 外部结点的值
+		private final Node[] children;					// 内部结点的子结点
+		private Node right;								// 外部结点的右兄弟,用于范围扫描
+		private Node(int m, boolean leaf) {
+			keys = new Comparable[m];
+			vals = leaf ? new Object[m] : null;
+			children = leaf ? null : new Node[m];
 		}
-	}
-	
-	/**
-	 * 内部结点:只使用 key 和  next
-	 * 外部结点:只使用 key 和 value
-	 * @author houxu_000
-	 *
-	 */
-	private static class Entry {
-		
-		private Comparable key;
-		private final Object val;
-		private Node next;		//哨兵结点-引导遍历子树结点
-		public Entry(Comparable key, Object val, Node next) {
-			this.key = key;
-			this.val = val;
-			this.next = next;
+		private boolean isLeaf() {
+			return children == null;
 		}
 	}
-	
+
 	/**
      * Initializes an empty B-tree.
      */
 	public BTree() {
-		root = new Node(0);
+		this(DEFAULT_M);
+	}
+
+	/**
+	 * 候旭东 20261017 指定分支数的B-树
+	 * @param m 结点的最大分支数,不小于4的偶数
+	 */
+	public BTree(int m) {
+		if (m < 4 || m % 2 != 0) throw new IllegalArgumentException("M must be an even number >= 4: " + m);
+		M = m;
+		root = new Node(M, true);
 	}
-	
+
 	/**
      * Returns true if this symbol table is empty.
      * @return {@code true} if this symbol table is empty; {@code false} otherwise
@@ -99,7 +111,7 @@ public class BTree<Key extends Comparable<Key>, Value> {
 	public int size() {
 		return count;
 	}
-	
+
 	/**
      * Returns the height of this B-tree (for debugging).
      *
@@ -108,7 +120,12 @@ public class BTree<Key extends Comparable<Key>, Value> {
 	public int height(){
 		return height;
 	}
-	
+
+	public boolean contains(Key key) {
+		if (key == null) throw new IllegalArgumentException("argument to contains() is null");
+		return get(key) != null;
+	}
+
 	/**
 	 * 根据键值查找
 	 * @param  key the key
@@ -123,20 +140,13 @@ public class BTree<Key extends Comparable<Key>, Value> {
 
 	@SuppressWarnings("unchecked")
 	private Value search(Node x, Key key, int ht) {
-		Entry[] children = x.children;
-		
+		//内部结点:沿着下界不大于key的最后一个子结点向下
+		for (; ht > 0; ht--)
+			x = x.children[floor(x, key)];
 		//外部结点
-		if (ht == 0) {
-			for (int j = 0; j < x.number; j++)
-				if (eq(key, children[j].key))
-					return (Value) children[j].val; 
-		}
-		//内部结点
-		else {
-			for (int j = 0; j < x.number; j++)
-				if (j+1 == x.number || less(key, children[j+1].key))
-					return search(children[j].next, key, ht-1);
-		}
+		int j = lowerBound(x, key);
+		if (j < x.number && eq(key, x.keys[j]))
+			return (Value) x.vals[j];
 		return null;
 	}
 
@@ -150,72 +160,278 @@ public class BTree<Key extends Comparable<Key>, Value> {
 	 */
 	public void put(Key key, Value val) {
 		if (key == null) throw new IllegalArgumentException("argument key to put() is null");
+		if (val == null) {
+			delete(key);
+			return;
+		}
 		Node u = insert(root, key, val, height);
-		count++;
 		if (u == null) return;
-		
-		Node t = new Node(2);
-		t.children[0] = new Entry(root.children[0].key, null, root);
-		t.children[1] = new Entry(u.children[0].key, null, u);
+
+		Node t = new Node(M, false);
+		insertAt(t, 0, root.keys[0], null, root);
+		insertAt(t, 1, u.keys[0], null, u);
 		root = t;
 		height++;
 	}
-	
+
 	private Node insert(Node h, Key key, Value val, int ht) {
-		int j = 0;
-		Entry t = new Entry(key, val, null);
-		
-		//外部结点
+		//外部结点:键已经存在时只替换值
 		if (ht == 0) {
-			for (j = 0; j < h.number; j++)
-				if (less(key, h.children[j].key))	break;//获得j值来确定key在children中应该插入的位置
+			int j = lowerBound(h, key);
+			if (j < h.number && eq(key, h.keys[j])) {
+				h.vals[j] = val;
+				return null;
+			}
+			insertAt(h, j, key, val, null);
+			count++;
 		}
 		//内部结点
 		else {
-			for (j = 0; j < h.number; j++) 
-				if ((j + 1 == h.number) || less(key, h.children[j+1].key)) {
-					Node u = insert(h.children[j++].next, key, val, ht -1);
-					if (u == null) return null;			
-					t.key  = u.children[0].key;			//平衡
-					t.next = u;		
-					break;
-				}
+			int j = floor(h, key);
+			Node u = insert(h.children[j], key, val, ht - 1);
+			if (u == null) return null;
+			insertAt(h, j + 1, u.keys[0], null, u);		//平衡
 		}
-		
-		for (int i = h.number; i > j; i--)
-			h.children[i] = h.children[i-1];
-		h.children[j] = t;
-		h.number++;
 		if (h.number < M)	return null;
 		else			return split(h);
 	}
 
 	private Node split(Node h) {
-		Node t = new Node(M/2);
+		Node t = new Node(M, h.isLeaf());
 		h.number = M/2;
-		for (int j = 0; j < M/2; j++)
-			t.children[j] = h.children[M/2+j];
+		t.number = M/2;
+		System.arraycopy(h.keys, M/2, t.keys, 0, M/2);
+		if (h.isLeaf()) {
+			System.arraycopy(h.vals, M/2, t.vals, 0, M/2);
+			t.right = h.right;
+			h.right = t;
+		}
+		else System.arraycopy(h.children, M/2, t.children, 0, M/2);
+		clear(h, M/2, M);
 		return t;
 	}
 
+	/**
+	 * 候旭东 20261017 删除键
+	 * 从外部结点中删除之后,如果结点中的键少于M/2,就从左边或右边的兄弟结点借一对键值;
+	 * 兄弟结点也只有M/2对时和它合并,父结点因此少了一个子结点,可能继续向上调整.
+	 * 根结点只剩一个子结点时删除根结点,树高减1
+	 * @param key the key
+	 * @throws IllegalArgumentException if {@code key} is {@code null}
+	 */
+	public void delete(Key key) {
+		if (key == null) throw new IllegalArgumentException("argument to delete() is null");
+		delete(root, key, height);
+		while (height > 0 && root.number == 1) {
+			root = root.children[0];
+			height--;
+		}
+	}
+
+	// 返回h的键是否少于M/2
+	private boolean delete(Node h, Key key, int ht) {
+		if (ht == 0) {
+			int j = lowerBound(h, key);
+			if (j == h.number || !eq(key, h.keys[j])) return false;
+			removeAt(h, j);
+			count--;
+		}
+		else {
+			int j = floor(h, key);
+			if (!delete(h.children[j], key, ht - 1)) return false;
+			rebalance(h, j);
+		}
+		return h.number < M/2;
+	}
+
+	// h的第j个子结点少于M/2对键值:先尝试向兄弟借,否则合并
+	private void rebalance(Node h, int j) {
+		if (j > 0 && h.children[j-1].number > M/2)					borrowLeft(h, j);
+		else if (j + 1 < h.number && h.children[j+1].number > M/2)	borrowRight(h, j);
+		else if (j > 0)												merge(h, j - 1);
+		else if (j + 1 < h.number)									merge(h, j);
+	}
+
+	// 把左兄弟的最后一对移到第j个子结点的最前面
+	private void borrowLeft(Node h, int j) {
+		Node left = h.children[j-1], x = h.children[j];
+		int last = left.number - 1;
+		if (x.isLeaf()) {
+			insertAt(x, 0, left.keys[last], left.vals[last], null);
+		}
+		else {
+			// x原来的第一个子结点以h.keys[j]为下界
+			x.keys[0] = h.keys[j];
+			insertAt(x, 0, left.keys[last], null, left.children[last]);
+		}
+		removeAt(left, last);
+		h.keys[j] = x.keys[0];
+	}
+
+	// 把右兄弟的第一对移到第j个子结点的最后面
+	private void borrowRight(Node h, int j) {
+		Node right = h.children[j+1], x = h.children[j];
+		if (x.isLeaf()) {
+			insertAt(x, x.number, right.keys[0], right.vals[0], null);
+		}
+		else {
+			insertAt(x, x.number, h.keys[j+1], null, right.children[0]);
+		}
+		removeAt(right, 0);
+		h.keys[j+1] = right.keys[0];
+	}
+
+	// 把第i+1个子结点合并到第i个子结点中
+	private void merge(Node h, int i) {
+		Node left = h.children[i], right = h.children[i+1];
+		if (left.isLeaf()) {
+			System.arraycopy(right.vals, 0, left.vals, left.number, right.number);
+			left.right = right.right;
+		}
+		else {
+			right.keys[0] = h.keys[i+1];
+			System.arraycopy(right.children, 0, left.children, left.number, right.number);
+		}
+		System.arraycopy(right.keys, 0, left.keys, left.number, right.number);
+		left.number += right.number;
+		removeAt(h, i + 1);
+	}
+
+	/**
+	 * 候旭东 20261017 按顺序遍历[lo, hi]之间的键
+	 * 从lo所在的外部结点开始沿着右兄弟链接扫描,每取得一个键只需要常数时间,不复制到队列中
+	 * @throws IllegalArgumentException if {@code lo} or {@code hi} is {@code null}
+	 */
+	public Iterable<Key> rangeScan(Key lo, Key hi) {
+		if (lo == null) throw new IllegalArgumentException("first argument to rangeScan() is null");
+		if (hi == null) throw new IllegalArgumentException("second argument to rangeScan() is null");
+		return () -> {
+			Node x = root;
+			for (int ht = height; ht > 0; ht--)
+				x = x.children[floor(x, lo)];
+			return new LeafIterator(x, lowerBound(x, lo), hi);
+		};
+	}
+
+	/**
+	 * 候旭东 20261017 按顺序遍历所有的键
+	 */
+	public Iterable<Key> keys() {
+		return () -> {
+			Node x = root;
+			for (int ht = height; ht > 0; ht--)
+				x = x.children[0];
+			return new LeafIterator(x, 0, null);
+		};
+	}
+
+	// 沿着外部结点的链接遍历,hi为null时没有上界.遍历期间不能修改B-树
+	private final class LeafIterator implements Iterator<Key> {
+		private Node leaf;
+		private int j;
+		private final Key hi;
+
+		private LeafIterator(Node leaf, int j, Key hi) {
+			this.leaf = leaf;
+			this.j = j;
+			this.hi = hi;
+			advance();
+		}
+
+		// 跳过已经扫描完的外部结点,越过上界时结束
+		private void advance() {
+			while (leaf != null && j == leaf.number) {
+				leaf = leaf.right;
+				j = 0;
+			}
+			if (leaf != null && hi != null && less(hi, leaf.keys[j])) leaf = null;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return leaf != null;
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public Key next() {
+			if (!hasNext()) throw new NoSuchElementException();
+			Key key = (Key) leaf.keys[j++];
+			advance();
+			return key;
+		}
+	}
+
+	// 外部结点中第一个不小于key的位置
+	private int lowerBound(Node x, Key key) {
+		int lo = 0, hi = x.number;
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (less(x.keys[mid], key))	lo = mid + 1;
+			else						hi = mid;
+		}
+		return lo;
+	}
+
+	// 内部结点中最后一个下界不大于key的子结点,keys[0]视为哨兵
+	private int floor(Node x, Key key) {
+		int lo = 1, hi = x.number;
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (less(key, x.keys[mid]))	hi = mid;
+			else						lo = mid + 1;
+		}
+		return lo - 1;
+	}
+
+	private static void insertAt(Node h, int j, Comparable key, Object val, Node child) {
+		int n = h.number - j;
+		System.arraycopy(h.keys, j, h.keys, j + 1, n);
+		h.keys[j] = key;
+		if (h.isLeaf()) {
+			System.arraycopy(h.vals, j, h.vals, j + 1, n);
+			h.vals[j] = val;
+		}
+		else {
+			System.arraycopy(h.children, j, h.children, j + 1, n);
+			h.children[j] = child;
+		}
+		h.number++;
+	}
+
+	private static void removeAt(Node h, int j) {
+		int n = h.number - j - 1;
+		System.arraycopy(h.keys, j + 1, h.keys, j, n);
+		if (h.isLeaf())	System.arraycopy(h.vals, j + 1, h.vals, j, n);
+		else			System.arraycopy(h.children, j + 1, h.children, j, n);
+		h.number--;
+		clear(h, h.number, h.number + 1);
+	}
+
+	// 释放[from, to)位置上的引用
+	private static void clear(Node h, int from, int to) {
+		Arrays.fill(h.keys, from, to, null);
+		if (h.isLeaf())	Arrays.fill(h.vals, from, to, null);
+		else			Arrays.fill(h.children, from, to, null);
+	}
+
 	@Override
 	public String toString() {
 		return toString(root, height, "") + "\n";
 	}
-	
+
 	private String toString(Node h, int ht, String indent) {
 		StringBuilder s = new StringBuilder();
-		Entry[] children = h.children;
-		
+
 		if (ht == 0) {
 			for (int j = 0; j < h.number; j++)
-				s.append(indent + children[j].key + " "+ children[j].val + "\n");
+				s.append(indent + h.keys[j] + " "+ h.vals[j] + "\n");
 		}
 		else {
 			for (int j = 0; j < h.number; j++){
 				//递归打印显示动态平衡
-				if (j > 0)	s.append(indent + "(" + children[j].key + ")\n");
-				s.append(toString(children[j].next, ht-1, indent + "\t"));
+				if (j > 0)	s.append(indent + "(" + h.keys[j] + ")\n");
+				s.append(toString(h.children[j], ht-1, indent + "\t"));
 			}
 		}
 		return s.toString();
@@ -276,7 +492,7 @@ public class BTree<Key extends Comparable<Key>, Value> {
         /**
          * 理解示例
          */
-        BTree<String, Integer> st2 = new BTree<String, Integer>();
+        BTree<String, Integer> st2 = new BTree<String, Integer>(4);
         st2.put("A", 1);
         st2.put("B", 2);
         st2.put("C", 3);
@@ -292,5 +508,17 @@ public class BTree<Key extends Comparable<Key>, Value> {
         System.out.println("height:\t\t" + st2.height());
         System.out.println(st2);
         System.out.println();
+
+        /**
+         * 删除和范围扫描
+         */
+        st2.delete("A");
+        st2.delete("B");
+        System.out.println("size:\t\t" + st2.size());
+        System.out.println("height:\t\t" + st2.height());
+        System.out.println(st2);
+        for (String s : st2.rangeScan("B", "E"))
+            System.out.print(s + " ");
+        System.out.println();
     }
 }
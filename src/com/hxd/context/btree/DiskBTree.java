@@ -0,0 +1,576 @@
+package com.hxd.context.btree;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import com.hxd.introcs.stdlib.StdRandom;
+
+/**
+ * 候旭东 20261017 保存在磁盘上的B-树
+ * BTree的结点都在堆中,索引超过内存时无法使用.DiskBTree沿用BTree的结构(内部结点的第0个键是哨兵,
+ * 结点中的键数达到M时分裂为两个M/2的结点,向上插入新结点的第一个键),但是:
+ *    1: 每个结点是文件中一个固定大小的页(默认4KB),键和值都是long,按 类型|键数|右兄弟|M个键|M个值
+ *       的紧凑格式存放,在页内用二分查找.外部结点保存键值对,内部结点的"值"是子结点的页号,
+ *       M = (页大小-16)/16,4KB的页M = 255;
+ *    2: 文件通过FileChannel.map()按16MB的段映射到内存中,读取一页只是一次内存复制;
+ *    3: 缓冲池按LRU顺序保存最近使用的页的副本(LinkedHashMap的访问顺序),容量按页数计算,
+ *       超出时淘汰最久未使用的干净页;
+ *    4: 外部结点通过右兄弟链接起来,cursor(lo, hi)定位到lo所在的外部结点之后只沿链接顺序扫描;
+ *    5: 修改只发生在缓冲池中的脏页上,commit()时先把所有脏页的完整内容和CRC32校验和写入日志文件
+ *       并刷盘,再写回映射的文件并刷盘,最后清空日志.打开文件时如果日志完整就重做一遍,不完整就丢弃,
+ *       所以文件总是处于最后一次提交之后的状态.脏页超过缓冲池的一半时自动提交.
+ * get()和put()访问的页数等于树的高度~log_M(N),和数据是否超出内存无关.
+ * delete()只从外部结点中删除键,不合并结点(空的外部结点仍然留在兄弟链接中).
+ * 值不能等于NOT_FOUND
+ * */
+public class DiskBTree implements Closeable {
+	public static final int DEFAULT_PAGE_SIZE = 4096;
+	public static final int DEFAULT_CACHE_PAGES = 1 << 14;
+	/**
+	 * get()在键不存在时的返回值
+	 * */
+	public static final long NOT_FOUND = Long.MIN_VALUE;
+
+	private static final long MAGIC = 0x4858444254524545L;
+	private static final int CHUNK = 1 << 24;			// 每次映射的段的大小
+	private static final byte LEAF = 1, INTERNAL = 2;
+	private static final long NONE = -1;
+
+	// 页内的偏移
+	private static final int TYPE = 0, NUMBER = 2, NEXT = 8, ENTRIES = 16;
+	// 第0页(文件头)中的偏移
+	private static final int H_MAGIC = 0, H_PAGE_SIZE = 8, H_ROOT = 16, H_HEIGHT = 24, H_COUNT = 32, H_PAGES = 40;
+
+	private final Path path;
+	private final FileChannel channel;
+	private final FileChannel journal;
+	private final int pageSize;
+	private final int M;					// 每页最多的键数
+	private final int cachePages;
+	private final List<MappedByteBuffer> chunks = new ArrayList<MappedByteBuffer>();
+	private final LinkedHashMap<Long, Page> cache;
+	private int dirty;						// 缓冲池中的脏页数
+
+	private long root;						// 根结点的页号
+	private int height;
+	private long count;						// 键值对的数量
+	private long pages;						// 已分配的页数(包括文件头)
+
+	/**
+	 * 缓冲池中的一页,内容是文件中对应页的副本
+	 * */
+	private final class Page {
+		final long id;
+		final ByteBuffer buf;
+		final byte[] bytes;
+		boolean dirty;
+
+		Page(long id, byte[] bytes) {
+			this.id = id;
+			this.bytes = bytes;
+			buf = ByteBuffer.wrap(bytes);
+		}
+
+		boolean isLeaf()			{ return buf.get(TYPE) == LEAF; }
+		int number()				{ return buf.getShort(NUMBER); }
+		long next()					{ return buf.getLong(NEXT); }
+		long key(int i)				{ return buf.getLong(ENTRIES + 8 * i); }
+		long value(int i)			{ return buf.getLong(ENTRIES + 8 * (M + i)); }
+		void setNumber(int n)		{ buf.putShort(NUMBER, (short) n); }
+		void setNext(long next)		{ buf.putLong(NEXT, next); }
+		void setKey(int i, long k)	{ buf.putLong(ENTRIES + 8 * i, k); }
+		void setValue(int i, long v){ buf.putLong(ENTRIES + 8 * (M + i), v); }
+
+		// 外部结点:第一个大于等于key的位置
+		int lowerBound(long key) {
+			int lo = 0, hi = number();
+			while (lo < hi) {
+				int mid = (lo + hi) >>> 1;
+				if (key(mid) < key) lo = mid + 1;
+				else                hi = mid;
+			}
+			return lo;
+		}
+
+		// 内部结点:最后一个小于等于key的位置,第0个键是哨兵,视为负无穷
+		int floor(long key) {
+			int lo = 1, hi = number();
+			while (lo < hi) {
+				int mid = (lo + hi) >>> 1;
+				if (key(mid) <= key) lo = mid + 1;
+				else                 hi = mid;
+			}
+			return lo - 1;
+		}
+
+		// 在位置j插入一对键值,后面的键和值各自整体后移
+		void insert(int j, long key, long value) {
+			int n = number();
+			System.arraycopy(bytes, ENTRIES + 8 * j, bytes, ENTRIES + 8 * (j + 1), 8 * (n - j));
+			System.arraycopy(bytes, ENTRIES + 8 * (M + j), bytes, ENTRIES + 8 * (M + j + 1), 8 * (n - j));
+			setKey(j, key);
+			setValue(j, value);
+			setNumber(n + 1);
+		}
+
+		void remove(int j) {
+			int n = number();
+			System.arraycopy(bytes, ENTRIES + 8 * (j + 1), bytes, ENTRIES + 8 * j, 8 * (n - j - 1));
+			System.arraycopy(bytes, ENTRIES + 8 * (M + j + 1), bytes, ENTRIES + 8 * (M + j), 8 * (n - j - 1));
+			setNumber(n - 1);
+		}
+	}
+
+	public DiskBTree(Path path) throws IOException {
+		this(path, DEFAULT_PAGE_SIZE, DEFAULT_CACHE_PAGES);
+	}
+
+	/**
+	 * 打开或者创建一个索引文件.日志文件为path加上".journal"
+	 * @param pageSize 页的大小(字节),必须是2的幂,512到32768之间;打开已有的文件时必须和创建时相同
+	 * @param cachePages 缓冲池的容量(页数)
+	 */
+	public DiskBTree(Path path, int pageSize, int cachePages) throws IOException {
+		if (pageSize < 512 || pageSize > 32768 || Integer.bitCount(pageSize) != 1)
+			throw new IllegalArgumentException("page size must be a power of two in [512, 32768]: " + pageSize);
+		if (cachePages < 16) throw new IllegalArgumentException("cache too small: " + cachePages);
+		this.path = path;
+		this.pageSize = pageSize;
+		this.cachePages = cachePages;
+		M = (pageSize - ENTRIES) / 16;
+		cache = new LinkedHashMap<Long, Page>(2 * cachePages, 0.75f, true);
+		channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		journal = FileChannel.open(journalPath(path), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		try {
+			boolean empty = channel.size() == 0;
+			recover();
+			if (empty) {
+				pages = 1;
+				Page leaf = allocate(LEAF);
+				root = leaf.id;
+				height = 0;
+				count = 0;
+				commit();
+			}
+			else readHeader();
+		}
+		catch (IOException | RuntimeException e) {
+			channel.close();
+			journal.close();
+			throw e;
+		}
+	}
+
+	private static Path journalPath(Path path) {
+		return Paths.get(path.toString() + ".journal");
+	}
+
+	/***************************************************************************
+	 *  缓冲池和映射的文件
+	 ***************************************************************************/
+
+	// 页所在的映射段,需要时映射新的段(文件随之增长)
+	private MappedByteBuffer chunk(long id) throws IOException {
+		int c = (int) (id * pageSize / CHUNK);
+		while (chunks.size() <= c)
+			chunks.add(channel.map(FileChannel.MapMode.READ_WRITE, (long) chunks.size() * CHUNK, CHUNK));
+		return chunks.get(c);
+	}
+
+	private int offset(long id) {
+		return (int) (id * pageSize % CHUNK);
+	}
+
+	private Page page(long id) {
+		Page p = cache.get(id);
+		if (p != null) return p;
+		try {
+			ByteBuffer b = chunk(id).duplicate();
+			b.position(offset(id));
+			p = new Page(id, new byte[pageSize]);
+			b.get(p.bytes);
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		cache.put(id, p);
+		return p;
+	}
+
+	private Page allocate(byte type) {
+		Page p = new Page(pages++, new byte[pageSize]);
+		p.buf.put(TYPE, type);
+		p.setNext(NONE);
+		cache.put(p.id, p);
+		markDirty(p);
+		return p;
+	}
+
+	private void markDirty(Page p) {
+		if (!p.dirty) {
+			p.dirty = true;
+			dirty++;
+		}
+	}
+
+	// 每次操作结束之后调用:淘汰最久未使用的干净页,脏页太多时提交
+	private void trim() {
+		if (dirty > cachePages / 2) {
+			try {
+				commit();
+			}
+			catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+		Iterator<Page> it = cache.values().iterator();
+		while (cache.size() > cachePages && it.hasNext())
+			if (!it.next().dirty) it.remove();
+	}
+
+	/***************************************************************************
+	 *  提交和恢复
+	 ***************************************************************************/
+
+	/**
+	 * 把所有修改原子地写入文件:先写日志,再写回文件,最后清空日志
+	 * */
+	public void commit() throws IOException {
+		writeHeader();
+		List<Page> list = new ArrayList<Page>();
+		for (Page p : cache.values())
+			if (p.dirty) list.add(p);
+
+		// 1: 日志: 魔数 | 页数 | (页号 | 页的内容)* | CRC32
+		ByteBuffer head = ByteBuffer.allocate(16);
+		head.putLong(MAGIC).putLong(list.size()).flip();
+		CRC32 crc = new CRC32();
+		crc.update(head.array(), 0, 16);
+		journal.truncate(0);
+		journal.position(0);
+		writeFully(journal, head);
+		ByteBuffer id = ByteBuffer.allocate(8);
+		for (Page p : list) {
+			id.clear();
+			id.putLong(p.id).flip();
+			crc.update(id.array(), 0, 8);
+			crc.update(p.bytes, 0, pageSize);
+			writeFully(journal, id);
+			writeFully(journal, ByteBuffer.wrap(p.bytes));
+		}
+		ByteBuffer tail = ByteBuffer.allocate(8);
+		tail.putLong(crc.getValue()).flip();
+		writeFully(journal, tail);
+		journal.force(true);
+
+		// 2: 写回映射的文件
+		for (Page p : list)
+			writePage(p.id, p.bytes);
+		for (MappedByteBuffer chunk : chunks)
+			chunk.force();
+
+		// 3: 清空日志
+		journal.truncate(0);
+		journal.force(true);
+		for (Page p : list)
+			p.dirty = false;
+		dirty = 0;
+	}
+
+	// 日志完整时重做,否则丢弃
+	private void recover() throws IOException {
+		long size = journal.size();
+		if (size == 0) return;
+		long record = 8L + pageSize;
+		if (size >= 24 && size <= Integer.MAX_VALUE) {
+			ByteBuffer all = ByteBuffer.allocate((int) size);
+			journal.position(0);
+			while (all.hasRemaining() && journal.read(all) >= 0);
+			all.flip();
+			long n = all.getLong(8);
+			if (all.getLong(0) == MAGIC && n >= 0 && size == 24 + n * record) {
+				CRC32 crc = new CRC32();
+				crc.update(all.array(), 0, (int) (size - 8));
+				if (crc.getValue() == all.getLong((int) (size - 8))) {
+					byte[] bytes = new byte[pageSize];
+					for (int i = 0; i < n; i++) {
+						int at = (int) (16 + i * record);
+						long id = all.getLong(at);
+						System.arraycopy(all.array(), at + 8, bytes, 0, pageSize);
+						writePage(id, bytes);
+					}
+					for (MappedByteBuffer chunk : chunks)
+						chunk.force();
+				}
+			}
+		}
+		journal.truncate(0);
+		journal.force(true);
+	}
+
+	private void writePage(long id, byte[] bytes) throws IOException {
+		ByteBuffer b = chunk(id).duplicate();
+		b.position(offset(id));
+		b.put(bytes, 0, pageSize);
+	}
+
+	private static void writeFully(FileChannel channel, ByteBuffer b) throws IOException {
+		while (b.hasRemaining())
+			channel.write(b);
+	}
+
+	private void writeHeader() {
+		Page h = page(0);
+		h.buf.putLong(H_MAGIC, MAGIC);
+		h.buf.putLong(H_PAGE_SIZE, pageSize);
+		h.buf.putLong(H_ROOT, root);
+		h.buf.putLong(H_HEIGHT, height);
+		h.buf.putLong(H_COUNT, count);
+		h.buf.putLong(H_PAGES, pages);
+		markDirty(h);
+	}
+
+	private void readHeader() throws IOException {
+		ByteBuffer b = chunk(0).duplicate();
+		if (b.getLong(H_MAGIC) != MAGIC) throw new IOException(path + " is not a DiskBTree file");
+		if (b.getLong(H_PAGE_SIZE) != pageSize)
+			throw new IOException(path + " was created with page size " + b.getLong(H_PAGE_SIZE));
+		root = b.getLong(H_ROOT);
+		height = (int) b.getLong(H_HEIGHT);
+		count = b.getLong(H_COUNT);
+		pages = b.getLong(H_PAGES);
+	}
+
+	/**
+	 * 提交之后关闭文件
+	 * */
+	@Override
+	public void close() throws IOException {
+		try {
+			commit();
+		}
+		finally {
+			channel.close();
+			journal.close();
+		}
+	}
+
+	/***************************************************************************
+	 *  符号表操作
+	 ***************************************************************************/
+
+	public long size() {
+		return count;
+	}
+
+	public boolean isEmpty() {
+		return count == 0;
+	}
+
+	public int height() {
+		return height;
+	}
+
+	public boolean contains(long key) {
+		return get(key) != NOT_FOUND;
+	}
+
+	/**
+	 * 键对应的值,不存在时返回NOT_FOUND
+	 * */
+	public long get(long key) {
+		Page x = page(root);
+		for (int ht = height; ht > 0; ht--)
+			x = page(x.value(x.floor(key)));
+		int j = x.lowerBound(key);
+		long value = j < x.number() && x.key(j) == key ? x.value(j) : NOT_FOUND;
+		trim();
+		return value;
+	}
+
+	public void put(long key, long value) {
+		if (value == NOT_FOUND) throw new IllegalArgumentException("value must not be NOT_FOUND");
+		long u = insert(root, key, value, height);
+		if (u != NONE) {
+			// 根结点分裂,树高加1
+			Page t = allocate(INTERNAL);
+			t.insert(0, page(root).key(0), root);
+			t.insert(1, page(u).key(0), u);
+			root = t.id;
+			height++;
+		}
+		trim();
+	}
+
+	// 插入以id为根,高度为ht的子树,结点分裂时返回新结点的页号,否则返回NONE
+	private long insert(long id, long key, long value, int ht) {
+		Page h = page(id);
+		int j;
+		if (ht == 0) {
+			j = h.lowerBound(key);
+			if (j < h.number() && h.key(j) == key) {
+				h.setValue(j, value);
+				markDirty(h);
+				return NONE;
+			}
+			count++;
+		}
+		else {
+			j = h.floor(key);
+			long u = insert(h.value(j), key, value, ht - 1);
+			if (u == NONE) return NONE;
+			key = page(u).key(0);
+			value = u;
+			j++;
+		}
+		h.insert(j, key, value);
+		markDirty(h);
+		if (h.number() < M) return NONE;
+		return split(h);
+	}
+
+	private long split(Page h) {
+		Page t = allocate(h.isLeaf() ? LEAF : INTERNAL);
+		int half = M / 2, n = h.number();
+		System.arraycopy(h.bytes, ENTRIES + 8 * half, t.bytes, ENTRIES, 8 * (n - half));
+		System.arraycopy(h.bytes, ENTRIES + 8 * (M + half), t.bytes, ENTRIES + 8 * M, 8 * (n - half));
+		t.setNumber(n - half);
+		h.setNumber(half);
+		if (h.isLeaf()) {
+			t.setNext(h.next());
+			h.setNext(t.id);
+		}
+		return t.id;
+	}
+
+	/**
+	 * 从外部结点中删除键,不合并结点
+	 * */
+	public void delete(long key) {
+		Page x = page(root);
+		for (int ht = height; ht > 0; ht--)
+			x = page(x.value(x.floor(key)));
+		int j = x.lowerBound(key);
+		if (j < x.number() && x.key(j) == key) {
+			x.remove(j);
+			markDirty(x);
+			count--;
+		}
+		trim();
+	}
+
+	/**
+	 * 按键的顺序遍历[lo, hi]之间的键值对:
+	 * <pre>
+	 *     Cursor c = tree.cursor(lo, hi);
+	 *     while (c.next()) use(c.key(), c.value());
+	 * </pre>
+	 * 遍历期间不能修改索引
+	 * */
+	public Cursor cursor(long lo, long hi) {
+		Page x = page(root);
+		for (int ht = height; ht > 0; ht--)
+			x = page(x.value(x.floor(lo)));
+		return new Cursor(x, x.lowerBound(lo), hi);
+	}
+
+	public final class Cursor {
+		private Page leaf;
+		private int i;
+		private final long hi;
+		private long key, value;
+
+		private Cursor(Page leaf, int i, long hi) {
+			this.leaf = leaf;
+			this.i = i - 1;
+			this.hi = hi;
+		}
+
+		/**
+		 * 移动到下一个键值对,已经超出范围时返回false
+		 * */
+		public boolean next() {
+			if (leaf == null) return false;
+			i++;
+			while (i >= leaf.number()) {
+				long next = leaf.next();
+				if (next == NONE) {
+					leaf = null;
+					return false;
+				}
+				leaf = page(next);
+				i = 0;
+			}
+			key = leaf.key(i);
+			if (key > hi) {
+				leaf = null;
+				return false;
+			}
+			value = leaf.value(i);
+			return true;
+		}
+
+		public long key()	{ return key; }
+		public long value()	{ return value; }
+	}
+
+	/**
+	 * 用法: java DiskBTree 文件 [键数] [缓冲池页数]
+	 * 插入随机的键,统计get()的延迟分布,关闭后重新打开并检查内容
+	 * */
+	public static void main(String[] args) throws IOException {
+		Path path = Paths.get(args.length > 0 ? args[0] : "btree.db");
+		int n = args.length > 1 ? Integer.parseInt(args[1]) : 1000000;
+		int cachePages = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_CACHE_PAGES;
+		Files.deleteIfExists(path);
+
+		long[] keys = new long[n];
+		for (int i = 0; i < n; i++)
+			keys[i] = (long) (StdRandom.uniform() * Long.MAX_VALUE);
+		long start = System.nanoTime();
+		try (DiskBTree tree = new DiskBTree(path, DEFAULT_PAGE_SIZE, cachePages)) {
+			for (int i = 0; i < n; i++)
+				tree.put(keys[i], i);
+			tree.commit();
+			System.out.printf("put %d keys: %.1f s, height %d, file %d MB\n",
+					n, (System.nanoTime() - start) / 1e9, tree.height(), Files.size(path) >> 20);
+
+			int samples = Math.min(n, 100000);
+			long[] latency = new long[samples];
+			for (int i = 0; i < samples; i++) {
+				long key = keys[StdRandom.uniform(n)];
+				long t = System.nanoTime();
+				if (tree.get(key) == NOT_FOUND) throw new IllegalStateException("lost key " + key);
+				latency[i] = System.nanoTime() - t;
+			}
+			Arrays.sort(latency);
+			System.out.printf("get latency: p50 %d ns, p99 %d ns, p99.9 %d ns\n",
+					latency[samples / 2], latency[samples * 99 / 100], latency[samples * 999 / 1000]);
+		}
+
+		try (DiskBTree tree = new DiskBTree(path, DEFAULT_PAGE_SIZE, cachePages)) {
+			long scanned = 0, previous = Long.MIN_VALUE;
+			Cursor c = tree.cursor(Long.MIN_VALUE, Long.MAX_VALUE);
+			while (c.next()) {
+				if (c.key() <= previous) throw new IllegalStateException("keys out of order");
+				previous = c.key();
+				scanned++;
+			}
+			System.out.printf("reopened: size %d, scanned %d\n", tree.size(), scanned);
+		}
+	}
+}
@@ -0,0 +1,240 @@
+package com.hxd.graphs;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.file.FileSystemNotFoundException;
+
+import com.hxd.graphs.directedGraphs.Digraph;
+import com.hxd.graphs.undirectedGraphs.Graph;
+import com.hxd.introcs.stdlib.In;
+
+/**
+ *	压缩稀疏行(compressed sparse row, CSR)表示的不可变图,实现了{@link IntGraph}.
+ *	Graph和Digraph的邻接表是Bag<Integer>[],每条边需要一个链表结点和一个Integer对象,在64位JVM上大约要40多个字节;
+ *	这里所有顶点的邻接表首尾相接保存在一个int数组targets中,offsets[v]到offsets[v+1]是顶点v的邻接表,
+ *	每条边只需要4个字节,每个顶点8个字节,遍历邻接表是对连续内存的顺序访问.
+ *	<p>
+ *	targets可以放在堆外:这时它被分成若干段直接缓冲区(每段最多2^27个int),边数可以超过2^31,
+ *	也不会给垃圾收集器增加负担.offsets总是保存在堆内的long[]中.
+ *	<p>
+ *	构造之后不能再添加边.从Graph/Digraph转换时邻接表中顶点的顺序保持不变,所以在两种表示上运行
+ *	DepthFirstPaths等算法得到的结果完全相同.
+ *	<p>
+ *	@author 候旭东 20261017
+ * */
+public class CSRGraph implements IntGraph {
+	private static final String NEWLINE = System.getProperty("line.separator");
+	private static final int SEGMENT_SHIFT = 27;
+	private static final int SEGMENT_SIZE = 1 << SEGMENT_SHIFT;		// 每段堆外缓冲区中的int数
+	private static final int SEGMENT_MASK = SEGMENT_SIZE - 1;
+
+	private final int V;
+	private final long E;
+	private final boolean directed;
+	private final long[] offsets;		// offsets[v]..offsets[v+1]-1 = 顶点v的邻接表
+	private final int[] targets;		// 堆内的邻接表,堆外时为null
+	private final IntBuffer[] segments;	// 堆外的邻接表,堆内时为null
+
+	private CSRGraph(int V, long E, boolean directed, long[] offsets, boolean offHeap) {
+		this.V = V;
+		this.E = E;
+		this.directed = directed;
+		this.offsets = offsets;
+		long n = offsets[V];
+		if (offHeap) {
+			targets = null;
+			segments = new IntBuffer[(int) ((n + SEGMENT_SIZE - 1) >>> SEGMENT_SHIFT)];
+			for (int i = 0; i < segments.length; i++) {
+				int size = (int) Math.min(SEGMENT_SIZE, n - ((long) i << SEGMENT_SHIFT));
+				segments[i] = ByteBuffer.allocateDirect(size * 4).order(ByteOrder.nativeOrder()).asIntBuffer();
+			}
+		} else {
+			if (n > Integer.MAX_VALUE - 8) throw new IllegalArgumentException("too many edges for an on-heap graph: " + n);
+			targets = new int[(int) n];
+			segments = null;
+		}
+	}
+
+	/**
+	 * 把无向图G转换为CSR表示
+	 * @param G 无向图
+	 * @param offHeap 邻接表是否放在堆外
+	 */
+	public static CSRGraph of(Graph G, boolean offHeap) {
+		int V = G.V();
+		long[] offsets = new long[V + 1];
+		for (int v = 0; v < V; v++)
+			offsets[v + 1] = offsets[v] + G.degree(v);
+		CSRGraph csr = new CSRGraph(V, G.E(), false, offsets, offHeap);
+		for (int v = 0; v < V; v++) {
+			long e = offsets[v];
+			for (int w : G.adj(v))
+				csr.set(e++, w);
+		}
+		return csr;
+	}
+
+	/**
+	 * 把有向图G转换为CSR表示
+	 * @param G 有向图
+	 * @param offHeap 邻接表是否放在堆外
+	 */
+	public static CSRGraph of(Digraph G, boolean offHeap) {
+		int V = G.V();
+		long[] offsets = new long[V + 1];
+		for (int v = 0; v < V; v++)
+			offsets[v + 1] = offsets[v] + G.outdegree(v);
+		CSRGraph csr = new CSRGraph(V, G.E(), true, offsets, offHeap);
+		for (int v = 0; v < V; v++) {
+			long e = offsets[v];
+			for (int w : G.adj(v))
+				csr.set(e++, w);
+		}
+		return csr;
+	}
+
+	/**
+	 * 由边表构造CSR图,第i条边是from[i]-to[i](有向图中为from[i]->to[i]).
+	 * 使用键索引计数:先统计每个顶点的度数得到offsets,再把每条边放到它的起点的邻接表中,
+	 * 每个邻接表中的顶点按照边在边表中出现的顺序排列.
+	 * @param V 顶点数
+	 * @param from 边的起点
+	 * @param to 边的终点
+	 * @param E 边数,使用from和to的前E个元素
+	 * @param directed 是否为有向图
+	 * @param offHeap 邻接表是否放在堆外
+	 * @throws IllegalArgumentException 如果某条边的端点不在0到V-1之间
+	 */
+	public static CSRGraph fromEdges(int V, int[] from, int[] to, int E, boolean directed, boolean offHeap) {
+		if (V < 0) throw new IllegalArgumentException("Number of vertices must be nonnegative");
+		if (E < 0 || E > from.length || E > to.length) throw new IllegalArgumentException("invalid number of edges: " + E);
+		long[] offsets = new long[V + 1];
+		for (int i = 0; i < E; i++) {
+			int v = from[i], w = to[i];
+			validateVertex(v, V);
+			validateVertex(w, V);
+			offsets[v + 1]++;
+			if (!directed) offsets[w + 1]++;
+		}
+		for (int v = 0; v < V; v++)
+			offsets[v + 1] += offsets[v];
+		CSRGraph csr = new CSRGraph(V, E, directed, offsets, offHeap);
+		long[] next = offsets.clone();
+		for (int i = 0; i < E; i++) {
+			int v = from[i], w = to[i];
+			csr.set(next[v]++, w);
+			if (!directed) csr.set(next[w]++, v);
+		}
+		return csr;
+	}
+
+	private void set(long e, int w) {
+		if (targets != null) targets[(int) e] = w;
+		else segments[(int) (e >>> SEGMENT_SHIFT)].put((int) (e & SEGMENT_MASK), w);
+	}
+
+	@Override
+	public int target(long e) {
+		if (targets != null) return targets[(int) e];
+		return segments[(int) (e >>> SEGMENT_SHIFT)].get((int) (e & SEGMENT_MASK));
+	}
+
+	@Override
+	public int V() {
+		return V;
+	}
+
+	@Override
+	public long E() {
+		return E;
+	}
+
+	@Override
+	public boolean directed() {
+		return directed;
+	}
+
+	@Override
+	public long begin(int v) {
+		validateVertex(v, V);
+		return offsets[v];
+	}
+
+	@Override
+	public long end(int v) {
+		validateVertex(v, V);
+		return offsets[v + 1];
+	}
+
+	/**
+	 * @return 邻接表是否保存在堆外
+	 */
+	public boolean isOffHeap() {
+		return targets == null;
+	}
+
+	/**
+	 * 返回这幅图占用的字节数(offsets和targets),不包括对象头
+	 */
+	public long bytes() {
+		return 8L * offsets.length + 4L * offsets[V];
+	}
+
+	/**
+	 * 有向图的反向图,同样使用键索引计数,和这幅图放在同一种内存中.无向图返回它自己.
+	 */
+	@Override
+	public CSRGraph reverse() {
+		if (!directed) return this;
+		long[] rOffsets = new long[V + 1];
+		long n = offsets[V];
+		for (long e = 0; e < n; e++)
+			rOffsets[target(e) + 1]++;
+		for (int v = 0; v < V; v++)
+			rOffsets[v + 1] += rOffsets[v];
+		CSRGraph r = new CSRGraph(V, E, true, rOffsets, isOffHeap());
+		long[] next = rOffsets.clone();
+		for (int v = 0; v < V; v++)
+			for (long e = offsets[v]; e < offsets[v + 1]; e++)
+				r.set(next[target(e)]++, v);
+		return r;
+	}
+
+	private static void validateVertex(int v, int V) {
+		if (v < 0 || v >= V)
+			throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (V-1));
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder s = new StringBuilder();
+		s.append(V + " vertices, " + E + " edges " + NEWLINE);
+		for (int v = 0; v < V; v++) {
+			s.append(v + ": ");
+			for (long e = offsets[v]; e < offsets[v + 1]; e++)
+				s.append(target(e) + " ");
+			s.append(NEWLINE);
+		}
+		return s.toString();
+	}
+
+	public static void main(String[] args) {
+		try {
+			In in = new In(new File(".\\algs4-data\\tinyG.txt"));
+			Graph G = new Graph(in);
+			CSRGraph csr = CSRGraph.of(G, false);
+			System.out.println(csr);
+			System.out.println("same as Graph: " + csr.toString().equals(G.toString()));
+
+			in = new In(new File(".\\algs4-data\\tinyDG.txt"));
+			CSRGraph dg = CSRGraph.of(new Digraph(in), true);
+			System.out.println(dg);
+			System.out.println(dg.reverse());
+			System.out.println(dg.bytes() + " bytes");
+		} catch (FileSystemNotFoundException e) {
+			e.printStackTrace();
+		}
+	}
+}
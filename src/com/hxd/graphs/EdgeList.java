@@ -0,0 +1,117 @@
+package com.hxd.graphs;
+
+import com.hxd.graphs.directedGraphs.Digraph;
+import com.hxd.graphs.mst.Edge;
+import com.hxd.graphs.mst.EdgeWeightedGraph;
+import com.hxd.graphs.sp.DirectedEdge;
+import com.hxd.graphs.sp.EdgeWeightedDigraph;
+import com.hxd.graphs.undirectedGraphs.Graph;
+
+/**
+ *	边表:V个顶点,E条边,第i条边是from[i]-to[i],带权重时权重为weight[i].
+ *	它是{@link GraphIO}读写图文件时使用的中间表示,三个数组可以直接整块读写;
+ *	toGraph()等方法按照边在表中的顺序调用addEdge(),得到的图和用In读取同一个文本文件得到的图完全相同.
+ *	<p>
+ *	@author 候旭东 20261017
+ * */
+public final class EdgeList {
+	private final int V;
+	private final int E;
+	private final int[] from;
+	private final int[] to;
+	private final double[] weight;		// 不带权重时为null
+
+	/**
+	 * @param V 顶点数
+	 * @param from 边的起点,长度至少为E
+	 * @param to 边的终点,长度至少为E
+	 * @param weight 边的权重,不带权重时为null
+	 * @param E 边数
+	 * @throws IllegalArgumentException 如果顶点数或边数为负,或者某条边的端点不在0到V-1之间
+	 */
+	public EdgeList(int V, int[] from, int[] to, double[] weight, int E) {
+		if (V < 0) throw new IllegalArgumentException("Number of vertices must be nonnegative");
+		if (E < 0 || E > from.length || E > to.length || (weight != null && E > weight.length))
+			throw new IllegalArgumentException("invalid number of edges: " + E);
+		for (int i = 0; i < E; i++) {
+			validateVertex(from[i], V);
+			validateVertex(to[i], V);
+		}
+		this.V = V;
+		this.E = E;
+		this.from = from;
+		this.to = to;
+		this.weight = weight;
+	}
+
+	private static void validateVertex(int v, int V) {
+		if (v < 0 || v >= V)
+			throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (V-1));
+	}
+
+	public int V() {
+		return V;
+	}
+
+	public int E() {
+		return E;
+	}
+
+	public boolean weighted() {
+		return weight != null;
+	}
+
+	public int from(int i) {
+		return from[i];
+	}
+
+	public int to(int i) {
+		return to[i];
+	}
+
+	/**
+	 * @throws UnsupportedOperationException 如果边不带权重
+	 */
+	public double weight(int i) {
+		if (weight == null) throw new UnsupportedOperationException("edge list is unweighted");
+		return weight[i];
+	}
+
+	public Graph toGraph() {
+		Graph G = new Graph(V);
+		for (int i = 0; i < E; i++)
+			G.addEdge(from[i], to[i]);
+		return G;
+	}
+
+	public Digraph toDigraph() {
+		Digraph G = new Digraph(V);
+		for (int i = 0; i < E; i++)
+			G.addEdge(from[i], to[i]);
+		return G;
+	}
+
+	/**
+	 * @param directed 是否为有向图
+	 * @param offHeap 邻接表是否放在堆外
+	 */
+	public CSRGraph toCSRGraph(boolean directed, boolean offHeap) {
+		return CSRGraph.fromEdges(V, from, to, E, directed, offHeap);
+	}
+
+	public EdgeWeightedDigraph toEdgeWeightedDigraph() {
+		if (weight == null) throw new UnsupportedOperationException("edge list is unweighted");
+		EdgeWeightedDigraph G = new EdgeWeightedDigraph(V);
+		for (int i = 0; i < E; i++)
+			G.addEdge(new DirectedEdge(from[i], to[i], weight[i]));
+		return G;
+	}
+
+	public EdgeWeightedGraph toEdgeWeightedGraph() {
+		if (weight == null) throw new UnsupportedOperationException("edge list is unweighted");
+		EdgeWeightedGraph G = new EdgeWeightedGraph(V);
+		for (int i = 0; i < E; i++)
+			G.addEdge(new Edge(from[i], to[i], weight[i]));
+		return G;
+	}
+}
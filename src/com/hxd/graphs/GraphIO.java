@@ -0,0 +1,341 @@
+package com.hxd.graphs;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ *	图文件的快速读写.Graph(In)等构造函数通过In读取文本,In基于Scanner,每读一个数都要做一次正则表达式匹配,
+ *	读取largeG.txt这样的文件时CPU是瓶颈.这里提供两种格式:
+ *	<p>
+ *	1: 文本边表,和algs4的数据文件相同:顶点数V,边数E,然后是E行"v w"或者"v w weight",以空白分隔.
+ *	   readText()用FileChannel按块读入字节,手写的解析器直接把字节转换为int和double,不创建String;
+ *	2: 二进制边表:16字节的文件头(魔数,版本,标志位,V),8字节的E,然后依次是E个int的起点,E个int的终点,
+ *	   带权重时再跟E个double的权重,都是小端序.readBinary()把文件映射到内存中,再把每一列整块复制到数组中.
+ *	<p>
+ *	两种格式都读成{@link EdgeList},再由它构造Graph,Digraph,EdgeWeightedDigraph或者CSRGraph.
+ *	textToBinary()和binaryToText()在两种格式之间转换.
+ *	<p>
+ *	% java GraphIO -toBinary largeEWD.txt largeEWD.bin weighted
+ *	% java GraphIO -toText largeEWD.bin largeEWD.txt
+ *	<p>
+ *	@author 候旭东 20261017
+ * */
+public final class GraphIO {
+	private static final int MAGIC = 0x48584447;		// "HXDG"
+	private static final int VERSION = 1;
+	private static final int FLAG_WEIGHTED = 1;
+	private static final int HEADER_BYTES = 24;
+	private static final int BUFFER_SIZE = 1 << 16;
+	private static final int MAX_MAP = 1 << 30;		// 每次映射的最大字节数
+
+	private GraphIO() { }
+
+	/**
+	 * 读取文本边表
+	 * @param path 文件
+	 * @param weighted 每条边之后是否有权重
+	 * @throws IllegalArgumentException 如果文件的格式不正确
+	 */
+	public static EdgeList readText(Path path, boolean weighted) throws IOException {
+		try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+			Tokenizer in = new Tokenizer(ch);
+			int V = in.nextInt();
+			int E = in.nextInt();
+			if (V < 0) throw new IllegalArgumentException("Number of vertices must be nonnegative");
+			if (E < 0) throw new IllegalArgumentException("Number of edges must be nonnegative");
+			int[] from = new int[E];
+			int[] to = new int[E];
+			double[] weight = weighted ? new double[E] : null;
+			for (int i = 0; i < E; i++) {
+				from[i] = in.nextInt();
+				to[i] = in.nextInt();
+				if (weighted) weight[i] = in.nextDouble();
+			}
+			return new EdgeList(V, from, to, weight, E);
+		}
+	}
+
+	/**
+	 * 以文本格式写出边表,权重用Double.toString()输出,读回时得到相同的值
+	 */
+	public static void writeText(EdgeList G, Path path) throws IOException {
+		try (FileChannel ch = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			ByteBuffer buf = ByteBuffer.allocate(BUFFER_SIZE);
+			StringBuilder line = new StringBuilder();
+			line.append(G.V()).append('\n').append(G.E()).append('\n');
+			for (int i = 0; i <= G.E(); i++) {
+				if (i < G.E()) {
+					line.append(G.from(i)).append(' ').append(G.to(i));
+					if (G.weighted()) line.append(' ').append(G.weight(i));
+					line.append('\n');
+				}
+				if (line.length() > BUFFER_SIZE / 4 || i == G.E()) {
+					byte[] bytes = line.toString().getBytes(StandardCharsets.US_ASCII);
+					if (bytes.length > buf.remaining()) flush(ch, buf);
+					if (bytes.length > buf.remaining()) ch.write(ByteBuffer.wrap(bytes));
+					else buf.put(bytes);
+					line.setLength(0);
+				}
+			}
+			flush(ch, buf);
+		}
+	}
+
+	/**
+	 * 读取二进制边表
+	 * @throws IllegalArgumentException 如果文件头不正确或者文件长度和文件头不符
+	 */
+	public static EdgeList readBinary(Path path) throws IOException {
+		try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+			ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+			while (header.hasRemaining())
+				if (ch.read(header) < 0) throw new IllegalArgumentException("truncated graph file: " + path);
+			header.flip();
+			if (header.getInt() != MAGIC) throw new IllegalArgumentException("not a binary graph file: " + path);
+			int version = header.getInt();
+			if (version != VERSION) throw new IllegalArgumentException("unsupported graph file version: " + version);
+			boolean weighted = (header.getInt() & FLAG_WEIGHTED) != 0;
+			int V = header.getInt();
+			long e = header.getLong();
+			if (V < 0 || e < 0 || e > Integer.MAX_VALUE - 8) throw new IllegalArgumentException("invalid graph file header: " + path);
+			int E = (int) e;
+			long expected = HEADER_BYTES + 8L * E + (weighted ? 8L * E : 0);
+			if (ch.size() != expected)
+				throw new IllegalArgumentException("graph file has " + ch.size() + " bytes, expected " + expected);
+
+			int[] from = new int[E];
+			int[] to = new int[E];
+			double[] weight = weighted ? new double[E] : null;
+			long pos = HEADER_BYTES;
+			pos = readInts(ch, pos, from);
+			pos = readInts(ch, pos, to);
+			if (weighted) readDoubles(ch, pos, weight);
+			return new EdgeList(V, from, to, weight, E);
+		}
+	}
+
+	/**
+	 * 从文件的pos处读取a.length个小端序的int:分块映射文件,每块整块复制到a中,返回读完之后的位置
+	 */
+	public static long readInts(FileChannel ch, long pos, int[] a) throws IOException {
+		int chunk = MAX_MAP / 4;
+		for (int off = 0; off < a.length; off += chunk) {
+			int n = Math.min(chunk, a.length - off);
+			MappedByteBuffer map = ch.map(FileChannel.MapMode.READ_ONLY, pos, 4L * n);
+			map.order(ByteOrder.LITTLE_ENDIAN).asIntBuffer().get(a, off, n);
+			pos += 4L * n;
+		}
+		return pos;
+	}
+
+	/**
+	 * 从文件的pos处读取a.length个小端序的double,返回读完之后的位置
+	 */
+	public static long readDoubles(FileChannel ch, long pos, double[] a) throws IOException {
+		int chunk = MAX_MAP / 8;
+		for (int off = 0; off < a.length; off += chunk) {
+			int n = Math.min(chunk, a.length - off);
+			MappedByteBuffer map = ch.map(FileChannel.MapMode.READ_ONLY, pos, 8L * n);
+			map.order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer().get(a, off, n);
+			pos += 8L * n;
+		}
+		return pos;
+	}
+
+	/**
+	 * 以二进制格式写出边表
+	 */
+	public static void writeBinary(EdgeList G, Path path) throws IOException {
+		try (FileChannel ch = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			ByteBuffer buf = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+			buf.putInt(MAGIC).putInt(VERSION).putInt(G.weighted() ? FLAG_WEIGHTED : 0).putInt(G.V()).putLong(G.E());
+			for (int i = 0; i < G.E(); i++) {
+				if (buf.remaining() < 4) flush(ch, buf);
+				buf.putInt(G.from(i));
+			}
+			for (int i = 0; i < G.E(); i++) {
+				if (buf.remaining() < 4) flush(ch, buf);
+				buf.putInt(G.to(i));
+			}
+			if (G.weighted()) {
+				for (int i = 0; i < G.E(); i++) {
+					if (buf.remaining() < 8) flush(ch, buf);
+					buf.putDouble(G.weight(i));
+				}
+			}
+			flush(ch, buf);
+		}
+	}
+
+	/**
+	 * 经过缓冲区buf把a写入文件,buf满时写出;buf必须是小端序的,最后需要调用flush()
+	 */
+	public static void writeInts(FileChannel ch, ByteBuffer buf, int[] a) throws IOException {
+		for (int x : a) {
+			if (buf.remaining() < 4) flush(ch, buf);
+			buf.putInt(x);
+		}
+	}
+
+	public static void writeDoubles(FileChannel ch, ByteBuffer buf, double[] a) throws IOException {
+		for (double x : a) {
+			if (buf.remaining() < 8) flush(ch, buf);
+			buf.putDouble(x);
+		}
+	}
+
+	/**
+	 * 把缓冲区buf中的数据全部写入文件,然后清空buf
+	 */
+	public static void flush(FileChannel ch, ByteBuffer buf) throws IOException {
+		buf.flip();
+		while (buf.hasRemaining())
+			ch.write(buf);
+		buf.clear();
+	}
+
+	/**
+	 * 把文本边表转换为二进制边表
+	 */
+	public static void textToBinary(Path text, Path binary, boolean weighted) throws IOException {
+		writeBinary(readText(text, weighted), binary);
+	}
+
+	/**
+	 * 把二进制边表转换为文本边表
+	 */
+	public static void binaryToText(Path binary, Path text) throws IOException {
+		writeText(readBinary(binary), text);
+	}
+
+	/**
+	 * 从FileChannel中按块读入字节并解析以空白分隔的数.只接受ASCII的十进制数,
+	 * double的形式为[-+]digits[.digits][(e|E)[-+]digits].
+	 */
+	private static final class Tokenizer {
+		private static final double[] POW10 = new double[23];		// 10^0..10^22都能精确地表示为double
+		static {
+			POW10[0] = 1;
+			for (int i = 1; i < POW10.length; i++)
+				POW10[i] = POW10[i - 1] * 10;
+		}
+
+		private final FileChannel ch;
+		private final ByteBuffer buf = ByteBuffer.allocate(BUFFER_SIZE);
+		private final StringBuilder slow = new StringBuilder();
+		private long position;		// 已经读入的字节数,用于错误信息
+
+		Tokenizer(FileChannel ch) {
+			this.ch = ch;
+			buf.flip();
+		}
+
+		// 返回下一个字节(0..255),文件结束时返回-1
+		private int read() throws IOException {
+			if (!buf.hasRemaining()) {
+				buf.clear();
+				int n;
+				do {
+					n = ch.read(buf);
+				} while (n == 0);
+				buf.flip();
+				if (n < 0) return -1;
+			}
+			position++;
+			return buf.get() & 0xFF;		// 不能返回有符号的byte,否则0x80以上的字节会被当作文件结束
+		}
+
+		// 跳过空白,返回第一个非空白字节
+		private int skip() throws IOException {
+			int c = read();
+			while (c == ' ' || c == '\n' || c == '\r' || c == '\t')
+				c = read();
+			if (c < 0) throw new IllegalArgumentException("unexpected end of input at byte " + position);
+			return c;
+		}
+
+		private IllegalArgumentException invalid() {
+			return new IllegalArgumentException("invalid number at byte " + position);
+		}
+
+		int nextInt() throws IOException {
+			int c = skip();
+			boolean negative = c == '-';
+			if (c == '-' || c == '+') c = read();
+			if (c < '0' || c > '9') throw invalid();
+			long x = 0;
+			while (c >= '0' && c <= '9') {
+				x = x * 10 + (c - '0');
+				if (x > 1L + Integer.MAX_VALUE) throw invalid();
+				c = read();
+			}
+			if (c >= 0 && c != ' ' && c != '\n' && c != '\r' && c != '\t') throw invalid();
+			x = negative ? -x : x;
+			if (x > Integer.MAX_VALUE) throw invalid();
+			return (int) x;
+		}
+
+		/**
+		 * 尾数不超过2^53并且小数位数不超过22时,mantissa / 10^k是两个精确的double相除,结果是正确舍入的,
+		 * 和Double.parseDouble()相同;否则(例如带指数)交给Double.parseDouble()
+		 */
+		double nextDouble() throws IOException {
+			int c = skip();
+			slow.setLength(0);
+			boolean negative = c == '-';
+			if (c == '-' || c == '+') {
+				slow.append((char) c);
+				c = read();
+			}
+			long mantissa = 0;
+			int digits = 0, scale = 0;
+			boolean fraction = false, simple = true;
+			while ((c >= '0' && c <= '9') || c == '.' || c == 'e' || c == 'E' || c == '-' || c == '+') {
+				slow.append((char) c);
+				if (c == '.') {
+					if (fraction) simple = false;
+					fraction = true;
+				} else if (c >= '0' && c <= '9') {
+					if (mantissa < (1L << 53) / 10) {
+						mantissa = mantissa * 10 + (c - '0');
+						if (fraction) scale++;
+					} else simple = false;
+					digits++;
+				} else simple = false;
+				c = read();
+			}
+			if (c >= 0 && c != ' ' && c != '\n' && c != '\r' && c != '\t') throw invalid();
+			if (digits == 0) throw invalid();
+			if (simple && scale < POW10.length) {
+				double x = mantissa / POW10[scale];
+				return negative ? -x : x;
+			}
+			try {
+				return Double.parseDouble(slow.toString());
+			} catch (NumberFormatException e) {
+				throw invalid();
+			}
+		}
+	}
+
+	public static void main(String[] args) throws IOException {
+		if (args.length >= 3 && args[0].equals("-toBinary")) {
+			boolean weighted = args.length > 3 && args[3].equals("weighted");
+			textToBinary(Paths.get(args[1]), Paths.get(args[2]), weighted);
+		} else if (args.length >= 3 && args[0].equals("-toText")) {
+			binaryToText(Paths.get(args[1]), Paths.get(args[2]));
+		} else {
+			System.out.println("usage: java GraphIO -toBinary input.txt output.bin [weighted]");
+			System.out.println("       java GraphIO -toText input.bin output.txt");
+		}
+	}
+}
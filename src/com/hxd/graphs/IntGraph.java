@@ -0,0 +1,64 @@
+package com.hxd.graphs;
+
+/**
+ *	顶点为0到V-1的图的只读接口,无向图和有向图共用.
+ *	和Graph/Digraph的adj(v)返回Iterable<Integer>不同,这里的邻接表是一段连续的边编号[begin(v), end(v)),
+ *	用target(e)取出第e条边指向的顶点,遍历时不需要创建迭代器,也不会装箱:
+ *	<pre>
+ *	for (long e = G.begin(v), end = G.end(v); e &lt; end; e++) {
+ *		int w = G.target(e);
+ *		...
+ *	}
+ *	</pre>
+ *	边编号是long,所以邻接表的总长度可以超过2^31(例如保存在堆外的十亿条边的图).
+ *	无向图中每条边v-w在v和w的邻接表中各出现一次,自环v-v在v的邻接表中出现两次,和Graph的约定相同.
+ *	<p>
+ *	@author 候旭东 20261017
+ * */
+public interface IntGraph {
+
+	/**
+	 * @return 顶点数
+	 */
+	int V();
+
+	/**
+	 * @return 边数,无向图中每条边只计一次
+	 */
+	long E();
+
+	/**
+	 * @return 是否为有向图
+	 */
+	boolean directed();
+
+	/**
+	 * 返回顶点v的邻接表中第一条边的编号
+	 * @throws IllegalArgumentException unless {@code 0 <= v < V}
+	 */
+	long begin(int v);
+
+	/**
+	 * 返回顶点v的邻接表中最后一条边的下一个编号
+	 * @throws IllegalArgumentException unless {@code 0 <= v < V}
+	 */
+	long end(int v);
+
+	/**
+	 * 返回编号为e的边指向的顶点,不检查e的范围
+	 */
+	int target(long e);
+
+	/**
+	 * 返回顶点v的度数(有向图中为出度)
+	 * @throws IllegalArgumentException unless {@code 0 <= v < V}
+	 */
+	default int degree(int v) {
+		return (int) (end(v) - begin(v));
+	}
+
+	/**
+	 * 返回所有边反向之后的图.无向图的反向图就是它自己.
+	 */
+	IntGraph reverse();
+}
@@ -0,0 +1,355 @@
+package com.hxd.graphs;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import com.hxd.base.Parallel;
+import com.hxd.base.Stack;
+import com.hxd.graphs.directedGraphs.Digraph;
+import com.hxd.graphs.undirectedGraphs.Graph;
+import com.hxd.introcs.stdlib.StdRandom;
+
+/**
+ *	方向优化(direction-optimizing)的并行广度优先搜索,结果和BreadFirstPaths/BreadthFirstDirectedPaths
+ *	相同:distTo(v)是最短路径的边数,pathTo(v)是其中的一条最短路径.图用{@link IntGraph}(例如CSRGraph)表示.
+ *	<p>
+ *	按层同步地进行,每一层在ForkJoinPool上并行地处理,有两种方式:
+ *	<p>
+ *	1: 自顶向下:当前层的顶点(保存在数组中)分成若干段,每段扫描自己的顶点的邻接表,用CAS把未访问的顶点
+ *	   的edgeTo[]从-1改为父结点,成功的一方把它加入这一段的下一层缓冲区,最后把各段的缓冲区拼接成下一层;
+ *	2: 自底向上:当前层用位图表示,所有未访问的顶点分段检查自己的入边(无向图就是邻接表,有向图是反向图的邻接表),
+ *	   找到一个在当前层中的邻居就停止.每个顶点只由一段处理,不需要CAS;段的边界对齐到64,写下一层位图时也没有竞争.
+ *	<p>
+ *	当前层很大时,大部分边都指向已访问的顶点,自底向上只需要检查少量入边就能找到父结点,比自顶向下扫描
+ *	当前层的全部边要少得多.按照Beamer等人的启发式规则切换:当前层的出边数mf大于未访问顶点的边数mu/alpha时
+ *	切换为自底向上;当前层的顶点数nf小于V/beta时切换回自顶向下.
+ *	<p>
+ *	有向图第一次切换到自底向上时才调用G.reverse()构造反向图,也可以在构造函数中传入已经构造好的反向图.
+ *	<p>
+ *	@author 候旭东 20261017
+ * */
+public class ParallelBFS {
+	private static final int INFINITY = Integer.MAX_VALUE;
+	public static final int DEFAULT_ALPHA = 15;
+	public static final int DEFAULT_BETA = 18;
+	// 一层中的顶点少于它时在当前线程中处理这一层
+	private static final int SEQUENTIAL_CUTOFF = 1 << 12;
+	private static final VarHandle EDGE_TO = MethodHandles.arrayElementVarHandle(int[].class);
+
+	private final int[] distTo;		// distTo[v] = s到v的最短路径的边数
+	private final int[] edgeTo;		// edgeTo[v] = 最短路径上v之前的顶点,未访问时为-1,起点为它自己
+	private int levels;				// 层数
+	private int bottomUpLevels;		// 其中自底向上处理的层数
+
+	private final IntGraph G;
+	private IntGraph reverse;
+	private final ForkJoinPool pool;
+	private final int alpha, beta;
+
+	/**
+	 * 把无向图G转换为CSRGraph之后计算从s出发的最短路径
+	 * @throws IllegalArgumentException unless {@code 0 <= s < V}
+	 */
+	public ParallelBFS(Graph G, int s) {
+		this(CSRGraph.of(G, false), s);
+	}
+
+	/**
+	 * 把有向图G转换为CSRGraph之后计算从s出发的最短路径
+	 * @throws IllegalArgumentException unless {@code 0 <= s < V}
+	 */
+	public ParallelBFS(Digraph G, int s) {
+		this(CSRGraph.of(G, false), s);
+	}
+
+	/**
+	 * 使用ForkJoinPool.commonPool()计算从s出发的最短路径
+	 * @throws IllegalArgumentException unless {@code 0 <= s < V}
+	 */
+	public ParallelBFS(IntGraph G, int s) {
+		this(G, null, new int[] { s }, ForkJoinPool.commonPool(), DEFAULT_ALPHA, DEFAULT_BETA);
+	}
+
+	/**
+	 * 计算从sources中任意一个顶点出发的最短路径
+	 * @throws IllegalArgumentException unless {@code 0 <= s < V} for each vertex {@code s} in {@code sources}
+	 */
+	public ParallelBFS(IntGraph G, Iterable<Integer> sources) {
+		this(G, null, toArray(sources), ForkJoinPool.commonPool(), DEFAULT_ALPHA, DEFAULT_BETA);
+	}
+
+	/**
+	 * @param G 图
+	 * @param reverse G的反向图,为null时在需要的时候由G.reverse()构造;无向图不需要反向图
+	 * @param sources 起点
+	 * @param pool 运行任务的线程池
+	 * @param alpha mf > mu/alpha时切换为自底向上,为0时只使用自顶向下
+	 * @param beta nf < V/beta时切换为自顶向下
+	 */
+	public ParallelBFS(IntGraph G, IntGraph reverse, int[] sources, ForkJoinPool pool, int alpha, int beta) {
+		if (alpha < 0 || beta <= 0) throw new IllegalArgumentException("invalid alpha/beta: " + alpha + "/" + beta);
+		this.G = G;
+		this.reverse = G.directed() ? reverse : G;
+		this.pool = pool;
+		this.alpha = alpha;
+		this.beta = beta;
+		int V = G.V();
+		distTo = new int[V];
+		edgeTo = new int[V];
+		Arrays.fill(distTo, INFINITY);
+		Arrays.fill(edgeTo, -1);
+		int nf = 0;
+		int[] frontier = new int[Math.max(1, sources.length)];
+		for (int s : sources) {
+			validateVertex(s);
+			if (edgeTo[s] == -1) {
+				edgeTo[s] = s;
+				distTo[s] = 0;
+				frontier[nf++] = s;
+			}
+		}
+		bfs(frontier, nf);
+	}
+
+	private static int[] toArray(Iterable<Integer> sources) {
+		if (sources == null) throw new IllegalArgumentException("argument is null");
+		int n = 0;
+		for (@SuppressWarnings("unused") int s : sources) n++;
+		int[] a = new int[n];
+		int i = 0;
+		for (int s : sources) a[i++] = s;
+		return a;
+	}
+
+	private void bfs(int[] frontier, int nf) {
+		int V = G.V();
+		long mu = 0;
+		for (int v = 0; v < V; v++)
+			mu += G.degree(v);
+		long mf = 0;
+		for (int i = 0; i < nf; i++)
+			mf += G.degree(frontier[i]);
+		mu -= mf;
+
+		long[] bits = null, nextBits = null;
+		boolean bottomUp = false;
+		int level = 0;
+		while (nf > 0) {
+			if (!bottomUp && alpha > 0 && mf > mu / alpha) {
+				if (reverse == null) reverse = G.reverse();
+				if (bits == null) {
+					bits = new long[(V + 63) >>> 6];
+					nextBits = new long[bits.length];
+				}
+				Arrays.fill(bits, 0);
+				for (int i = 0; i < nf; i++)
+					bits[frontier[i] >>> 6] |= 1L << frontier[i];
+				bottomUp = true;
+			} else if (bottomUp && nf < V / beta) {
+				frontier = toQueue(bits, nf, frontier);
+				bottomUp = false;
+			}
+
+			long[] stats;
+			if (bottomUp) {
+				stats = bottomUpStep(bits, nextBits, level);
+				long[] t = bits; bits = nextBits; nextBits = t;
+				bottomUpLevels++;
+			} else {
+				TopDown step = topDownStep(frontier, nf, level);
+				frontier = step.next;
+				stats = new long[] { step.n, step.edges };
+			}
+			nf = (int) stats[0];
+			mf = stats[1];
+			mu -= mf;
+			level++;
+		}
+		levels = level;
+	}
+
+	// 把位图表示的一层转换为数组
+	private static int[] toQueue(long[] bits, int nf, int[] buffer) {
+		int[] q = buffer.length >= nf ? buffer : new int[nf];
+		int n = 0;
+		for (int i = 0; i < bits.length; i++) {
+			for (long word = bits[i]; word != 0; word &= word - 1)
+				q[n++] = (i << 6) + Long.numberOfTrailingZeros(word);
+		}
+		return q;
+	}
+
+	private static class TopDown {
+		int[] next;
+		int n;
+		long edges;
+	}
+
+	private TopDown topDownStep(int[] frontier, int nf, int level) {
+		int P = chunks(nf);
+		int[][] buffers = new int[P][];
+		int[] counts = new int[P];
+		long[] edges = new long[P];
+		Parallel.forEach(pool, P, c -> {
+			int lo = (int) ((long) nf * c / P), hi = (int) ((long) nf * (c + 1) / P);
+			int[] buf = new int[Math.max(16, hi - lo)];
+			int n = 0;
+			long m = 0;
+			for (int i = lo; i < hi; i++) {
+				int v = frontier[i];
+				for (long e = G.begin(v), end = G.end(v); e < end; e++) {
+					int w = G.target(e);
+					if ((int) EDGE_TO.getOpaque(edgeTo, w) == -1 && EDGE_TO.compareAndSet(edgeTo, w, -1, v)) {
+						distTo[w] = level + 1;
+						if (n == buf.length) buf = Arrays.copyOf(buf, 2 * n);
+						buf[n++] = w;
+						m += G.degree(w);
+					}
+				}
+			}
+			buffers[c] = buf;
+			counts[c] = n;
+			edges[c] = m;
+		});
+		TopDown step = new TopDown();
+		for (int c = 0; c < P; c++) {
+			step.n += counts[c];
+			step.edges += edges[c];
+		}
+		step.next = frontier.length >= step.n ? frontier : new int[step.n];
+		int n = 0;
+		for (int c = 0; c < P; c++) {
+			System.arraycopy(buffers[c], 0, step.next, n, counts[c]);
+			n += counts[c];
+		}
+		return step;
+	}
+
+	// 返回{下一层的顶点数, 下一层的出边数}
+	private long[] bottomUpStep(long[] bits, long[] nextBits, int level) {
+		int words = bits.length;
+		int P = chunks(G.V());
+		int[] counts = new int[P];
+		long[] edges = new long[P];
+		Parallel.forEach(pool, P, c -> {
+			int lo = (int) ((long) words * c / P), hi = (int) ((long) words * (c + 1) / P);
+			int n = 0;
+			long m = 0;
+			for (int i = lo; i < hi; i++) {
+				long word = 0;
+				int vEnd = Math.min(G.V(), (i + 1) << 6);
+				for (int v = i << 6; v < vEnd; v++) {
+					if (edgeTo[v] != -1) continue;
+					for (long e = reverse.begin(v), end = reverse.end(v); e < end; e++) {
+						int u = reverse.target(e);
+						if ((bits[u >>> 6] & (1L << u)) != 0) {
+							edgeTo[v] = u;
+							distTo[v] = level + 1;
+							word |= 1L << v;
+							n++;
+							m += G.degree(v);
+							break;
+						}
+					}
+				}
+				nextBits[i] = word;
+			}
+			counts[c] = n;
+			edges[c] = m;
+		});
+		long[] stats = new long[2];
+		for (int c = 0; c < P; c++) {
+			stats[0] += counts[c];
+			stats[1] += edges[c];
+		}
+		return stats;
+	}
+
+	// 段数:和线程数相同的若干倍,便于负载均衡;规模较小时只分为一段
+	private int chunks(int n) {
+		if (n < SEQUENTIAL_CUTOFF) return 1;
+		return Math.max(1, Math.min(4 * pool.getParallelism(), n / (SEQUENTIAL_CUTOFF / 4)));
+	}
+
+	/**
+	 * Is there a path between the source vertex {@code s} (or sources) and vertex {@code v}?
+	 * @throws IllegalArgumentException unless {@code 0 <= v < V}
+	 */
+	public boolean hasPathTo(int v) {
+		validateVertex(v);
+		return distTo[v] != INFINITY;
+	}
+
+	/**
+	 * Returns the number of edges in a shortest path between the source vertex {@code s}
+	 * (or sources) and vertex {@code v}.
+	 * @throws IllegalArgumentException unless {@code 0 <= v < V}
+	 */
+	public int distTo(int v) {
+		validateVertex(v);
+		return distTo[v];
+	}
+
+	/**
+	 * Returns a shortest path between the source vertex {@code s} (or sources)
+	 * and {@code v}, or {@code null} if no such path.
+	 * @throws IllegalArgumentException unless {@code 0 <= v < V}
+	 */
+	public Iterable<Integer> pathTo(int v) {
+		validateVertex(v);
+		if (!hasPathTo(v)) return null;
+		Stack<Integer> path = new Stack<Integer>();
+		int x;
+		for (x = v; distTo[x] != 0; x = edgeTo[x])
+			path.push(x);
+		path.push(x);
+		return path;
+	}
+
+	/**
+	 * @return 搜索的层数(最远的可达顶点的距离加1)
+	 */
+	public int levels() {
+		return levels;
+	}
+
+	/**
+	 * @return 自底向上处理的层数
+	 */
+	public int bottomUpLevels() {
+		return bottomUpLevels;
+	}
+
+	private void validateVertex(int v) {
+		int V = distTo.length;
+		if (v < 0 || v >= V)
+			throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (V-1));
+	}
+
+	/**
+	 * 在随机图上和只使用自顶向下的顺序版本比较:用法 java ParallelBFS V E
+	 * */
+	public static void main(String[] args) {
+		int V = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+		int E = args.length > 1 ? Integer.parseInt(args[1]) : 16 * V;
+		int[] from = new int[E], to = new int[E];
+		for (int i = 0; i < E; i++) {
+			from[i] = StdRandom.uniform(V);
+			to[i] = StdRandom.uniform(V);
+		}
+		CSRGraph G = CSRGraph.fromEdges(V, from, to, E, false, false);
+		for (int trial = 0; trial < 5; trial++) {
+			long t0 = System.nanoTime();
+			ParallelBFS td = new ParallelBFS(G, null, new int[] { 0 }, new ForkJoinPool(1), 0, DEFAULT_BETA);
+			long t1 = System.nanoTime();
+			ParallelBFS bfs = new ParallelBFS(G, 0);
+			long t2 = System.nanoTime();
+			for (int v = 0; v < V; v++)
+				if (td.distTo(v) != bfs.distTo(v)) throw new AssertionError("distTo(" + v + ") differs");
+			System.out.printf("top-down, 1 thread: %.1f ms   direction-optimizing, %d threads: %.1f ms (%d of %d levels bottom-up)%n",
+					(t1 - t0) / 1e6, ForkJoinPool.commonPool().getParallelism(), (t2 - t1) / 1e6, bfs.bottomUpLevels(), bfs.levels());
+		}
+	}
+}
@@ -2,6 +2,7 @@ package com.hxd.graphs.directedGraphs;
 
 import java.io.File;
 import java.nio.file.FileSystemNotFoundException;
+import java.util.Iterator;
 
 import com.hxd.base.Stack;
 import com.hxd.introcs.stdlib.In;
@@ -33,12 +34,32 @@ public class DepthFirstDirectedPaths {
 		dfs(G, s);
 	}
 
+	/**
+	 * 用显式的栈代替递归,在路径很长的图上也不会栈溢出:stack[]中是递归调用栈上的顶点,
+	 * adj[v]记录v的邻接表已经遍历到哪里,得到的路径和递归的版本相同
+	 * */
+	@SuppressWarnings("unchecked")
 	private void dfs(Digraph G, int v) {
+		int[] stack = new int[G.V()];
+		Iterator<Integer>[] adj = (Iterator<Integer>[]) new Iterator<?>[G.V()];
+		int top = 0;
 		marked[v] = true;
-		for (int w : G.adj(v)) {
-			if (!marked[w]) {
-				edgeTo[w] = v;
-				dfs(G, w);
+		adj[v] = G.adj(v).iterator();
+		stack[top++] = v;
+		while (top > 0) {
+			v = stack[top - 1];
+			if (adj[v].hasNext()) {
+				int w = adj[v].next();
+				if (!marked[w]) {
+					edgeTo[w] = v;
+					marked[w] = true;
+					adj[w] = G.adj(w).iterator();
+					stack[top++] = w;
+				}
+			}
+			else {
+				adj[v] = null;
+				top--;
 			}
 		}
 	}
@@ -24,9 +24,11 @@ Reverse postOrder  :   7 6 8 9 10 11 12 0 1 5 4 3 2
 
 import java.io.File;
 import java.nio.file.FileSystemNotFoundException;
+import java.util.Iterator;
 
 import com.hxd.base.Queue;
 import com.hxd.base.Stack;
+import com.hxd.graphs.IntGraph;
 import com.hxd.graphs.sp.DirectedEdge;
 import com.hxd.graphs.sp.EdgeWeightedDigraph;
 import com.hxd.introcs.stdlib.In;
@@ -53,49 +55,132 @@ public class DepthFirstOrder {
      * Determines a depth-first order for the digraph {@code G}.
      * @param G the digraph
      */
+	@SuppressWarnings("unchecked")
 	public DepthFirstOrder(Digraph G) {
 		pre = new int[G.V()];
 		post = new int[G.V()];
 		postorder = new Queue<Integer>();
 		preorder = new Queue<Integer>();
 		marked = new boolean[G.V()];
+		int[] stack = new int[G.V()];
+		Iterator<Integer>[] adj = (Iterator<Integer>[]) new Iterator<?>[G.V()];
 		for (int v = 0; v < G.V(); v++)
 			if (!marked[v])
-				dfs(G, v);
+				dfs(G, v, stack, adj);
 		assert check();
 	}
 	
+	@SuppressWarnings("unchecked")
 	public DepthFirstOrder(EdgeWeightedDigraph G) {
 		pre = new int[G.V()];
 		post = new int[G.V()];
 		postorder = new Queue<Integer>();
 		preorder = new Queue<Integer>();
 		marked = new boolean[G.V()];
+		int[] stack = new int[G.V()];
+		Iterator<DirectedEdge>[] adj = (Iterator<DirectedEdge>[]) new Iterator<?>[G.V()];
 		for (int v = 0; v < G.V(); v++)
 			if (!marked[v])
-				dfs(G, v);
+				dfs(G, v, stack, adj);
 	}
 
-	private void dfs(EdgeWeightedDigraph G, int v) {
-		marked[v] = true;
-		pre[v] = preCounter++;
-		preorder.enqueue(v);
-		for (DirectedEdge e : G.adj(v)) {
-			if (!marked[e.to()])
-				dfs(G, e.to());
+	/**
+	 * 在{@link IntGraph}(例如CSRGraph)上计算深度优先次序
+	 * @param G the digraph
+	 */
+	public DepthFirstOrder(IntGraph G) {
+		pre = new int[G.V()];
+		post = new int[G.V()];
+		postorder = new Queue<Integer>();
+		preorder = new Queue<Integer>();
+		marked = new boolean[G.V()];
+		int[] stack = new int[G.V()];
+		long[] next = new long[G.V()];
+		for (int v = 0; v < G.V(); v++)
+			if (!marked[v])
+				dfs(G, v, stack, next);
+	}
+
+	/**
+	 * 三个dfs()都用显式的栈代替递归,在很长的路径上也不会栈溢出:stack[]中是递归调用栈上的顶点,
+	 * 顶点入栈时加入前序,出栈时(它的邻接表已经遍历完)加入后序,得到的次序和递归的版本完全相同.
+	 * adj[v]或者next[v]记录顶点v的邻接表已经遍历到哪里
+	 * */
+	private void dfs(IntGraph G, int v, int[] stack, long[] next) {
+		int top = 0;
+		visit(v);
+		next[v] = G.begin(v);
+		stack[top++] = v;
+		while (top > 0) {
+			v = stack[top - 1];
+			if (next[v] < G.end(v)) {
+				int w = G.target(next[v]++);
+				if (!marked[w]) {
+					visit(w);
+					next[w] = G.begin(w);
+					stack[top++] = w;
+				}
+			}
+			else {
+				finish(v);
+				top--;
+			}
+		}
+	}
+
+	private void dfs(EdgeWeightedDigraph G, int v, int[] stack, Iterator<DirectedEdge>[] adj) {
+		int top = 0;
+		visit(v);
+		adj[v] = G.adj(v).iterator();
+		stack[top++] = v;
+		while (top > 0) {
+			v = stack[top - 1];
+			if (adj[v].hasNext()) {
+				int w = adj[v].next().to();
+				if (!marked[w]) {
+					visit(w);
+					adj[w] = G.adj(w).iterator();
+					stack[top++] = w;
+				}
+			}
+			else {
+				adj[v] = null;
+				finish(v);
+				top--;
+			}
 		}
-		postorder.enqueue(v);
-		post[v] = postCounter++;
 	}
 
-	private void dfs(Digraph G, int v) {
+	private void dfs(Digraph G, int v, int[] stack, Iterator<Integer>[] adj) {
+		int top = 0;
+		visit(v);
+		adj[v] = G.adj(v).iterator();
+		stack[top++] = v;
+		while (top > 0) {
+			v = stack[top - 1];
+			if (adj[v].hasNext()) {
+				int w = adj[v].next();
+				if (!marked[w]) {
+					visit(w);
+					adj[w] = G.adj(w).iterator();
+					stack[top++] = w;
+				}
+			}
+			else {
+				adj[v] = null;
+				finish(v);
+				top--;
+			}
+		}
+	}
+
+	private void visit(int v) {
 		marked[v] = true;
 		pre[v] = preCounter++;
 		preorder.enqueue(v);
-		for (int w : G.adj(v)) {
-			if (!marked[w])
-				dfs(G, w);
-		}
+	}
+
+	private void finish(int v) {
 		postorder.enqueue(v);
 		post[v] = postCounter++;
 	}
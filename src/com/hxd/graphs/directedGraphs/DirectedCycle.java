@@ -2,6 +2,7 @@ package com.hxd.graphs.directedGraphs;
 
 import java.io.File;
 import java.nio.file.FileSystemNotFoundException;
+import java.util.Iterator;
 
 import com.hxd.base.Stack;
 import com.hxd.introcs.stdlib.In;
@@ -26,20 +27,39 @@ public class DirectedCycle {
 		onStack = new boolean[G.V()];
 		edgeTo = new int[G.V()];
 		marked = new boolean[G.V()];
+		int[] stack = new int[G.V()];
+		@SuppressWarnings("unchecked")
+		Iterator<Integer>[] adj = (Iterator<Integer>[]) new Iterator<?>[G.V()];
 		for (int v = 0; v < G.V(); v++)
 			if (!marked[v] && cycle == null)
-				dfs(G, v);
+				dfs(G, v, stack, adj);
 	}
 	
-	
-	private void dfs(Digraph G, int v) {
-		onStack[v] = true;
-		marked[v] = true;
-		for (int w : G.adj(v)) {
-			if (cycle != null) return;
-			else	if (!marked[w]) {
+	/**
+	 * 用显式的栈代替递归:stack[]中的顶点就是onStack[]为true的顶点,即递归调用栈上的顶点,
+	 * adj[v]记录v的邻接表已经遍历到哪里.v的邻接表遍历完时出栈,onStack[v]恢复为false
+	 * */
+	private void dfs(Digraph G, int s, int[] stack, Iterator<Integer>[] adj) {
+		int top = 0;
+		onStack[s] = true;
+		marked[s] = true;
+		adj[s] = G.adj(s).iterator();
+		stack[top++] = s;
+		while (top > 0 && cycle == null) {
+			int v = stack[top - 1];
+			if (!adj[v].hasNext()) {
+				adj[v] = null;
+				onStack[v] = false;
+				top--;
+				continue;
+			}
+			int w = adj[v].next();
+			if (!marked[w]) {
 				edgeTo[w] = v;
-				dfs(G, w);
+				onStack[w] = true;
+				marked[w] = true;
+				adj[w] = G.adj(w).iterator();
+				stack[top++] = w;
 			}
 			else if (onStack[w]) {
 				cycle = new Stack<Integer>();
@@ -50,7 +70,6 @@ public class DirectedCycle {
 				assert check();
 			}
 		}
-		onStack[v] = false;
 	}
 
 	public boolean hasCycle() {
@@ -26,6 +26,7 @@ package com.hxd.graphs.directedGraphs;
 
 import java.io.File;
 import java.nio.file.FileSystemNotFoundException;
+import java.util.Iterator;
 
 import com.hxd.introcs.stdlib.In;
 import com.hxd.introcs.stdlib.StdRandom;
@@ -62,7 +63,7 @@ public class DirectedDFS {
 	public DirectedDFS(Digraph G, int s) {
 		marked = new boolean[G.V()];
 		validateVertex(s);
-		dfs(G, s);
+		dfs(G, s, new int[G.V()], newCursors(G.V()));
 	}
 
 	/**
@@ -76,18 +77,45 @@ public class DirectedDFS {
 	public DirectedDFS(Digraph G, Iterable<Integer> sources) {
 		marked = new boolean[G.V()];
 		validateVertices(sources);
+		int[] stack = new int[G.V()];
+		Iterator<Integer>[] adj = newCursors(G.V());
 		for (int v : sources) {
 			if (!marked[v])
-				dfs(G, v);
+				dfs(G, v, stack, adj);
 		}
 	}
 	
-	private void dfs(Digraph G, int v) {
+	@SuppressWarnings("unchecked")
+	private static Iterator<Integer>[] newCursors(int V) {
+		return (Iterator<Integer>[]) new Iterator<?>[V];
+	}
+
+	/**
+	 * 用显式的栈代替递归,在路径很长的图上也不会栈溢出:stack[]中是递归调用栈上的顶点,
+	 * adj[v]记录v的邻接表已经遍历到哪里
+	 * */
+	private void dfs(Digraph G, int s, int[] stack, Iterator<Integer>[] adj) {
+		int top = 0;
 		count++;
-		marked[v] = true;
-		for (int w : G.adj(v))
-			if (!marked[w])
-				dfs(G, w);
+		marked[s] = true;
+		adj[s] = G.adj(s).iterator();
+		stack[top++] = s;
+		while (top > 0) {
+			int v = stack[top - 1];
+			if (adj[v].hasNext()) {
+				int w = adj[v].next();
+				if (!marked[w]) {
+					count++;
+					marked[w] = true;
+					adj[w] = G.adj(w).iterator();
+					stack[top++] = w;
+				}
+			}
+			else {
+				adj[v] = null;
+				top--;
+			}
+		}
 	}
 	
 	/**
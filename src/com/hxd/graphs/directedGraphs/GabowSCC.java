@@ -2,9 +2,9 @@ package com.hxd.graphs.directedGraphs;
 
 import java.io.File;
 import java.nio.file.FileSystemNotFoundException;
+import java.util.Iterator;
 
 import com.hxd.base.Queue;
-import com.hxd.base.Stack;
 import com.hxd.introcs.stdlib.In;
 
 /**
@@ -24,45 +24,69 @@ public class GabowSCC {
 	private int[] preorder;					// preorder[v] = preorder of v
 	private int pre;						// preorder number counter
 	private int count;						// number of strongly-connected components
-	private Stack<Integer> stack1,stack2;
+	private int[] stack1,stack2;			// 两个栈,元素个数分别为top1和top2
+	private int top1, top2;
 	
 	public GabowSCC(Digraph G) {
 		marked = new boolean[G.V()];
-		stack1 = new Stack<Integer>();
-		stack2 = new Stack<Integer>();
+		stack1 = new int[G.V()];
+		stack2 = new int[G.V()];
 		id = new int[G.V()];
 		preorder = new int[G.V()];
 		for (int v = 0; v < G.V(); v++)
 			id[v] = -1;
 		
+		int[] calls = new int[G.V()];
+		@SuppressWarnings("unchecked")
+		Iterator<Integer>[] adj = (Iterator<Integer>[]) new Iterator<?>[G.V()];
 		for (int v = 0; v < G.V(); v++)
-			if (!marked[v]) dfs(G, v);
+			if (!marked[v]) dfs(G, v, calls, adj);
 		
 		assert check(G);
 	}
 
-	private void dfs(Digraph G, int v) {
-		marked[v] = true;
-		preorder[v] = pre++;
-		stack1.push(v);
-		stack2.push(v);
-		for (int w : G.adj(v)) {
-			if (!marked[w])		dfs(G, w);
-			else	if (id[w] == -1) {
-				while (preorder[stack2.peak()] > preorder[w])
-					stack2.pop();
+	/**
+	 * 用显式的栈calls[]代替递归,adj[v]记录v的邻接表已经遍历到哪里;
+	 * v出栈(相当于递归调用返回)时检查它是否是一个强连通分量的根
+	 * */
+	private void dfs(Digraph G, int s, int[] calls, Iterator<Integer>[] adj) {
+		int depth = 0;
+		enter(G, s, adj);
+		calls[depth++] = s;
+		while (depth > 0) {
+			int v = calls[depth - 1];
+			if (adj[v].hasNext()) {
+				int w = adj[v].next();
+				if (!marked[w]) {
+					enter(G, w, adj);
+					calls[depth++] = w;
+				}
+				else	if (id[w] == -1) {
+					while (preorder[stack2[top2 - 1]] > preorder[w])
+						top2--;
+				}
+				continue;
+			}
+			adj[v] = null;
+			depth--;
+			if (stack2[top2 - 1] == v) {
+				top2--;
+				int w;
+				do {
+					w = stack1[--top1];
+					id[w] = count;
+				}while (w != v);
+				count++;
 			}
 		}
-		
-		if(stack2.peak() == v) {
-			stack2.pop();
-			int w;
-			do {
-				w = stack1.pop();
-				id[w] = count;
-			}while (w != v);
-			count++;
-		}
+	}
+
+	private void enter(Digraph G, int v, Iterator<Integer>[] adj) {
+		marked[v] = true;
+		preorder[v] = pre++;
+		stack1[top1++] = v;
+		stack2[top2++] = v;
+		adj[v] = G.adj(v).iterator();
 	}
 
 	/**
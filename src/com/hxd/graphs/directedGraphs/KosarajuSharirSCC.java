@@ -2,8 +2,10 @@ package com.hxd.graphs.directedGraphs;
 
 import java.io.File;
 import java.nio.file.FileSystemNotFoundException;
+import java.util.Iterator;
 
 import com.hxd.base.Queue;
+import com.hxd.graphs.IntGraph;
 import com.hxd.introcs.stdlib.In;
 
 /**
@@ -50,9 +52,12 @@ public class KosarajuSharirSCC {
 		
 		marked = new boolean[G.V()];
 		id = new int[G.V()];
+		int[] stack = new int[G.V()];
+		@SuppressWarnings("unchecked")
+		Iterator<Integer>[] adj = (Iterator<Integer>[]) new Iterator<?>[G.V()];
 		for (int v : dfs.reversePost()){
 			if(!marked[v]) {
-				dfs(G, v);
+				dfs(G, v, stack, adj);
 				count++;
 			}
 		}
@@ -60,12 +65,71 @@ public class KosarajuSharirSCC {
 	}
 
 
-	private void dfs(Digraph G, int v) {
+	/**
+	 * 在{@link IntGraph}(例如CSRGraph)表示的有向图上计算强连通分量,反向图由G.reverse()得到
+	 * @param G the digraph
+	 */
+	public KosarajuSharirSCC(IntGraph G) {
+		DepthFirstOrder dfs = new DepthFirstOrder(G.reverse());
+
+		marked = new boolean[G.V()];
+		id = new int[G.V()];
+		int[] stack = new int[G.V()];
+		long[] next = new long[G.V()];
+		for (int v : dfs.reversePost()){
+			if(!marked[v]) {
+				dfs(G, v, stack, next);
+				count++;
+			}
+		}
+	}
+
+	/**
+	 * 两个dfs()都用显式的栈代替递归,在很长的路径上也不会栈溢出:stack[]中是递归调用栈上的顶点,
+	 * next[v]或者adj[v]记录v的邻接表已经遍历到哪里
+	 * */
+	private void dfs(IntGraph G, int v, int[] stack, long[] next) {
+		int top = 0;
 		marked[v] = true;
 		id[v] = count;
-		for (int w : G.adj(v)) {
-			if (!marked[w])
-				dfs(G, w);
+		next[v] = G.begin(v);
+		stack[top++] = v;
+		while (top > 0) {
+			v = stack[top - 1];
+			if (next[v] < G.end(v)) {
+				int w = G.target(next[v]++);
+				if (!marked[w]) {
+					marked[w] = true;
+					id[w] = count;
+					next[w] = G.begin(w);
+					stack[top++] = w;
+				}
+			}
+			else top--;
+		}
+	}
+
+	private void dfs(Digraph G, int v, int[] stack, Iterator<Integer>[] adj) {
+		int top = 0;
+		marked[v] = true;
+		id[v] = count;
+		adj[v] = G.adj(v).iterator();
+		stack[top++] = v;
+		while (top > 0) {
+			v = stack[top - 1];
+			if (adj[v].hasNext()) {
+				int w = adj[v].next();
+				if (!marked[w]) {
+					marked[w] = true;
+					id[w] = count;
+					adj[w] = G.adj(w).iterator();
+					stack[top++] = w;
+				}
+			}
+			else {
+				adj[v] = null;
+				top--;
+			}
 		}
 	}	
 	
@@ -2,9 +2,9 @@ package com.hxd.graphs.directedGraphs;
 
 import java.io.File;
 import java.nio.file.FileSystemNotFoundException;
+import java.util.Iterator;
 
 import com.hxd.base.Queue;
-import com.hxd.base.Stack;
 import com.hxd.introcs.stdlib.In;
 
 /**
@@ -26,16 +26,26 @@ public class TrianSCC {
 	private int[] low;					// low[v] = low number of v
 	private int pre;					// preorder number counter
 	private int count;					// number of strongly-connected components
-	private Stack<Integer> stack;
+	private int[] stack;				// 还没有归入强连通分量的顶点
+	private int top;					// stack[]中的顶点数
+	private int[] min;					// min[v] = v和它已经搜索过的后代的low值的最小值
+	private int[] calls;				// 显式的递归调用栈
+	private Iterator<Integer>[] adj;	// adj[v] = v的邻接表中还没有检查的部分
 	
+	@SuppressWarnings("unchecked")
 	public TrianSCC(Digraph G) {
 		marked = new boolean[G.V()];
-		stack = new Stack<Integer>();
+		stack = new int[G.V()];
 		id = new int[G.V()];
 		low = new int[G.V()];
+		min = new int[G.V()];
+		calls = new int[G.V()];
+		adj = (Iterator<Integer>[]) new Iterator<?>[G.V()];
 		for (int v = 0; v < G.V(); v++)
 			if (!marked[v])
 				dfs(G, v);
+		min = calls = null;
+		adj = null;
 		assert check(G);
 	}
 /**
@@ -57,24 +67,52 @@ public class TrianSCC {
  * 这一条路径的low值统一，即这条路径上的点属于同一个强连通分量。如果遍历完整个搜索树后某个点的id值等于low值，
  * 则它是该搜索子树的根。这时，它以上（包括它自己）一直到栈顶的所有元素组成一个强连通分量。
  * */
-	private void dfs(Digraph G, int v) {
+	/**
+	 * 用显式的栈calls[]代替递归,在很长的路径上也不会栈溢出.递归版本中的局部变量min保存在min[v]中:
+	 * 检查边v->w时,w已经被访问过就立即用low[w]更新min[v];否则w入栈,等w出栈(相当于递归调用返回)时
+	 * 再用low[w]更新min[v].v出栈时和递归版本一样决定它是否是一个强连通分量的根
+	 * */
+	private void dfs(Digraph G, int s) {
+		int depth = 0;
+		enter(G, s);
+		calls[depth++] = s;
+		while (depth > 0) {
+			int v = calls[depth - 1];
+			if (adj[v].hasNext()) {
+				int w = adj[v].next();
+				if (!marked[w]) {
+					enter(G, w);
+					calls[depth++] = w;
+				}
+				else if (low[w] < min[v]) min[v] = low[w];
+				continue;
+			}
+			adj[v] = null;
+			depth--;
+			finish(G, v);
+			if (depth > 0) {
+				int u = calls[depth - 1];
+				if (low[v] < min[u]) min[u] = low[v];
+			}
+		}
+	}
+
+	private void enter(Digraph G, int v) {
 		marked[v] = true;
 		low[v] = pre++;
-		int min = low[v];
-		stack.push(v);
-		for (int w : G.adj(v)) {
-			
-			if (!marked[w]) dfs(G, w);
-//			System.out.println("low["+v+"]: "+" = "+low[v]+"  min "+min);
-			if (low[w] < min) min = low[w];
-		}
-		if (min < low[v]) {
-			low[v] = min;
+		min[v] = low[v];
+		stack[top++] = v;
+		adj[v] = G.adj(v).iterator();
+	}
+
+	private void finish(Digraph G, int v) {
+		if (min[v] < low[v]) {
+			low[v] = min[v];
 			return;
 		}
 		int w;
 		do {
-			w = stack.pop();
+			w = stack[--top];
 			id[w] = count;
 			low[w] = G.V();
 		}while (w != v);
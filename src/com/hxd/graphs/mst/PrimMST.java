@@ -7,7 +7,7 @@ import com.hxd.base.uf.UF;
 import com.hxd.base.uf.WeightQuickUnionCompressionUF;
 import com.hxd.introcs.Queue;
 import com.hxd.introcs.stdlib.In;
-import com.hxd.sort.priorityQueue.IndexMinPQ;
+import com.hxd.sort.priorityQueue.IndexMinDoublePQ;
 
 /**
  * {@code PrimMST}类表示用于在加权无向图中计算最小生成树的数据类型。 边权重可以是正的，零或负的，并且不需要是不同的。 
@@ -29,7 +29,7 @@ import com.hxd.sort.priorityQueue.IndexMinPQ;
  * 这个任务,在将v添加到树中后检查是否需要更新这条权重最小的边(因为v-w的权重可能会更小),只需要遍历v的邻接链表就可以完成这个任务.
  * 换句话说,只会在优先队列中保存每个非树顶点w的一条边:将它与树中的顶点连接起来权重最小的那条.
  * <p>
- * {@code PrimMST}将使用索引优先队列{@link IndexMinPQ}}的数组edgeTo[]和distTo[],他们拥有如下性质:
+ * {@code PrimMST}将使用索引优先队列{@code IndexMinPQ}(实际使用键为double的d叉堆{@link IndexMinDoublePQ})的数组edgeTo[]和distTo[],他们拥有如下性质:
  * 如果顶点v不在树中但至少含有一条边和树相连,那么edgeTo[v]是将v和树连接的最短边,distTo[v]为这条边的权重;
  * 所有这类顶点v都保存在一条优先队列中,索引v关联的值是edgeTo[v]的边的权重;
  * 优先队列中最小健即使权重最小的横切边的权重,而和它相关联的顶点v就是下一个将被添加到树中的顶点.
@@ -42,13 +42,21 @@ public class PrimMST {
 	private Edge[] edgeTo;				// edgeTo[v] = shortest edge from tree vertex to non-tree vertex
 	private double[] distTo;			// distTo[v] = weight of shortest such edge
 	private boolean[] marked;			// marked[v] = true if v on tree, false otherwise
-	private IndexMinPQ<Double> pq;
+	private IndexMinDoublePQ pq;
 	
 	public PrimMST(EdgeWeightedGraph G) {
+		this(G, 4);
+	}
+	
+	/**
+	 * 使用d叉堆的优先队列{@link IndexMinDoublePQ},d = 2时就是二叉堆
+	 * @throws IllegalArgumentException 如果d不是2的幂
+	 */
+	public PrimMST(EdgeWeightedGraph G, int d) {
 		edgeTo = new Edge[G.V()];
 		distTo = new double[G.V()];
 		marked = new boolean[G.V()];
-		pq = new IndexMinPQ<Double>(G.V());
+		pq = new IndexMinDoublePQ(G.V(), d);
 		for (int v = 0; v < G.V(); v++)
 			distTo[v] = Double.POSITIVE_INFINITY;
 		for (int v = 0; v < G.V(); v++)
@@ -0,0 +1,324 @@
+package com.hxd.graphs.sp;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.hxd.base.Parallel;
+import com.hxd.graphs.EdgeList;
+import com.hxd.introcs.stdlib.StdRandom;
+import com.hxd.sort.priorityQueue.IndexMinDoublePQ;
+
+/**
+ *	所有顶点对之间的最短路径长度,两种引擎:
+ *	<p>
+ *	dijkstra()       对每个起点运行一次Dijkstra算法,起点通过一个原子计数器分给ForkJoinPool中的线程,
+ *	                 每个线程只分配一次距离数组和{@link IndexMinDoublePQ},依次处理自己取到的起点.
+ *	                 时间和V*E*logV成正比,适合稀疏图;边的权重必须非负.结果可以保存在堆中的double[V*V]里,
+ *	                 也可以直接逐行写入{@link DistanceMatrix},这时矩阵的大小只受磁盘的限制;
+ *	floydWarshall()  分块的Floyd-Warshall算法,直接在行优先的double[V*V]矩阵上计算,时间和V^3成正比,适合稠密图,
+ *	                 允许负权重的边并能发现负权重的环.按k顺序的三重循环每一轮都要扫描整个矩阵,V较大时每次都从内存读取;
+ *	                 分块之后矩阵分为B*B的块,对第kb块列(行)依次
+ *	                 1: 在对角块(kb, kb)内部运行Floyd-Warshall算法;
+ *	                 2: 用对角块更新第kb行和第kb列上的其他块,这些块互不依赖,并行计算;
+ *	                 3: 用第kb列和第kb行上的块更新其余的所有块,也是并行的.
+ *	                 每次更新只涉及三个块(默认64*64*8 = 32KB),都在缓存中,算术运算和原来完全相同.
+ *	<p>
+ *	dist(s, t)返回s到t的最短路径长度.需要路径时用{@link PointToPointSP}或{@link ContractionHierarchy}查询.
+ *	<p>
+ *	@author 候旭东 20261017
+ * */
+public class AllPairsSP {
+	public static final int DEFAULT_BLOCK = 64;
+
+	private final int V;
+	private final double[] dist;			// dist[s*V + t] = s到t的最短路径长度,结果在文件中时为null
+	private final DistanceMatrix matrix;	// 结果写入的文件,结果在堆中时为null
+	private final boolean negativeCycle;
+
+	private AllPairsSP(int V, double[] dist, DistanceMatrix matrix, boolean negativeCycle) {
+		this.V = V;
+		this.dist = dist;
+		this.matrix = matrix;
+		this.negativeCycle = negativeCycle;
+	}
+
+	/**
+	 * 使用ForkJoinPool.commonPool()对每个起点运行Dijkstra算法,结果保存在堆中
+	 * @throws IllegalArgumentException if an edge weight is negative
+	 * @throws IllegalArgumentException 如果V*V个距离不能放在一个数组中
+	 */
+	public static AllPairsSP dijkstra(CSREdgeWeightedDigraph G) {
+		return dijkstra(G, ForkJoinPool.commonPool());
+	}
+
+	public static AllPairsSP dijkstra(CSREdgeWeightedDigraph G, ForkJoinPool pool) {
+		double[] dist = new double[checkedSize(G.V())];
+		int V = G.V();
+		dijkstra(G, pool, (s, row) -> System.arraycopy(row, 0, dist, s * V, V));
+		return new AllPairsSP(V, dist, null, false);
+	}
+
+	/**
+	 * 对每个起点运行Dijkstra算法,每个起点的距离写入out的一行
+	 * @throws IllegalArgumentException if an edge weight is negative
+	 * @throws IllegalArgumentException 如果out的大小和G不同
+	 */
+	public static AllPairsSP dijkstra(CSREdgeWeightedDigraph G, ForkJoinPool pool, DistanceMatrix out) {
+		if (out.V() != G.V()) throw new IllegalArgumentException("matrix has " + out.V() + " vertices, graph has " + G.V());
+		dijkstra(G, pool, out::writeRow);
+		return new AllPairsSP(G.V(), null, out, false);
+	}
+
+	interface RowSink { void accept(int s, double[] row); }
+
+	private static void dijkstra(CSREdgeWeightedDigraph G, ForkJoinPool pool, RowSink sink) {
+		for (int e = 0; e < G.E(); e++)
+			if (G.weight(e) < 0)
+				throw new IllegalArgumentException("edge " + e + " has negative weight " + G.weight(e));
+		int V = G.V();
+		AtomicInteger next = new AtomicInteger();
+		int workers = Math.max(1, Math.min(V, pool.getParallelism()));
+		Parallel.forEach(pool, workers, c -> {
+			double[] distTo = new double[V];
+			IndexMinDoublePQ pq = new IndexMinDoublePQ(V);
+			for (int s = next.getAndIncrement(); s < V; s = next.getAndIncrement()) {
+				Arrays.fill(distTo, Double.POSITIVE_INFINITY);
+				distTo[s] = 0.0;
+				pq.insert(s, 0.0);
+				while (!pq.isEmpty()) {
+					int v = pq.delMin();
+					double dv = distTo[v];
+					for (int e = G.begin(v), end = G.end(v); e < end; e++) {
+						int w = G.to(e);
+						double d = dv + G.weight(e);
+						if (d < distTo[w]) {
+							distTo[w] = d;
+							if (pq.contains(w)) pq.decreaseKey(w, d);
+							else                pq.insert(w, d);
+						}
+					}
+				}
+				sink.accept(s, distTo);
+			}
+		});
+	}
+
+	/**
+	 * 使用ForkJoinPool.commonPool()和默认的块大小运行分块的Floyd-Warshall算法
+	 * @throws IllegalArgumentException 如果V*V个距离不能放在一个数组中
+	 */
+	public static AllPairsSP floydWarshall(CSREdgeWeightedDigraph G) {
+		return floydWarshall(G, DEFAULT_BLOCK, ForkJoinPool.commonPool());
+	}
+
+	public static AllPairsSP floydWarshall(CSREdgeWeightedDigraph G, int block, ForkJoinPool pool) {
+		double[] d = adjacencyMatrix(G);
+		boolean negativeCycle = floydWarshall(d, G.V(), block, pool);
+		return new AllPairsSP(G.V(), d, null, negativeCycle);
+	}
+
+	/**
+	 * 返回行优先的V*V邻接矩阵:对角线为0,有边v->w时为最小的边权重,否则为正无穷
+	 * @throws IllegalArgumentException 如果V*V个距离不能放在一个数组中
+	 */
+	public static double[] adjacencyMatrix(CSREdgeWeightedDigraph G) {
+		int V = G.V();
+		double[] d = new double[checkedSize(V)];
+		Arrays.fill(d, Double.POSITIVE_INFINITY);
+		for (int v = 0; v < V; v++) {
+			d[v * V + v] = 0.0;
+			for (int e = G.begin(v), end = G.end(v); e < end; e++) {
+				int w = G.to(e);
+				d[v * V + w] = Math.min(d[v * V + w], G.weight(e));
+			}
+		}
+		return d;
+	}
+
+	/**
+	 * 在行优先的V*V矩阵d上原地运行分块的Floyd-Warshall算法,d开始时是邻接矩阵,结束时是距离矩阵
+	 * @param block 块的边长
+	 * @return 是否存在负权重的环(这时有些距离没有意义)
+	 * @throws IllegalArgumentException 如果d的长度不是V*V或者block不是正数
+	 */
+	public static boolean floydWarshall(double[] d, int V, int block, ForkJoinPool pool) {
+		if (d.length != (long) V * V) throw new IllegalArgumentException("matrix length " + d.length + " is not " + V + "*" + V);
+		if (block < 1) throw new IllegalArgumentException("block size must be positive: " + block);
+		int blocks = (V + block - 1) / block;
+		for (int kb = 0; kb < blocks; kb++) {
+			int k0 = kb * block, k1 = Math.min(V, k0 + block);
+			int kbFinal = kb;
+			relax(d, V, k0, k1, k0, k1, k0, k1);
+			Parallel.forEach(pool, blocks, c -> {
+				if (c == kbFinal) return;
+				int c0 = c * block, c1 = Math.min(V, c0 + block);
+				relax(d, V, k0, k1, c0, c1, k0, k1);		// 第kb行的块
+				relax(d, V, c0, c1, k0, k1, k0, k1);		// 第kb列的块
+			});
+			Parallel.forEach(pool, blocks, r -> {
+				if (r == kbFinal) return;
+				int r0 = r * block, r1 = Math.min(V, r0 + block);
+				for (int c = 0; c < blocks; c++) {
+					if (c == kbFinal) continue;
+					int c0 = c * block, c1 = Math.min(V, c0 + block);
+					relax(d, V, r0, r1, c0, c1, k0, k1);
+				}
+			});
+		}
+		for (int v = 0; v < V; v++)
+			if (d[v * V + v] < 0) return true;
+		return false;
+	}
+
+	// 对于k0 <= k < k1依次用经过k的路径更新行i0..i1-1,列j0..j1-1的元素
+	private static void relax(double[] d, int V, int i0, int i1, int j0, int j1, int k0, int k1) {
+		for (int k = k0; k < k1; k++) {
+			int kRow = k * V;
+			for (int i = i0; i < i1; i++) {
+				int iRow = i * V;
+				double dik = d[iRow + k];
+				if (dik == Double.POSITIVE_INFINITY) continue;
+				for (int j = j0; j < j1; j++) {
+					double x = dik + d[kRow + j];
+					if (x < d[iRow + j]) d[iRow + j] = x;
+				}
+			}
+		}
+	}
+
+	private static int checkedSize(int V) {
+		long n = (long) V * V;
+		if (n > Integer.MAX_VALUE - 8)
+			throw new IllegalArgumentException(V + "*" + V + " distances do not fit in an array, use a DistanceMatrix");
+		return (int) n;
+	}
+
+	/**
+	 * Returns the length of a shortest path from vertex {@code s} to vertex {@code t}.
+	 * @return {@code Double.POSITIVE_INFINITY} if no such path
+	 * @throws UnsupportedOperationException if there is a negative cost cycle
+	 * @throws IllegalArgumentException unless {@code 0 <= s < V} and {@code 0 <= t < V}
+	 */
+	public double dist(int s, int t) {
+		validateVertex(s);
+		validateVertex(t);
+		if (negativeCycle) throw new UnsupportedOperationException("Negative cost cycle exists");
+		return dist != null ? dist[s * V + t] : matrix.get(s, t);
+	}
+
+	/**
+	 * Returns true if there is a path from vertex {@code s} to vertex {@code t}.
+	 * @throws IllegalArgumentException unless {@code 0 <= s < V} and {@code 0 <= t < V}
+	 */
+	public boolean hasPath(int s, int t) {
+		return dist(s, t) < Double.POSITIVE_INFINITY;
+	}
+
+	/**
+	 * Returns true if there is a negative cycle (only possible with floydWarshall()).
+	 */
+	public boolean hasNegativeCycle() {
+		return negativeCycle;
+	}
+
+	/**
+	 * 把堆中的结果写入分块的矩阵文件;结果已经在文件中时返回那个文件
+	 */
+	public DistanceMatrix write(Path path, int tile) throws IOException {
+		if (matrix != null) return matrix;
+		DistanceMatrix out = DistanceMatrix.create(path, V, tile, 0.0);
+		double[] row = new double[V];
+		for (int s = 0; s < V; s++) {
+			System.arraycopy(dist, s * V, row, 0, V);
+			out.writeRow(s, row);
+		}
+		out.force();
+		return out;
+	}
+
+	private void validateVertex(int v) {
+		if (v < 0 || v >= V)
+			throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (V-1));
+	}
+
+	/**
+	 * 在V个顶点,degree*V条随机边的图上比较:
+	 * 逐个起点运行DijkstraSP,并行的dijkstra(),按k顺序的三重循环,分块的floydWarshall(),以及写入DistanceMatrix文件的dijkstra(),
+	 * 检查所有的结果相同.
+	 * 用法: java AllPairsSP [V] [degree] [block]
+	 * */
+	public static void main(String[] args) throws IOException {
+		int V = args.length > 0 ? Integer.parseInt(args[0]) : 1500;
+		int degree = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+		int block = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_BLOCK;
+		int E = degree * V;
+		int[] from = new int[E], to = new int[E];
+		double[] weight = new double[E];
+		for (int i = 0; i < E; i++) {
+			from[i] = StdRandom.uniform(V);
+			to[i] = StdRandom.uniform(V);
+			weight[i] = StdRandom.uniform(1.0, 100.0);
+		}
+		EdgeList edges = new EdgeList(V, from, to, weight, E);
+		CSREdgeWeightedDigraph G = CSREdgeWeightedDigraph.of(edges);
+		EdgeWeightedDigraph digraph = edges.toEdgeWeightedDigraph();
+		ForkJoinPool pool = ForkJoinPool.commonPool();
+		System.out.printf("V = %d, E = %d, %d threads, block = %d\n", V, E, pool.getParallelism(), block);
+
+		long t0 = System.nanoTime();
+		double[] expected = new double[V * V];
+		for (int s = 0; s < V; s++) {
+			DijkstraSP sp = new DijkstraSP(digraph, s);
+			for (int t = 0; t < V; t++)
+				expected[s * V + t] = sp.distTo(t);
+		}
+		report("DijkstraSP x V", t0, expected, expected, V);
+
+		t0 = System.nanoTime();
+		AllPairsSP dijkstra = dijkstra(G, pool);
+		report("dijkstra()", t0, dijkstra.dist, expected, V);
+
+		double[] naive = adjacencyMatrix(G);
+		t0 = System.nanoTime();
+		relax(naive, V, 0, V, 0, V, 0, V);
+		report("Floyd-Warshall", t0, naive, expected, V);
+
+		t0 = System.nanoTime();
+		AllPairsSP blocked = floydWarshall(G, block, pool);
+		report("floydWarshall()", t0, blocked.dist, expected, V);
+
+		Path file = Files.createTempFile("apsp", ".bin");
+		try (DistanceMatrix M = DistanceMatrix.create(file, V, DistanceMatrix.DEFAULT_TILE, Double.POSITIVE_INFINITY)) {
+			t0 = System.nanoTime();
+			AllPairsSP mapped = dijkstra(G, pool, M);
+			M.force();
+			double[] copy = new double[V * V], row = new double[V];
+			for (int s = 0; s < V; s++) {
+				M.readRow(s, row);
+				System.arraycopy(row, 0, copy, s * V, V);
+			}
+			report("dijkstra() -> file", t0, copy, expected, V);
+			for (int q = 0; q < 1000; q++) {
+				int s = StdRandom.uniform(V), t = StdRandom.uniform(V);
+				if (mapped.dist(s, t) != expected[s * V + t]) throw new AssertionError("file " + s + "->" + t);
+			}
+			System.out.printf("matrix file: %d bytes\n", Files.size(file));
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	private static void report(String name, long t0, double[] d, double[] expected, int V) {
+		double millis = (System.nanoTime() - t0) / 1e6;
+		for (int i = 0; i < d.length; i++) {
+			double e = expected[i];
+			if (d[i] != e && !(Math.abs(d[i] - e) <= 1e-9 * Math.max(1.0, Math.abs(e))))
+				throw new AssertionError(name + ": dist(" + i / V + ", " + i % V + ") = " + d[i] + " != " + e);
+		}
+		System.out.printf("%-22s %10.1f ms\n", name, millis);
+	}
+}
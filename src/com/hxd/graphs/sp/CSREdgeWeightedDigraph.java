@@ -0,0 +1,182 @@
+package com.hxd.graphs.sp;
+
+import com.hxd.graphs.EdgeList;
+
+/**
+ *	压缩稀疏行(CSR)表示的不可变加权有向图.EdgeWeightedDigraph的邻接表是Bag<DirectedEdge>[],每条边是一个
+ *	链表结点加一个DirectedEdge对象;这里所有顶点的邻接表首尾相接保存在to[]和weight[]中,
+ *	offsets[v]到offsets[v+1]是顶点v的出边的编号,每条边只需要12个字节,遍历邻接表时不创建迭代器:
+ *	<pre>
+ *	for (int e = G.begin(v), end = G.end(v); e &lt; end; e++) {
+ *		int w = G.to(e);
+ *		double weight = G.weight(e);
+ *		...
+ *	}
+ *	</pre>
+ *	从EdgeWeightedDigraph转换时邻接表中边的顺序保持不变.DeltaSteppingSP等并行和点对点的最短路径算法使用这种表示.
+ *	<p>
+ *	@author 候旭东 20261017
+ * */
+public class CSREdgeWeightedDigraph {
+	private final int V;
+	private final int[] offsets;	// offsets[v]..offsets[v+1]-1 = 顶点v的出边
+	private final int[] to;			// to[e] = 第e条边指向的顶点
+	private final double[] weight;	// weight[e] = 第e条边的权重
+
+	private CSREdgeWeightedDigraph(int V, int[] offsets, int[] to, double[] weight) {
+		this.V = V;
+		this.offsets = offsets;
+		this.to = to;
+		this.weight = weight;
+	}
+
+	/**
+	 * 把EdgeWeightedDigraph转换为CSR表示
+	 */
+	public static CSREdgeWeightedDigraph of(EdgeWeightedDigraph G) {
+		int V = G.V();
+		int[] offsets = new int[V + 1];
+		for (int v = 0; v < V; v++)
+			offsets[v + 1] = offsets[v] + G.outdegree(v);
+		int[] to = new int[offsets[V]];
+		double[] weight = new double[offsets[V]];
+		for (int v = 0; v < V; v++) {
+			int e = offsets[v];
+			for (DirectedEdge edge : G.adj(v)) {
+				to[e] = edge.to();
+				weight[e++] = edge.weight();
+			}
+		}
+		return new CSREdgeWeightedDigraph(V, offsets, to, weight);
+	}
+
+	/**
+	 * 由带权重的边表构造,用键索引计数把每条边放到它的起点的邻接表中
+	 * @throws IllegalArgumentException 如果边表不带权重
+	 */
+	public static CSREdgeWeightedDigraph of(EdgeList edges) {
+		if (!edges.weighted()) throw new IllegalArgumentException("edge list is unweighted");
+		int V = edges.V(), E = edges.E();
+		int[] offsets = new int[V + 1];
+		for (int i = 0; i < E; i++)
+			offsets[edges.from(i) + 1]++;
+		for (int v = 0; v < V; v++)
+			offsets[v + 1] += offsets[v];
+		int[] next = offsets.clone();
+		int[] to = new int[E];
+		double[] weight = new double[E];
+		for (int i = 0; i < E; i++) {
+			int e = next[edges.from(i)]++;
+			to[e] = edges.to(i);
+			weight[e] = edges.weight(i);
+		}
+		return new CSREdgeWeightedDigraph(V, offsets, to, weight);
+	}
+
+	/**
+	 * 返回所有边反向之后的图,反向图中第e条边的权重和原图中对应的边相同
+	 */
+	public CSREdgeWeightedDigraph reverse() {
+		int E = offsets[V];
+		int[] rOffsets = new int[V + 1];
+		for (int e = 0; e < E; e++)
+			rOffsets[to[e] + 1]++;
+		for (int v = 0; v < V; v++)
+			rOffsets[v + 1] += rOffsets[v];
+		int[] next = rOffsets.clone();
+		int[] rTo = new int[E];
+		double[] rWeight = new double[E];
+		for (int v = 0; v < V; v++) {
+			for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+				int r = next[to[e]]++;
+				rTo[r] = v;
+				rWeight[r] = weight[e];
+			}
+		}
+		return new CSREdgeWeightedDigraph(V, rOffsets, rTo, rWeight);
+	}
+
+	public int V() {
+		return V;
+	}
+
+	public int E() {
+		return offsets[V];
+	}
+
+	/**
+	 * 返回顶点v的第一条出边的编号
+	 * @throws IllegalArgumentException unless {@code 0 <= v < V}
+	 */
+	public int begin(int v) {
+		validateVertex(v);
+		return offsets[v];
+	}
+
+	/**
+	 * 返回顶点v的最后一条出边的下一个编号
+	 * @throws IllegalArgumentException unless {@code 0 <= v < V}
+	 */
+	public int end(int v) {
+		validateVertex(v);
+		return offsets[v + 1];
+	}
+
+	/**
+	 * 第e条边指向的顶点,不检查e的范围
+	 */
+	public int to(int e) {
+		return to[e];
+	}
+
+	/**
+	 * 第e条边的权重,不检查e的范围
+	 */
+	public double weight(int e) {
+		return weight[e];
+	}
+
+	public int outdegree(int v) {
+		validateVertex(v);
+		return offsets[v + 1] - offsets[v];
+	}
+
+	/**
+	 * 返回从v出发的第e条边,用于pathTo()等需要DirectedEdge的场合
+	 */
+	public DirectedEdge edge(int v, int e) {
+		return new DirectedEdge(v, to[e], weight[e]);
+	}
+
+	/**
+	 * 返回最小的边权重,没有边时返回0
+	 */
+	public double minWeight() {
+		double min = Double.POSITIVE_INFINITY;
+		for (double w : weight)
+			if (w < min) min = w;
+		return weight.length == 0 ? 0 : min;
+	}
+
+	/**
+	 * 返回最大的边权重,没有边时返回0
+	 */
+	public double maxWeight() {
+		double max = 0;
+		for (double w : weight)
+			if (w > max) max = w;
+		return max;
+	}
+
+	/**
+	 * 返回这幅图占用的字节数(不包括对象头)
+	 */
+	public long bytes() {
+		return 4L * offsets.length + 12L * weight.length;
+	}
+
+	private void validateVertex(int v) {
+		if (v < 0 || v >= V)
+			throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (V-1));
+	}
+}
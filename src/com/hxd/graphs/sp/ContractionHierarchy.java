@@ -0,0 +1,616 @@
+package com.hxd.graphs.sp;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import com.hxd.base.Queue;
+import com.hxd.base.Stack;
+import com.hxd.graphs.EdgeList;
+import com.hxd.graphs.GraphIO;
+import com.hxd.graphs.sp.PointToPointSP.Side;
+import com.hxd.graphs.sp.PointToPointSP.Workspace;
+import com.hxd.introcs.stdlib.StdRandom;
+import com.hxd.sort.priorityQueue.IndexMinDoublePQ;
+
+/**
+ *	收缩层次(contraction hierarchies,Geisberger等):对静态的加权有向图做一次预处理,之后每次点对点查询只需要访问几百个顶点.
+ *	<p>
+ *	预处理按照一定的顺序逐个收缩顶点.收缩v时,对每一对还没有收缩的邻居u-&gt;v-&gt;w,如果在去掉v的图中找不到
+ *	从u到w的不长于u-&gt;v-&gt;w的路径(见证路径),就加入一条捷径u-&gt;w,权重是两条边的权重之和,并记下中间的顶点v.
+ *	这样去掉v之后其余顶点之间的距离不变.收缩的顺序用{@link IndexMinDoublePQ}维护,优先级是
+ *	4*(加入的捷径数 - 删除的边数) + 已经收缩的邻居数 + 2*层数(让收缩的顶点在图中分布均匀),取出时重新计算(懒惰更新),
+ *	收缩之后更新邻居的优先级.见证搜索是限制了访问顶点数的Dijkstra算法,找不到见证路径时多加一条捷径,不影响正确性.
+ *	<p>
+ *	收缩v时它剩下的边都连向收缩顺序更靠后(层次更高)的顶点,这些边(包括捷径)就是索引:
+ *	up[v]是从v出发向上的边,down[v]是从更高的顶点进入v的边,两者都是CSR数组.任意两点之间都有一条
+ *	先上升后下降的最短路径,所以查询是双向的Dijkstra算法:从s沿着up[]向上,从t沿着down[]反向向上,
+ *	两边的队首键都不小于当前最短的s-t距离时结束.另外使用停顿(stall-on-demand):如果从一个更高的顶点下来
+ *	到v更近,v的距离一定不是最短的,不再放松它的边.查询使用{@link PointToPointSP}的工作区,每个线程一份,重复使用.
+ *	path()用一个显式的栈把捷径按中间顶点展开为原图中的边,捷径嵌套得再深也不会栈溢出.
+ *	<p>
+ *	索引可以用write()保存为紧凑的二进制文件,read()映射读回,不需要重新预处理.格式(小端):
+ *	<pre>
+ *	int magic "HXCH", int version, int V, int upE, int downE, int 0
+ *	int[V+1] upOffsets,   int[upE] upTo,     int[upE] upMiddle,     double[upE] upWeight
+ *	int[V+1] downOffsets, int[downE] downFrom, int[downE] downMiddle, double[downE] downWeight
+ *	</pre>
+ *	每条边16字节,middle为-1时是原图中的边.
+ *	<p>
+ *	边的权重必须非负,自环被忽略,平行边只保留权重最小的一条.
+ *	<p>
+ *	@author 候旭东 20261017
+ * */
+public class ContractionHierarchy {
+	private static final int MAGIC = 0x48584348;		// "HXCH"
+	private static final int VERSION = 1;
+	private static final int HEADER_BYTES = 24;
+	private static final int BUFFER_SIZE = 1 << 16;
+	// 见证搜索最多取出的顶点数
+	private static final int WITNESS_LIMIT = 200;
+
+	private final int V;
+	private final int[] upOffsets, upTo, upMiddle;			// upOffsets[v]..upOffsets[v+1]-1 = v出发向上的边
+	private final double[] upWeight;
+	private final int[] downOffsets, downFrom, downMiddle;	// downOffsets[v]..downOffsets[v+1]-1 = 从上面进入v的边
+	private final double[] downWeight;
+	private final long preprocessMillis;					// 从文件读入时为0
+	private final ThreadLocal<Workspace> workspace;		// 和PointToPointSP相同,edgeTo正向是up[]中的编号,反向是down[]中的编号
+
+	/**
+	 * 把G转换为CSREdgeWeightedDigraph之后预处理
+	 * @throws IllegalArgumentException if an edge weight is negative
+	 */
+	public ContractionHierarchy(EdgeWeightedDigraph G) {
+		this(CSREdgeWeightedDigraph.of(G));
+	}
+
+	/**
+	 * @throws IllegalArgumentException if an edge weight is negative
+	 */
+	public ContractionHierarchy(CSREdgeWeightedDigraph G) {
+		long t0 = System.nanoTime();
+		Contraction c = new Contraction(G);
+		c.run();
+		V = G.V();
+		upOffsets = new int[V + 1];
+		downOffsets = new int[V + 1];
+		for (int v = 0; v < V; v++) {
+			upOffsets[v + 1] = upOffsets[v] + c.out[v].n;
+			downOffsets[v + 1] = downOffsets[v] + c.in[v].n;
+		}
+		upTo = new int[upOffsets[V]];
+		upMiddle = new int[upOffsets[V]];
+		upWeight = new double[upOffsets[V]];
+		downFrom = new int[downOffsets[V]];
+		downMiddle = new int[downOffsets[V]];
+		downWeight = new double[downOffsets[V]];
+		for (int v = 0; v < V; v++) {
+			c.out[v].copyTo(upOffsets[v], upTo, upMiddle, upWeight);
+			c.in[v].copyTo(downOffsets[v], downFrom, downMiddle, downWeight);
+			c.out[v] = c.in[v] = null;
+		}
+		preprocessMillis = (System.nanoTime() - t0) / 1000000;
+		workspace = ThreadLocal.withInitial(() -> new Workspace(V));
+	}
+
+	private ContractionHierarchy(int V, int[] upOffsets, int[] upTo, int[] upMiddle, double[] upWeight,
+			int[] downOffsets, int[] downFrom, int[] downMiddle, double[] downWeight) {
+		this.V = V;
+		this.upOffsets = upOffsets;
+		this.upTo = upTo;
+		this.upMiddle = upMiddle;
+		this.upWeight = upWeight;
+		this.downOffsets = downOffsets;
+		this.downFrom = downFrom;
+		this.downMiddle = downMiddle;
+		this.downWeight = downWeight;
+		this.preprocessMillis = 0;
+		this.workspace = ThreadLocal.withInitial(() -> new Workspace(V));
+	}
+
+	/***************************************************************************
+	 *  预处理
+	 ***************************************************************************/
+
+	/**
+	 * 一个顶点的邻接边:邻居,权重和捷径的中间顶点(原图中的边为-1)
+	 */
+	private static final class Arcs {
+		int[] vertex = new int[4];
+		int[] middle = new int[4];
+		double[] weight = new double[4];
+		int n;
+
+		void add(int x, double w, int m) {
+			if (n == vertex.length) {
+				vertex = Arrays.copyOf(vertex, 2 * n);
+				middle = Arrays.copyOf(middle, 2 * n);
+				weight = Arrays.copyOf(weight, 2 * n);
+			}
+			vertex[n] = x;
+			middle[n] = m;
+			weight[n++] = w;
+		}
+
+		int indexOf(int x) {
+			for (int i = 0; i < n; i++)
+				if (vertex[i] == x) return i;
+			return -1;
+		}
+
+		void remove(int x) {
+			int i = indexOf(x);
+			n--;
+			vertex[i] = vertex[n];
+			middle[i] = middle[n];
+			weight[i] = weight[n];
+		}
+
+		void copyTo(int offset, int[] vertices, int[] middles, double[] weights) {
+			System.arraycopy(vertex, 0, vertices, offset, n);
+			System.arraycopy(middle, 0, middles, offset, n);
+			System.arraycopy(weight, 0, weights, offset, n);
+		}
+	}
+
+	private static final class Contraction {
+		final int V;
+		final Arcs[] out, in;			// 还没有收缩的顶点之间的边;收缩之后保留v连向更高顶点的边
+		final boolean[] contracted;
+		final int[] deleted;			// deleted[v] = 已经收缩的邻居数
+		final int[] level;				// level[v] = 比v先收缩的邻居的最大层数加1
+		// 见证搜索的工作区
+		final double[] dist;
+		final int[] stamp;
+		final int[] target;			// target[w] == epoch: w是这次见证搜索要找的终点
+		final IndexMinDoublePQ pq;
+		int epoch;
+
+		Contraction(CSREdgeWeightedDigraph G) {
+			V = G.V();
+			out = new Arcs[V];
+			in = new Arcs[V];
+			for (int v = 0; v < V; v++) {
+				out[v] = new Arcs();
+				in[v] = new Arcs();
+			}
+			for (int v = 0; v < V; v++) {
+				for (int e = G.begin(v), end = G.end(v); e < end; e++) {
+					if (G.weight(e) < 0)
+						throw new IllegalArgumentException("edge " + v + "->" + G.to(e) + " has negative weight " + G.weight(e));
+					if (G.to(e) != v) addArc(v, G.to(e), G.weight(e), -1);
+				}
+			}
+			contracted = new boolean[V];
+			deleted = new int[V];
+			level = new int[V];
+			dist = new double[V];
+			stamp = new int[V];
+			target = new int[V];
+			pq = new IndexMinDoublePQ(V);
+		}
+
+		// 加入边u->w,已经有这条边时只保留权重较小的
+		void addArc(int u, int w, double weight, int middle) {
+			int i = out[u].indexOf(w);
+			if (i < 0) {
+				out[u].add(w, weight, middle);
+				in[w].add(u, weight, middle);
+			}
+			else if (weight < out[u].weight[i]) {
+				out[u].weight[i] = weight;
+				out[u].middle[i] = middle;
+				int j = in[w].indexOf(u);
+				in[w].weight[j] = weight;
+				in[w].middle[j] = middle;
+			}
+		}
+
+		void run() {
+			IndexMinDoublePQ order = new IndexMinDoublePQ(V);
+			for (int v = 0; v < V; v++)
+				order.insert(v, priority(v));
+			int[] mark = new int[V];
+			int round = 0;
+			while (!order.isEmpty()) {
+				int v = order.delMin();
+				// 懒惰更新:重新计算的优先级不再是最小的时候放回去
+				double p = priority(v);
+				if (!order.isEmpty() && p > order.minKey()) {
+					order.insert(v, p);
+					continue;
+				}
+				contract(v);
+				round++;
+				for (Arcs arcs : new Arcs[] { in[v], out[v] }) {
+					for (int i = 0; i < arcs.n; i++) {
+						int x = arcs.vertex[i];
+						if (mark[x] == round) continue;
+						mark[x] = round;
+						order.changeKey(x, priority(x));
+					}
+				}
+			}
+		}
+
+		double priority(int v) {
+			int shortcuts = shortcuts(v, false);
+			return 4 * (shortcuts - in[v].n - out[v].n) + deleted[v] + 2 * level[v];
+		}
+
+		void contract(int v) {
+			shortcuts(v, true);
+			Arcs I = in[v], O = out[v];
+			for (int i = 0; i < I.n; i++) {
+				int u = I.vertex[i];
+				out[u].remove(v);
+				deleted[u]++;
+				level[u] = Math.max(level[u], level[v] + 1);
+			}
+			for (int j = 0; j < O.n; j++) {
+				int w = O.vertex[j];
+				in[w].remove(v);
+				deleted[w]++;
+				level[w] = Math.max(level[w], level[v] + 1);
+			}
+			contracted[v] = true;
+		}
+
+		// 返回收缩v需要的捷径数,apply为true时加入这些捷径
+		int shortcuts(int v, boolean apply) {
+			Arcs I = in[v], O = out[v];
+			if (I.n == 0 || O.n == 0) return 0;
+			int count = 0;
+			for (int i = 0; i < I.n; i++) {
+				int u = I.vertex[i];
+				double wu = I.weight[i];
+				witness(u, v, wu, O);
+				for (int j = 0; j < O.n; j++) {
+					int w = O.vertex[j];
+					if (w == u) continue;
+					double d = wu + O.weight[j];
+					if (stamp[w] == epoch && dist[w] <= d) continue;
+					count++;
+					if (apply) addArc(u, w, d, v);
+				}
+			}
+			return count;
+		}
+
+		// 从u出发不经过v的Dijkstra算法,寻找到v的出边的终点的见证路径.所有终点都已取出,
+		// 距离超过经过v的最长路径或者取出了WITNESS_LIMIT个顶点时停止
+		void witness(int u, int v, double wu, Arcs targets) {
+			if (++epoch == Integer.MAX_VALUE) {
+				Arrays.fill(stamp, 0);
+				Arrays.fill(target, 0);
+				epoch = 1;
+			}
+			double maxDist = 0;
+			int remaining = 0;
+			for (int j = 0; j < targets.n; j++) {
+				int w = targets.vertex[j];
+				if (w == u || target[w] == epoch) continue;
+				target[w] = epoch;
+				remaining++;
+				maxDist = Math.max(maxDist, wu + targets.weight[j]);
+			}
+			dist[u] = 0.0;
+			stamp[u] = epoch;
+			pq.insert(u, 0.0);
+			int settled = 0;
+			while (remaining > 0 && !pq.isEmpty() && pq.minKey() <= maxDist && settled++ < WITNESS_LIMIT) {
+				int x = pq.delMin();
+				if (target[x] == epoch) remaining--;
+				Arcs arcs = out[x];
+				for (int i = 0; i < arcs.n; i++) {
+					int y = arcs.vertex[i];
+					if (y == v) continue;
+					double d = dist[x] + arcs.weight[i];
+					if (stamp[y] != epoch || d < dist[y]) {
+						dist[y] = d;
+						stamp[y] = epoch;
+						if (pq.contains(y)) pq.decreaseKey(y, d);
+						else                pq.insert(y, d);
+					}
+				}
+			}
+			pq.clear();
+		}
+	}
+
+	/***************************************************************************
+	 *  查询
+	 ***************************************************************************/
+
+	/**
+	 * 返回从s到t的最短路径的长度
+	 * @return {@code Double.POSITIVE_INFINITY} if no such path
+	 * @throws IllegalArgumentException unless {@code 0 <= s < V} and {@code 0 <= t < V}
+	 */
+	public double distance(int s, int t) {
+		return search(workspace.get(), s, t);
+	}
+
+	/**
+	 * 返回从s到t的一条最短路径,捷径展开为原图中的边
+	 * @return a shortest path as an iterable of edges, and {@code null} if no such path
+	 * @throws IllegalArgumentException unless {@code 0 <= s < V} and {@code 0 <= t < V}
+	 */
+	public Iterable<DirectedEdge> path(int s, int t) {
+		Workspace ws = workspace.get();
+		if (search(ws, s, t) == Double.POSITIVE_INFINITY) return null;
+		// 上升部分在正向的搜索树中,从相遇点往回找到s;下降部分在反向的搜索树中,从相遇点到t
+		Stack<int[]> head = new Stack<int[]>();		// {from, to, 0表示up[]/1表示down[], 编号}
+		for (int x = ws.meet; x != s; x = ws.forward.parent[x])
+			head.push(new int[] { ws.forward.parent[x], x, 0, ws.forward.edgeTo[x] });
+		Queue<int[]> arcs = new Queue<int[]>();
+		for (int[] arc : head)
+			arcs.enqueue(arc);
+		for (int x = ws.meet; x != t; x = ws.backward.parent[x])
+			arcs.enqueue(new int[] { x, ws.backward.parent[x], 1, ws.backward.edgeTo[x] });
+		Queue<DirectedEdge> path = new Queue<DirectedEdge>();
+		Stack<int[]> stack = new Stack<int[]>();
+		for (int[] arc : arcs) {
+			stack.push(arc);
+			unpack(stack, path);
+		}
+		return path;
+	}
+
+	// 依次弹出栈顶的边,捷径u->w(中间顶点m)换成u->m和m->w压回栈中,原图中的边加入path
+	private void unpack(Stack<int[]> stack, Queue<DirectedEdge> path) {
+		while (!stack.isEmpty()) {
+			int[] arc = stack.pop();
+			int from = arc[0], to = arc[1], e = arc[3];
+			int middle = arc[2] == 0 ? upMiddle[e] : downMiddle[e];
+			if (middle < 0) {
+				path.enqueue(new DirectedEdge(from, to, arc[2] == 0 ? upWeight[e] : downWeight[e]));
+				continue;
+			}
+			// m比u和w都先收缩:u->m在down[m]中,m->w在up[m]中
+			stack.push(new int[] { middle, to, 0, upArc(middle, to) });
+			stack.push(new int[] { from, middle, 1, downArc(middle, from) });
+		}
+	}
+
+	private int upArc(int v, int to) {
+		for (int e = upOffsets[v]; e < upOffsets[v + 1]; e++)
+			if (upTo[e] == to) return e;
+		throw new IllegalStateException("missing arc " + v + "->" + to);
+	}
+
+	private int downArc(int v, int from) {
+		for (int e = downOffsets[v]; e < downOffsets[v + 1]; e++)
+			if (downFrom[e] == from) return e;
+		throw new IllegalStateException("missing arc " + from + "->" + v);
+	}
+
+	/**
+	 * 返回当前线程上一次查询从优先队列中取出的顶点数
+	 */
+	public int settled() {
+		return workspace.get().settled;
+	}
+
+	private double search(Workspace ws, int s, int t) {
+		validateVertex(s);
+		validateVertex(t);
+		ws.begin();
+		Side f = ws.forward, b = ws.backward;
+		int epoch = ws.epoch;
+		f.relax(s, 0.0, -1, -1, epoch);
+		b.relax(t, 0.0, -1, -1, epoch);
+		double mu = Double.POSITIVE_INFINITY;
+		try {
+			while (true) {
+				boolean fOk = !f.pq.isEmpty() && f.pq.minKey() < mu;
+				boolean bOk = !b.pq.isEmpty() && b.pq.minKey() < mu;
+				if (!fOk && !bOk) break;
+				boolean forward = fOk && (!bOk || f.pq.minKey() <= b.pq.minKey());
+				Side side = forward ? f : b, other = forward ? b : f;
+				int v = side.pq.delMin();
+				ws.settled++;
+				double dv = side.distTo[v];
+				double through = dv + other.dist(v, epoch);
+				if (through < mu) {
+					mu = through;
+					ws.meet = v;
+				}
+				if (forward) {
+					if (stalled(downOffsets, downFrom, downWeight, side, v, dv, epoch)) continue;
+					for (int e = upOffsets[v]; e < upOffsets[v + 1]; e++)
+						side.relax(upTo[e], dv + upWeight[e], v, e, epoch);
+				}
+				else {
+					if (stalled(upOffsets, upTo, upWeight, side, v, dv, epoch)) continue;
+					for (int e = downOffsets[v]; e < downOffsets[v + 1]; e++)
+						side.relax(downFrom[e], dv + downWeight[e], v, e, epoch);
+				}
+			}
+		} finally {
+			f.pq.clear();
+			b.pq.clear();
+		}
+		return mu;
+	}
+
+	// 通过另一组边从更高的顶点x到达v更近时,v的距离不是最短的
+	private static boolean stalled(int[] offsets, int[] vertex, double[] weight, Side side, int v, double dv, int epoch) {
+		for (int e = offsets[v]; e < offsets[v + 1]; e++)
+			if (side.dist(vertex[e], epoch) + weight[e] < dv) return true;
+		return false;
+	}
+
+	private void validateVertex(int v) {
+		if (v < 0 || v >= V)
+			throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (V-1));
+	}
+
+	public int V() {
+		return V;
+	}
+
+	/**
+	 * 返回索引中的边数(原图中保留的边加上捷径)
+	 */
+	public int arcs() {
+		return upTo.length + downFrom.length;
+	}
+
+	/**
+	 * 返回捷径的条数
+	 */
+	public int shortcuts() {
+		int count = 0;
+		for (int m : upMiddle)
+			if (m >= 0) count++;
+		for (int m : downMiddle)
+			if (m >= 0) count++;
+		return count;
+	}
+
+	/**
+	 * 返回预处理的毫秒数,从文件读入的索引返回0
+	 */
+	public long preprocessMillis() {
+		return preprocessMillis;
+	}
+
+	/**
+	 * 返回索引占用的字节数(不包括对象头和查询的工作区),和文件中的数据部分相同
+	 */
+	public long bytes() {
+		return 8L * (V + 1) + 16L * arcs();
+	}
+
+	/***************************************************************************
+	 *  读写索引
+	 ***************************************************************************/
+
+	/**
+	 * 以二进制格式写出索引
+	 */
+	public void write(Path path) throws IOException {
+		try (FileChannel ch = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			ByteBuffer buf = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+			buf.putInt(MAGIC).putInt(VERSION).putInt(V).putInt(upTo.length).putInt(downFrom.length).putInt(0);
+			for (int[] a : new int[][] { upOffsets, upTo, upMiddle })
+				GraphIO.writeInts(ch, buf, a);
+			GraphIO.writeDoubles(ch, buf, upWeight);
+			for (int[] a : new int[][] { downOffsets, downFrom, downMiddle })
+				GraphIO.writeInts(ch, buf, a);
+			GraphIO.writeDoubles(ch, buf, downWeight);
+			GraphIO.flush(ch, buf);
+		}
+	}
+
+	/**
+	 * 读取write()写出的索引
+	 * @throws IllegalArgumentException 如果文件头不正确或者文件长度和文件头不符
+	 */
+	public static ContractionHierarchy read(Path path) throws IOException {
+		try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+			ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+			while (header.hasRemaining())
+				if (ch.read(header) < 0) throw new IllegalArgumentException("truncated index file: " + path);
+			header.flip();
+			if (header.getInt() != MAGIC) throw new IllegalArgumentException("not a contraction hierarchy file: " + path);
+			int version = header.getInt();
+			if (version != VERSION) throw new IllegalArgumentException("unsupported index file version: " + version);
+			int V = header.getInt(), upE = header.getInt(), downE = header.getInt();
+			if (V < 0 || upE < 0 || downE < 0) throw new IllegalArgumentException("invalid index file header: " + path);
+			long expected = HEADER_BYTES + 8L * (V + 1) + 16L * upE + 16L * downE;
+			if (ch.size() != expected)
+				throw new IllegalArgumentException("index file has " + ch.size() + " bytes, expected " + expected);
+
+			int[] upOffsets = new int[V + 1], upTo = new int[upE], upMiddle = new int[upE];
+			double[] upWeight = new double[upE];
+			int[] downOffsets = new int[V + 1], downFrom = new int[downE], downMiddle = new int[downE];
+			double[] downWeight = new double[downE];
+			long pos = HEADER_BYTES;
+			pos = GraphIO.readInts(ch, pos, upOffsets);
+			pos = GraphIO.readInts(ch, pos, upTo);
+			pos = GraphIO.readInts(ch, pos, upMiddle);
+			pos = GraphIO.readDoubles(ch, pos, upWeight);
+			pos = GraphIO.readInts(ch, pos, downOffsets);
+			pos = GraphIO.readInts(ch, pos, downFrom);
+			pos = GraphIO.readInts(ch, pos, downMiddle);
+			GraphIO.readDoubles(ch, pos, downWeight);
+			if (upOffsets[V] != upE || downOffsets[V] != downE)
+				throw new IllegalArgumentException("inconsistent index file: " + path);
+			return new ContractionHierarchy(V, upOffsets, upTo, upMiddle, upWeight, downOffsets, downFrom, downMiddle, downWeight);
+		}
+	}
+
+	/**
+	 * 在类似道路网络的网格图上预处理(side*side个顶点,相邻的顶点之间有两个方向的边,权重相同,在[1, 100)之间均匀分布),
+	 * 报告预处理的时间,堆内存的增长,捷径数和索引的大小;
+	 * 把索引写入临时文件再读回,然后用随机的查询和PointToPointSP的双向Dijkstra算法比较延迟和取出的顶点数,并检查距离相同.
+	 * 用法: java ContractionHierarchy [side] [查询数]
+	 * */
+	public static void main(String[] args) throws IOException {
+		int side = args.length > 0 ? Integer.parseInt(args[0]) : 300;
+		int queries = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+		int V = side * side;
+		int E = 4 * side * (side - 1), m = 0;
+		int[] from = new int[E], to = new int[E];
+		double[] weight = new double[E];
+		for (int v = 0; v < V; v++) {
+			int[] neighbors = { v % side + 1 < side ? v + 1 : -1, v / side + 1 < side ? v + side : -1 };
+			for (int w : neighbors) {
+				if (w < 0) continue;
+				double length = StdRandom.uniform(1.0, 100.0);
+				from[m] = v; to[m] = w; weight[m++] = length;
+				from[m] = w; to[m] = v; weight[m++] = length;
+			}
+		}
+		CSREdgeWeightedDigraph G = CSREdgeWeightedDigraph.of(new EdgeList(V, from, to, weight, E));
+
+		Runtime runtime = Runtime.getRuntime();
+		System.gc();
+		long before = runtime.totalMemory() - runtime.freeMemory();
+		ContractionHierarchy built = new ContractionHierarchy(G);
+		System.gc();
+		long after = runtime.totalMemory() - runtime.freeMemory();
+		System.out.printf("V = %d, E = %d\n", V, E);
+		System.out.printf("preprocessing: %d ms, heap +%.1f MB, %d shortcuts, %d arcs, index %.1f MB (graph %.1f MB)\n",
+				built.preprocessMillis(), (after - before) / 1e6, built.shortcuts(), built.arcs(), built.bytes() / 1e6, G.bytes() / 1e6);
+
+		Path file = Files.createTempFile("ch", ".bin");
+		built.write(file);
+		ContractionHierarchy ch = ContractionHierarchy.read(file);
+		System.out.printf("index file: %d bytes\n", Files.size(file));
+		Files.delete(file);
+
+		PointToPointSP p2p = new PointToPointSP(G);
+		int[] s = new int[queries], t = new int[queries];
+		for (int q = 0; q < queries; q++) {
+			s[q] = StdRandom.uniform(V);
+			t[q] = StdRandom.uniform(V);
+			double expected = p2p.distance(s[q], t[q]);
+			double d = ch.distance(s[q], t[q]);
+			if (Math.abs(d - expected) > 1e-9 * Math.max(1.0, expected))
+				throw new AssertionError(s[q] + "->" + t[q] + ": " + d + " != " + expected);
+		}
+		System.out.printf("%-16s %12s %12s %12s %12s %12s\n", "query", "mean(us)", "p50(us)", "p99(us)", "max(us)", "settled");
+		double[] micros = new double[queries];
+		for (int round = 0; round < 2; round++) {
+			long settled = 0;
+			for (int q = 0; q < queries; q++) {
+				long t0 = System.nanoTime();
+				if (round == 0) p2p.distance(s[q], t[q]);
+				else            ch.distance(s[q], t[q]);
+				micros[q] = (System.nanoTime() - t0) / 1e3;
+				settled += round == 0 ? p2p.settled() : ch.settled();
+			}
+			PointToPointSP.report(round == 0 ? "BIDIRECTIONAL" : "CH", micros, (double) settled / queries);
+		}
+	}
+}
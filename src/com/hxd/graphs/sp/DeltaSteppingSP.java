@@ -0,0 +1,375 @@
+package com.hxd.graphs.sp;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import com.hxd.base.Parallel;
+import com.hxd.base.Stack;
+import com.hxd.graphs.EdgeList;
+import com.hxd.introcs.stdlib.StdRandom;
+
+/**
+ *	Delta-stepping并行单点最短路径(Meyer和Sanders),API和{@link DijkstraSP}相同:distTo(v),hasPathTo(v),pathTo(v).
+ *	边的权重必须非负.图用{@link CSREdgeWeightedDigraph}表示.
+ *	<p>
+ *	Dijkstra算法每次只能从优先队列中取出一个顶点,没有并行的余地.Delta-stepping把顶点按照当前的距离放进宽度为delta的桶中,
+ *	桶i中是距离在[i*delta, (i+1)*delta)中的顶点,按桶的编号从小到大处理:
+ *	<p>
+ *	1: 轻边(权重不超过delta)可能把顶点放回当前的桶,所以反复并行地放松当前桶中所有顶点的轻边,直到当前桶为空;
+ *	   每一轮的顶点分段交给ForkJoinPool,放松用CAS完成(distTo[]的元素用VarHandle按double比较并交换);
+ *	2: 重边(权重大于delta)只会把顶点放进后面的桶,所以当前桶处理完之后,对这个桶中出现过的所有顶点并行地放松一次重边;
+ *	3: 距离变小的顶点按照新的距离放进它的桶.桶中的旧项不删除,取出时距离已经不属于这个桶的顶点直接跳过.
+ *	   任何时候所有非空的桶都在当前桶之后的maxWeight/delta+1个桶之内,所以桶保存在一个循环数组中.
+ *	<p>
+ *	delta趋于0时就是Dijkstra算法,趋于无穷时就是Bellman-Ford算法;默认取最大权重除以平均出度.
+ *	<p>
+ *	并行放松时顶点的edgeTo[]可能和最终的distTo[]不一致,所以距离收敛之后再从s开始沿着紧的边(distTo[v] + w == distTo[w])
+ *	并行地做一次按层的广度优先搜索,得到最短路径树.
+ *	<p>
+ *	@author 候旭东 20261017
+ * */
+public class DeltaSteppingSP {
+	private static final VarHandle DIST = MethodHandles.arrayElementVarHandle(double[].class);
+	private static final VarHandle PARENT = MethodHandles.arrayElementVarHandle(int[].class);
+	// 一轮中的顶点少于它时在当前线程中处理
+	private static final int SEQUENTIAL_CUTOFF = 1 << 10;
+	private static final int MAX_BUCKETS = 1 << 22;
+
+	private final CSREdgeWeightedDigraph G;
+	private final int s;
+	private final double delta;
+	private final ForkJoinPool pool;
+	private final double[] distTo;		// distTo[v] = s到v的最短路径的长度
+	private final int[] parent;			// parent[v] = 最短路径树中v的父结点,未到达时为-1
+	private final int[] edgeTo;			// edgeTo[v] = 最短路径上最后一条边在G中的编号
+	private int buckets;				// 处理过的非空桶数
+	private int phases;					// 放松的轮数(轻边和重边)
+
+	/**
+	 * 把G转换为CSREdgeWeightedDigraph之后计算从s出发的最短路径树
+	 * @throws IllegalArgumentException if an edge weight is negative
+	 * @throws IllegalArgumentException unless {@code 0 <= s < V}
+	 */
+	public DeltaSteppingSP(EdgeWeightedDigraph G, int s) {
+		this(CSREdgeWeightedDigraph.of(G), s);
+	}
+
+	public DeltaSteppingSP(CSREdgeWeightedDigraph G, int s) {
+		this(G, s, defaultDelta(G), ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * @param G 加权有向图
+	 * @param s 起点
+	 * @param delta 桶的宽度
+	 * @param pool 运行任务的线程池
+	 * @throws IllegalArgumentException if an edge weight is negative
+	 * @throws IllegalArgumentException unless {@code 0 <= s < V}
+	 * @throws IllegalArgumentException 如果delta不是正数,或者小到需要超过2^22个桶
+	 */
+	public DeltaSteppingSP(CSREdgeWeightedDigraph G, int s, double delta, ForkJoinPool pool) {
+		if (!(delta > 0)) throw new IllegalArgumentException("delta must be positive: " + delta);
+		for (int e = 0; e < G.E(); e++)
+			if (G.weight(e) < 0)
+				throw new IllegalArgumentException("edge " + e + " has negative weight " + G.weight(e));
+		double slots = Math.floor(G.maxWeight() / delta) + 2;
+		if (slots > MAX_BUCKETS) throw new IllegalArgumentException("delta too small for maximum weight " + G.maxWeight() + ": " + delta);
+		this.G = G;
+		this.s = s;
+		this.delta = delta;
+		this.pool = pool;
+		distTo = new double[G.V()];
+		parent = new int[G.V()];
+		edgeTo = new int[G.V()];
+		validateVertex(s);
+		Arrays.fill(distTo, Double.POSITIVE_INFINITY);
+		Arrays.fill(parent, -1);
+		Arrays.fill(edgeTo, -1);
+		distTo[s] = 0.0;
+		run((int) slots);
+		tree();
+	}
+
+	/**
+	 * 默认的桶宽:最大权重除以平均出度,对于随机权重的图期望每个顶点在一个桶中被放松常数次
+	 */
+	public static double defaultDelta(CSREdgeWeightedDigraph G) {
+		double max = G.maxWeight();
+		if (max == 0) return 1.0;
+		double degree = G.V() == 0 ? 1 : Math.max(1.0, (double) G.E() / G.V());
+		return max / degree;
+	}
+
+	// 可以增长的int数组
+	private static final class IntList {
+		int[] a = new int[16];
+		int n;
+
+		void add(int x) {
+			if (n == a.length) a = Arrays.copyOf(a, 2 * n);
+			a[n++] = x;
+		}
+	}
+
+	private long bucketOf(double d) {
+		return (long) (d / delta);
+	}
+
+	private void run(int slots) {
+		int V = G.V();
+		IntList[] bucket = new IntList[slots];
+		for (int i = 0; i < slots; i++)
+			bucket[i] = new IntList();
+		int[] mark = new int[V];			// mark[v] = v最后一次被加入当前轮时的轮号
+		int[] settledMark = new int[V];		// settledMark[v] = v最后一次被加入S时的桶号(从1开始)
+		int round = 0, stamp = 0;
+		long pending = 1;					// 所有桶中的项数
+		bucket[0].add(s);
+
+		for (long current = 0; pending > 0; current++) {
+			IntList B = bucket[(int) (current % slots)];
+			if (B.n == 0) continue;
+			pending -= B.n;
+			buckets++;
+			stamp++;
+			round++;
+			IntList frontier = new IntList();
+			for (int i = 0; i < B.n; i++) {
+				int v = B.a[i];
+				if (bucketOf(distTo[v]) == current && mark[v] != round) {
+					mark[v] = round;
+					frontier.add(v);
+				}
+			}
+			B.n = 0;
+			IntList settled = new IntList();		// 这个桶中出现过的顶点
+			while (frontier.n > 0) {
+				for (int i = 0; i < frontier.n; i++) {
+					int v = frontier.a[i];
+					if (settledMark[v] != stamp) {
+						settledMark[v] = stamp;
+						settled.add(v);
+					}
+				}
+				IntList updated = relax(frontier, true);
+				phases++;
+				round++;
+				frontier = new IntList();
+				for (int i = 0; i < updated.n; i++) {
+					int v = updated.a[i];
+					long b = bucketOf(distTo[v]);
+					if (b == current) {
+						if (mark[v] != round) {
+							mark[v] = round;
+							frontier.add(v);
+						}
+					}
+					else {
+						bucket[(int) (b % slots)].add(v);
+						pending++;
+					}
+				}
+			}
+			IntList updated = relax(settled, false);
+			phases++;
+			for (int i = 0; i < updated.n; i++) {
+				int v = updated.a[i];
+				bucket[(int) (bucketOf(distTo[v]) % slots)].add(v);
+				pending++;
+			}
+		}
+	}
+
+	// 放松vertices中所有顶点的轻边(light为true)或重边,返回距离变小的顶点(可能重复)
+	private IntList relax(IntList vertices, boolean light) {
+		int n = vertices.n;
+		int P = chunks(n);
+		IntList[] out = new IntList[P];
+		Parallel.forEach(pool, P, c -> {
+			int lo = (int) ((long) n * c / P), hi = (int) ((long) n * (c + 1) / P);
+			IntList updated = new IntList();
+			for (int i = lo; i < hi; i++) {
+				int v = vertices.a[i];
+				double dv = (double) DIST.getVolatile(distTo, v);
+				for (int e = G.begin(v), end = G.end(v); e < end; e++) {
+					double weight = G.weight(e);
+					if ((weight <= delta) != light) continue;
+					int w = G.to(e);
+					if (decrease(w, dv + weight)) updated.add(w);
+				}
+			}
+			out[c] = updated;
+		});
+		if (P == 1) return out[0];
+		IntList all = new IntList();
+		for (IntList list : out)
+			for (int i = 0; i < list.n; i++)
+				all.add(list.a[i]);
+		return all;
+	}
+
+	// 用CAS把distTo[w]改为d,只有d更小时才修改
+	private boolean decrease(int w, double d) {
+		double current = (double) DIST.getVolatile(distTo, w);
+		while (d < current) {
+			if (DIST.weakCompareAndSet(distTo, w, current, d)) return true;
+			current = (double) DIST.getVolatile(distTo, w);
+		}
+		return false;
+	}
+
+	// 沿着紧的边从s开始按层并行搜索,每个顶点用CAS认领第一个到达它的父结点
+	private void tree() {
+		parent[s] = s;
+		int[] frontier = { s };
+		int nf = 1;
+		while (nf > 0) {
+			int n = nf;
+			int[] current = frontier;
+			int P = chunks(n);
+			IntList[] out = new IntList[P];
+			Parallel.forEach(pool, P, c -> {
+				int lo = (int) ((long) n * c / P), hi = (int) ((long) n * (c + 1) / P);
+				IntList next = new IntList();
+				for (int i = lo; i < hi; i++) {
+					int v = current[i];
+					for (int e = G.begin(v), end = G.end(v); e < end; e++) {
+						int w = G.to(e);
+						if (distTo[v] + G.weight(e) == distTo[w] && (int) PARENT.getOpaque(parent, w) == -1
+								&& PARENT.compareAndSet(parent, w, -1, v)) {
+							edgeTo[w] = e;
+							next.add(w);
+						}
+					}
+				}
+				out[c] = next;
+			});
+			nf = 0;
+			for (IntList list : out)
+				nf += list.n;
+			frontier = new int[nf];
+			int k = 0;
+			for (IntList list : out) {
+				System.arraycopy(list.a, 0, frontier, k, list.n);
+				k += list.n;
+			}
+		}
+	}
+
+	private int chunks(int n) {
+		if (n < SEQUENTIAL_CUTOFF) return 1;
+		return Math.max(1, Math.min(4 * pool.getParallelism(), n / (SEQUENTIAL_CUTOFF / 4)));
+	}
+
+	/**
+	 * Returns the length of a shortest path from the source vertex {@code s} to vertex {@code v}.
+	 * @return {@code Double.POSITIVE_INFINITY} if no such path
+	 * @throws IllegalArgumentException unless {@code 0 <= v < V}
+	 */
+	public double distTo(int v) {
+		validateVertex(v);
+		return distTo[v];
+	}
+
+	/**
+	 * Returns true if there is a path from the source vertex {@code s} to vertex {@code v}.
+	 * @throws IllegalArgumentException unless {@code 0 <= v < V}
+	 */
+	public boolean hasPathTo(int v) {
+		validateVertex(v);
+		return distTo[v] < Double.POSITIVE_INFINITY;
+	}
+
+	/**
+	 * Returns a shortest path from the source vertex {@code s} to vertex {@code v}.
+	 * @return a shortest path as an iterable of edges, and {@code null} if no such path
+	 * @throws IllegalArgumentException unless {@code 0 <= v < V}
+	 */
+	public Iterable<DirectedEdge> pathTo(int v) {
+		validateVertex(v);
+		if (!hasPathTo(v))	return null;
+		Stack<DirectedEdge> path = new Stack<DirectedEdge>();
+		for (int x = v; x != s; x = parent[x])
+			path.push(G.edge(parent[x], edgeTo[x]));
+		return path;
+	}
+
+	/**
+	 * @return 桶的宽度
+	 */
+	public double delta() {
+		return delta;
+	}
+
+	/**
+	 * @return 处理过的非空桶数
+	 */
+	public int buckets() {
+		return buckets;
+	}
+
+	/**
+	 * @return 并行放松的轮数,每一轮之间需要同步一次
+	 */
+	public int phases() {
+		return phases;
+	}
+
+	private void validateVertex(int v) {
+		int V = distTo.length;
+		if (v < 0 || v >= V)
+			throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (V-1));
+	}
+
+	/**
+	 * 在类似道路网络的网格图上和DijkstraSP比较:side*side个顶点,每个顶点和上下左右的邻居之间各有一条有向边,
+	 * 权重在[1, 100)之间均匀分布,每种规模运行3次,检查两者的距离是否相同.
+	 * EdgeWeightedDigraph每条边要占用约60字节,边数超过dijkstraLimit时只运行DeltaSteppingSP.
+	 * 用法: java DeltaSteppingSP [边数列表] [dijkstraLimit]
+	 *   例如 java -Xmx24g DeltaSteppingSP 1000000,10000000,100000000 20000000
+	 * */
+	public static void main(String[] args) {
+		String[] sizes = (args.length > 0 ? args[0] : "1000000,4000000").split(",");
+		long dijkstraLimit = args.length > 1 ? Long.parseLong(args[1]) : 20000000L;
+		System.out.printf("%12s %10s %14s %14s %8s %8s\n", "edges", "vertices", "Dijkstra(ms)", "delta(ms)", "buckets", "phases");
+		for (String size : sizes) {
+			long target = Long.parseLong(size.trim());
+			int side = (int) Math.sqrt(target / 4.0);
+			int V = side * side;
+			int E = 4 * side * (side - 1);
+			int[] from = new int[E], to = new int[E];
+			double[] weight = new double[E];
+			int m = 0;
+			for (int v = 0; v < V; v++) {
+				int row = v / side, col = v % side;
+				if (col + 1 < side) { from[m] = v; to[m] = v + 1; weight[m++] = StdRandom.uniform(1.0, 100.0);
+				                      from[m] = v + 1; to[m] = v; weight[m++] = StdRandom.uniform(1.0, 100.0); }
+				if (row + 1 < side) { from[m] = v; to[m] = v + side; weight[m++] = StdRandom.uniform(1.0, 100.0);
+				                      from[m] = v + side; to[m] = v; weight[m++] = StdRandom.uniform(1.0, 100.0); }
+			}
+			EdgeList edges = new EdgeList(V, from, to, weight, E);
+			CSREdgeWeightedDigraph csr = CSREdgeWeightedDigraph.of(edges);
+			EdgeWeightedDigraph G = E <= dijkstraLimit ? edges.toEdgeWeightedDigraph() : null;
+			for (int trial = 0; trial < 3; trial++) {
+				int s = StdRandom.uniform(V);
+				double dijkstraMillis = Double.NaN;
+				DijkstraSP dijkstra = null;
+				if (G != null) {
+					long t0 = System.nanoTime();
+					dijkstra = new DijkstraSP(G, s);
+					dijkstraMillis = (System.nanoTime() - t0) / 1e6;
+				}
+				long t1 = System.nanoTime();
+				DeltaSteppingSP sp = new DeltaSteppingSP(csr, s);
+				double deltaMillis = (System.nanoTime() - t1) / 1e6;
+				if (dijkstra != null)
+					for (int v = 0; v < V; v++)
+						if (dijkstra.distTo(v) != sp.distTo(v))
+							throw new AssertionError("distTo(" + v + "): " + dijkstra.distTo(v) + " != " + sp.distTo(v));
+				System.out.printf("%12d %10d %14.1f %14.1f %8d %8d\n", E, V, dijkstraMillis, deltaMillis, sp.buckets(), sp.phases());
+			}
+		}
+	}
+}
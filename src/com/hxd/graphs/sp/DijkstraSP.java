@@ -5,7 +5,7 @@ import java.nio.file.FileSystemNotFoundException;
 
 import com.hxd.base.Stack;
 import com.hxd.introcs.stdlib.In;
-import com.hxd.sort.priorityQueue.IndexMinPQ;
+import com.hxd.sort.priorityQueue.IndexMinDoublePQ;
 
 /**
  * {@code DijkstraSP}类表示用于求解加权有向图中的单点最短路径问题的数据类型，其中边缘权重是非负的。 这个实现使用
@@ -32,7 +32,7 @@ import com.hxd.sort.priorityQueue.IndexMinPQ;
 public class DijkstraSP {
 	private double[] distTo;			// distTo[v] = distance  of shortest s->v path
 	private DirectedEdge[] edgeTo;		// edgeTo[v] = last edge on shortest s->v path
-	private IndexMinPQ<Double> pq;		// priority queue of vertices
+	private IndexMinDoublePQ pq;		// priority queue of vertices
 	
 	/**
      * Computes a shortest-paths tree from the source vertex {@code s} to every other
@@ -44,6 +44,16 @@ public class DijkstraSP {
      * @throws IllegalArgumentException unless {@code 0 <= s < V}
      */
 	public DijkstraSP(EdgeWeightedDigraph G, int s) {
+		this(G, s, 4);
+	}
+	
+	/**
+	 * 使用d叉堆的优先队列{@link IndexMinDoublePQ},d = 2时就是二叉堆
+	 * @param  d the arity of the heap, a power of 2
+	 * @throws IllegalArgumentException if an edge weight is negative
+	 * @throws IllegalArgumentException unless {@code 0 <= s < V}
+	 */
+	public DijkstraSP(EdgeWeightedDigraph G, int s, int d) {
 		for (DirectedEdge e : G.edges()) 
 			if (e.weight() < 0)
 				throw new IllegalArgumentException("edge " + e + " has negative weight");
@@ -59,7 +69,7 @@ public class DijkstraSP {
 		/**
 		 * 优先队列  保存一个点能够到达的点 和权重  队列中 权重最小的会排在最前面
 		 * */
-		pq = new IndexMinPQ<>(G.V());
+		pq = new IndexMinDoublePQ(G.V(), d);
 		pq.insert(s, distTo[s]);
 		
 		/**
@@ -7,7 +7,7 @@ import com.hxd.base.Stack;
 import com.hxd.graphs.mst.Edge;
 import com.hxd.graphs.mst.EdgeWeightedGraph;
 import com.hxd.introcs.stdlib.In;
-import com.hxd.sort.priorityQueue.IndexMinPQ;
+import com.hxd.sort.priorityQueue.IndexMinDoublePQ;
 
 /**
  * 使用Dijkstra算法解决非负权重的无向图中单源最短路径问题。
@@ -21,7 +21,7 @@ import com.hxd.sort.priorityQueue.IndexMinPQ;
 public class DijkstraUndirectedSP {
 	private double[] distTo;		// distTo[v] = distance  of shortest s->v path
 	private Edge[] edgeTo;			// edgeTo[v] = last edge on shortest s->v path
-	private IndexMinPQ<Double> pq;	// priority queue of vertices
+	private IndexMinDoublePQ pq;	// priority queue of vertices
 	
 	/**
      * Computes a shortest-paths tree from the source vertex {@code s} to every
@@ -33,6 +33,16 @@ public class DijkstraUndirectedSP {
      * @throws IllegalArgumentException unless {@code 0 <= s < V}
      */
 	public DijkstraUndirectedSP(EdgeWeightedGraph G, int s) {
+		this(G, s, 4);
+	}
+	
+	/**
+	 * 使用d叉堆的优先队列{@link IndexMinDoublePQ},d = 2时就是二叉堆
+	 * @param  d the arity of the heap, a power of 2
+	 * @throws IllegalArgumentException if an edge weight is negative
+	 * @throws IllegalArgumentException unless {@code 0 <= s < V}
+	 */
+	public DijkstraUndirectedSP(EdgeWeightedGraph G, int s, int d) {
 		for (Edge e : G.edges()) {
 			if (e.weight() < 0)
                 throw new IllegalArgumentException("edge " + e + " has negative weight");
@@ -46,7 +56,7 @@ public class DijkstraUndirectedSP {
 		for (int v = 0; v < G.V(); v++)
 			distTo[v] = Double.POSITIVE_INFINITY;
 		distTo[s] = 0.0;
-		pq = new IndexMinPQ<Double>(G.V());
+		pq = new IndexMinDoublePQ(G.V(), d);
 		pq.insert(s, distTo[s]);
 		while (!pq.isEmpty()) {
 			int v = pq.delMin();
@@ -0,0 +1,199 @@
+package com.hxd.graphs.sp;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ *	保存在文件中的V*V距离矩阵,通过内存映射读写,矩阵的大小不受堆的限制(V = 100000时是80GB).
+ *	<p>
+ *	矩阵按tile*tile的块保存:块按行优先的顺序排列,块内的元素也按行优先排列,边缘上不满的块按完整的块占用空间.
+ *	按行访问时一行只涉及V/tile个块,按块访问(分块的Floyd-Warshall算法,或者只读取一部分顶点之间的距离)时
+ *	一个块是文件中连续的tile*tile*8个字节,比按行保存的矩阵读取的页少得多.
+ *	文件按段映射,每段最多1GB并且包含整数个块,所以一个块不会跨越两段.格式(小端):
+ *	<pre>
+ *	int magic "HXDM", int version, int V, int tile
+ *	double[ceil(V/tile)^2 * tile*tile] 块
+ *	</pre>
+ *	不同的线程可以同时读写不同的元素(例如AllPairsSP中每个起点的Dijkstra任务写自己的一行),
+ *	写入的数据在force()或close()之后保证写回文件.
+ *	<p>
+ *	@author 候旭东 20261017
+ * */
+public class DistanceMatrix implements Closeable {
+	private static final int MAGIC = 0x4858444D;		// "HXDM"
+	private static final int VERSION = 1;
+	private static final int HEADER_BYTES = 16;
+	private static final long MAX_MAP = 1L << 30;		// 每段映射的最大字节数
+	public static final int DEFAULT_TILE = 64;
+
+	private final FileChannel ch;
+	private final int V;
+	private final int tile;
+	private final int tiles;				// 每行的块数
+	private final int tilesPerSegment;
+	private final MappedByteBuffer[] maps;
+	private final DoubleBuffer[] segments;
+
+	private DistanceMatrix(FileChannel ch, int V, int tile, boolean writable) throws IOException {
+		this.ch = ch;
+		this.V = V;
+		this.tile = tile;
+		this.tiles = (V + tile - 1) / tile;
+		long tileBytes = 8L * tile * tile;
+		this.tilesPerSegment = (int) Math.max(1, MAX_MAP / tileBytes);
+		long total = (long) tiles * tiles;
+		int n = (int) ((total + tilesPerSegment - 1) / tilesPerSegment);
+		maps = new MappedByteBuffer[n];
+		segments = new DoubleBuffer[n];
+		FileChannel.MapMode mode = writable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY;
+		for (int s = 0; s < n; s++) {
+			long count = Math.min(tilesPerSegment, total - (long) s * tilesPerSegment);
+			maps[s] = ch.map(mode, HEADER_BYTES + (long) s * tilesPerSegment * tileBytes, count * tileBytes);
+			segments[s] = maps[s].order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+		}
+	}
+
+	/**
+	 * 创建V*V的矩阵文件,所有元素初始化为value(通常是Double.POSITIVE_INFINITY)
+	 * @throws IllegalArgumentException if {@code V < 0} or {@code tile < 1}
+	 */
+	public static DistanceMatrix create(Path path, int V, int tile, double value) throws IOException {
+		if (V < 0) throw new IllegalArgumentException("number of vertices must be nonnegative: " + V);
+		if (tile < 1 || (long) tile * tile * 8 > MAX_MAP) throw new IllegalArgumentException("invalid tile size: " + tile);
+		FileChannel ch = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING);
+		try {
+			ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+			header.putInt(MAGIC).putInt(VERSION).putInt(V).putInt(tile).flip();
+			while (header.hasRemaining())
+				ch.write(header, header.position());
+			DistanceMatrix M = new DistanceMatrix(ch, V, tile, true);
+			if (value != 0.0) M.fill(value);		// 新映射的区域是0
+			return M;
+		} catch (IOException | RuntimeException e) {
+			ch.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * 打开create()创建的矩阵文件
+	 * @param writable 是否可以修改
+	 * @throws IllegalArgumentException 如果文件头不正确或者文件长度和文件头不符
+	 */
+	public static DistanceMatrix open(Path path, boolean writable) throws IOException {
+		FileChannel ch = writable ? FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)
+		                          : FileChannel.open(path, StandardOpenOption.READ);
+		try {
+			ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+			while (header.hasRemaining())
+				if (ch.read(header) < 0) throw new IllegalArgumentException("truncated matrix file: " + path);
+			header.flip();
+			if (header.getInt() != MAGIC) throw new IllegalArgumentException("not a distance matrix file: " + path);
+			int version = header.getInt();
+			if (version != VERSION) throw new IllegalArgumentException("unsupported matrix file version: " + version);
+			int V = header.getInt(), tile = header.getInt();
+			if (V < 0 || tile < 1 || (long) tile * tile * 8 > MAX_MAP) throw new IllegalArgumentException("invalid matrix file header: " + path);
+			long tiles = (V + tile - 1) / tile;
+			long expected = HEADER_BYTES + tiles * tiles * tile * tile * 8;
+			if (ch.size() != expected)
+				throw new IllegalArgumentException("matrix file has " + ch.size() + " bytes, expected " + expected);
+			return new DistanceMatrix(ch, V, tile, writable);
+		} catch (IOException | RuntimeException e) {
+			ch.close();
+			throw e;
+		}
+	}
+
+	public int V() {
+		return V;
+	}
+
+	public int tile() {
+		return tile;
+	}
+
+	// 元素(i, j)在段中的下标,段号在高32位
+	private long locate(int i, int j) {
+		long t = (long) (i / tile) * tiles + j / tile;
+		int s = (int) (t / tilesPerSegment);
+		long index = (t % tilesPerSegment) * tile * tile + (long) (i % tile) * tile + j % tile;
+		return ((long) s << 32) | index;
+	}
+
+	/**
+	 * @throws IllegalArgumentException unless {@code 0 <= i, j < V}
+	 */
+	public double get(int i, int j) {
+		validate(i);
+		validate(j);
+		long p = locate(i, j);
+		return segments[(int) (p >>> 32)].get((int) p);
+	}
+
+	/**
+	 * @throws IllegalArgumentException unless {@code 0 <= i, j < V}
+	 */
+	public void set(int i, int j, double d) {
+		validate(i);
+		validate(j);
+		long p = locate(i, j);
+		segments[(int) (p >>> 32)].put((int) p, d);
+	}
+
+	/**
+	 * 把第i行读入row[0..V-1],每个块中的一段整段复制
+	 */
+	public void readRow(int i, double[] row) {
+		validate(i);
+		for (int j = 0; j < V; j += tile) {
+			long p = locate(i, j);
+			segments[(int) (p >>> 32)].get((int) p, row, j, Math.min(tile, V - j));
+		}
+	}
+
+	/**
+	 * 用row[0..V-1]替换第i行
+	 */
+	public void writeRow(int i, double[] row) {
+		validate(i);
+		for (int j = 0; j < V; j += tile) {
+			long p = locate(i, j);
+			segments[(int) (p >>> 32)].put((int) p, row, j, Math.min(tile, V - j));
+		}
+	}
+
+	private void fill(double value) {
+		double[] row = new double[V];
+		Arrays.fill(row, value);
+		for (int i = 0; i < V; i++)
+			writeRow(i, row);
+	}
+
+	private void validate(int v) {
+		if (v < 0 || v >= V)
+			throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (V-1));
+	}
+
+	/**
+	 * 把修改过的页写回文件
+	 */
+	public void force() {
+		for (MappedByteBuffer map : maps)
+			if (!map.isReadOnly()) map.force();
+	}
+
+	@Override
+	public void close() throws IOException {
+		force();
+		ch.close();
+	}
+}
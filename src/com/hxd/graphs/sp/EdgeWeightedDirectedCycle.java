@@ -2,6 +2,7 @@ package com.hxd.graphs.sp;
 
 import java.io.File;
 import java.nio.file.FileSystemNotFoundException;
+import java.util.Iterator;
 
 import com.hxd.base.Stack;
 import com.hxd.graphs.directedGraphs.Topological;
@@ -26,20 +27,41 @@ public class EdgeWeightedDirectedCycle {
 		marked = new boolean[G.V()];
 		onStack = new boolean[G.V()];
 		edgeTo = new DirectedEdge[G.V()];
+		int[] stack = new int[G.V()];
+		@SuppressWarnings("unchecked")
+		Iterator<DirectedEdge>[] adj = (Iterator<DirectedEdge>[]) new Iterator<?>[G.V()];
 		for (int v = 0; v < G.V(); v++)
-			if (!marked[v]) dfs(G, v);
+			if (!marked[v] && cycle == null)
+				dfs(G, v, stack, adj);
 		assert check();
 	}
 	
-	private void dfs(EdgeWeightedDigraph G, int v) {
-		onStack[v] = true;
-		marked[v] = true;
-		for (DirectedEdge e : G.adj(v)) {
+	/**
+	 * 和{@link com.hxd.graphs.directedGraphs.DirectedCycle}一样用显式的栈代替递归:stack[]中的顶点
+	 * 就是onStack[]为true的顶点,adj[v]记录v的邻接表已经遍历到哪里
+	 * */
+	private void dfs(EdgeWeightedDigraph G, int s, int[] stack, Iterator<DirectedEdge>[] adj) {
+		int top = 0;
+		onStack[s] = true;
+		marked[s] = true;
+		adj[s] = G.adj(s).iterator();
+		stack[top++] = s;
+		while (top > 0 && cycle == null) {
+			int v = stack[top - 1];
+			if (!adj[v].hasNext()) {
+				adj[v] = null;
+				onStack[v] = false;
+				top--;
+				continue;
+			}
+			DirectedEdge e = adj[v].next();
 			int w = e.to();
-			if (cycle != null)	return;
-			else if (!marked[w]) {
+			if (!marked[w]) {
 				edgeTo[w] = e;
-				dfs(G, w);
+				onStack[w] = true;
+				marked[w] = true;
+				adj[w] = G.adj(w).iterator();
+				stack[top++] = w;
 			}
 			else if (onStack[w]) {
 				cycle = new Stack<DirectedEdge>();
@@ -49,10 +71,8 @@ public class EdgeWeightedDirectedCycle {
 					f = edgeTo[f.from()];
 				}
 				cycle.push(f);
-				return;
 			}
 		}
-		onStack[v] = false;
 	}
 
 	public boolean hasCycle() {
@@ -0,0 +1,38 @@
+package com.hxd.graphs.sp;
+
+/**
+ *	A*搜索使用的启发函数:estimate(v, t)是从v到t的最短路径长度的下界.
+ *	<p>
+ *	估计值不能超过真实的距离(可采纳的),否则{@link PointToPointSP}返回的路径可能不是最短的;
+ *	如果对每条边v-&gt;w都有estimate(v, t) &lt;= weight + estimate(w, t)(一致的),每个顶点只会被取出一次.
+ *	估计值越接近真实的距离,A*需要访问的顶点就越少;ZERO等价于Dijkstra算法.
+ *	<p>
+ *	@author 候旭东 20261017
+ * */
+public interface Heuristic {
+	/**
+	 * 返回从v到t的最短路径长度的下界
+	 */
+	double estimate(int v, int t);
+
+	/**
+	 * 总是返回0
+	 */
+	Heuristic ZERO = (v, t) -> 0.0;
+
+	/**
+	 * 平面坐标的直线距离乘以scale.边的权重不小于它的两个端点之间的直线距离乘以scale时(例如道路的长度,
+	 * 或者长度除以最高速度得到的时间,这时scale = 1/最高速度),这个函数是一致的
+	 * @param x x[v] = 顶点v的横坐标
+	 * @param y y[v] = 顶点v的纵坐标
+	 * @param scale 每单位直线距离对应的最小权重
+	 */
+	static Heuristic euclidean(double[] x, double[] y, double scale) {
+		if (x.length != y.length) throw new IllegalArgumentException("coordinate arrays differ in length");
+		if (!(scale >= 0)) throw new IllegalArgumentException("scale must be nonnegative: " + scale);
+		return (v, t) -> {
+			double dx = x[v] - x[t], dy = y[v] - y[t];
+			return scale * Math.sqrt(dx * dx + dy * dy);
+		};
+	}
+}
@@ -0,0 +1,337 @@
+package com.hxd.graphs.sp;
+
+import java.util.Arrays;
+
+import com.hxd.base.Queue;
+import com.hxd.base.Stack;
+import com.hxd.graphs.EdgeList;
+import com.hxd.introcs.stdlib.StdRandom;
+import com.hxd.sort.priorityQueue.IndexMinDoublePQ;
+
+/**
+ *	点对点的最短路径查询:DijkstraSP对每个起点都要计算整棵最短路径树,而大多数查询只关心一个终点.
+ *	三种算法都在找到终点的最短路径时立即结束:
+ *	<p>
+ *	DIJKSTRA      Dijkstra算法,终点从优先队列中取出时结束,访问的是距离不超过dist(s, t)的所有顶点;
+ *	BIDIRECTIONAL 从s在原图上,从t在反向图上同时运行Dijkstra算法,每次推进队首键较小的一边.放松一条边时
+ *	              如果另一边已经到达这条边的终点,用两边的距离之和更新当前最短的s-t路径mu;
+ *	              两个队首键之和不小于mu时结束,两边各自只需要扫描半径约为dist(s, t)/2的范围;
+ *	ASTAR         A*搜索,优先队列的键是distTo[v] + h(v, t),h是{@link Heuristic},终点取出时结束.
+ *	              h是可采纳的时候结果是最短路径;h越接近真实距离,搜索越集中在s到t的方向上.
+ *	<p>
+ *	查询使用的数组(距离,父结点,优先队列)保存在每个线程自己的工作区中,第一次查询时分配,之后重复使用,
+ *	每次查询不再分配和清空O(V)的数组:每个顶点带有一个版本号,版本号等于当前查询的编号时它的距离才有效,
+ *	优先队列在查询结束时用clear()只清除剩下的元素.所以同一个对象可以被多个线程同时查询.
+ *	<p>
+ *	边的权重必须非负.图用{@link CSREdgeWeightedDigraph}表示,反向图在构造时计算.
+ *	<p>
+ *	@author 候旭东 20261017
+ * */
+public class PointToPointSP {
+	public enum Algorithm { DIJKSTRA, BIDIRECTIONAL, ASTAR }
+
+	private final CSREdgeWeightedDigraph G;
+	private final CSREdgeWeightedDigraph R;		// 反向图
+	private final Heuristic h;
+	private final ThreadLocal<Workspace> workspace;
+
+	/**
+	 * 把G转换为CSREdgeWeightedDigraph,不使用启发函数
+	 * @throws IllegalArgumentException if an edge weight is negative
+	 */
+	public PointToPointSP(EdgeWeightedDigraph G) {
+		this(CSREdgeWeightedDigraph.of(G), null);
+	}
+
+	public PointToPointSP(CSREdgeWeightedDigraph G) {
+		this(G, null);
+	}
+
+	/**
+	 * @param G 加权有向图
+	 * @param h A*使用的启发函数,为null时distance(s, t)默认使用双向Dijkstra算法
+	 * @throws IllegalArgumentException if an edge weight is negative
+	 */
+	public PointToPointSP(CSREdgeWeightedDigraph G, Heuristic h) {
+		for (int e = 0; e < G.E(); e++)
+			if (G.weight(e) < 0)
+				throw new IllegalArgumentException("edge " + e + " has negative weight " + G.weight(e));
+		this.G = G;
+		this.R = G.reverse();
+		this.h = h;
+		this.workspace = ThreadLocal.withInitial(() -> new Workspace(G.V()));
+	}
+
+	/**
+	 * 一个线程的查询状态,两个方向各有一组数组
+	 */
+	static final class Workspace {
+		final Side forward, backward;
+		int epoch;			// 当前查询的编号
+		int settled;		// 当前查询从优先队列中取出的顶点数
+		int meet;			// 双向搜索的相遇点,A*和Dijkstra中是终点
+
+		Workspace(int V) {
+			forward = new Side(V);
+			backward = new Side(V);
+		}
+
+		void begin() {
+			if (++epoch == Integer.MAX_VALUE) {
+				Arrays.fill(forward.stamp, 0);
+				Arrays.fill(backward.stamp, 0);
+				epoch = 1;
+			}
+			settled = 0;
+			meet = -1;
+		}
+	}
+
+	static final class Side {
+		final double[] distTo;		// stamp[v] == epoch时有效
+		final int[] stamp;
+		final int[] parent;			// 搜索树中v的父结点
+		final int[] edgeTo;			// 到达v的边在这一边的图中的编号
+		final IndexMinDoublePQ pq;
+
+		Side(int V) {
+			distTo = new double[V];
+			stamp = new int[V];
+			parent = new int[V];
+			edgeTo = new int[V];
+			pq = new IndexMinDoublePQ(V);
+		}
+
+		double dist(int v, int epoch) {
+			return stamp[v] == epoch ? distTo[v] : Double.POSITIVE_INFINITY;
+		}
+
+		void set(int v, double d, int p, int e, int epoch) {
+			distTo[v] = d;
+			stamp[v] = epoch;
+			parent[v] = p;
+			edgeTo[v] = e;
+		}
+
+		// 找到了到w的更短的路径时更新w,并以d为键放入优先队列
+		void relax(int w, double d, int p, int e, int epoch) {
+			if (!(d < dist(w, epoch))) return;
+			set(w, d, p, e, epoch);
+			if (pq.contains(w)) pq.decreaseKey(w, d);
+			else                pq.insert(w, d);
+		}
+	}
+
+	/**
+	 * 返回从s到t的最短路径的长度,有启发函数时使用A*,否则使用双向Dijkstra算法
+	 * @return {@code Double.POSITIVE_INFINITY} if no such path
+	 * @throws IllegalArgumentException unless {@code 0 <= s < V} and {@code 0 <= t < V}
+	 */
+	public double distance(int s, int t) {
+		return distance(s, t, defaultAlgorithm());
+	}
+
+	public double distance(int s, int t, Algorithm algorithm) {
+		Workspace ws = workspace.get();
+		return search(ws, s, t, algorithm);
+	}
+
+	/**
+	 * 返回从s到t的一条最短路径
+	 * @return a shortest path as an iterable of edges, and {@code null} if no such path
+	 * @throws IllegalArgumentException unless {@code 0 <= s < V} and {@code 0 <= t < V}
+	 */
+	public Iterable<DirectedEdge> path(int s, int t) {
+		return path(s, t, defaultAlgorithm());
+	}
+
+	public Iterable<DirectedEdge> path(int s, int t, Algorithm algorithm) {
+		Workspace ws = workspace.get();
+		if (search(ws, s, t, algorithm) == Double.POSITIVE_INFINITY) return null;
+		// s到相遇点的边在正向的搜索树中,相遇点到t的边在反向的搜索树中
+		Stack<DirectedEdge> head = new Stack<DirectedEdge>();
+		for (int x = ws.meet; x != s; x = ws.forward.parent[x])
+			head.push(G.edge(ws.forward.parent[x], ws.forward.edgeTo[x]));
+		Queue<DirectedEdge> path = new Queue<DirectedEdge>();
+		for (DirectedEdge e : head)
+			path.enqueue(e);
+		if (algorithm == Algorithm.BIDIRECTIONAL)
+			for (int x = ws.meet; x != t; x = ws.backward.parent[x])
+				path.enqueue(new DirectedEdge(x, ws.backward.parent[x], R.weight(ws.backward.edgeTo[x])));
+		return path;
+	}
+
+	/**
+	 * 返回当前线程上一次查询从优先队列中取出的顶点数
+	 */
+	public int settled() {
+		return workspace.get().settled;
+	}
+
+	private Algorithm defaultAlgorithm() {
+		return h == null ? Algorithm.BIDIRECTIONAL : Algorithm.ASTAR;
+	}
+
+	private double search(Workspace ws, int s, int t, Algorithm algorithm) {
+		validateVertex(s);
+		validateVertex(t);
+		ws.begin();
+		try {
+			switch (algorithm) {
+			case BIDIRECTIONAL: return bidirectional(ws, s, t);
+			case ASTAR:         return astar(ws, s, t, h == null ? Heuristic.ZERO : h);
+			default:            return astar(ws, s, t, Heuristic.ZERO);
+			}
+		} finally {
+			ws.forward.pq.clear();
+			ws.backward.pq.clear();
+		}
+	}
+
+	// 优先队列的键是distTo[v] + h(v, t),和DijkstraSP一样允许顶点重新进入队列,所以不一致的启发函数也能得到最短路径
+	private double astar(Workspace ws, int s, int t, Heuristic h) {
+		Side f = ws.forward;
+		int epoch = ws.epoch;
+		f.set(s, 0.0, -1, -1, epoch);
+		f.pq.insert(s, h.estimate(s, t));
+		while (!f.pq.isEmpty()) {
+			int v = f.pq.delMin();
+			ws.settled++;
+			if (v == t) {
+				ws.meet = t;
+				return f.distTo[t];
+			}
+			double dv = f.distTo[v];
+			for (int e = G.begin(v), end = G.end(v); e < end; e++) {
+				int w = G.to(e);
+				double d = dv + G.weight(e);
+				if (d < f.dist(w, epoch)) {
+					f.set(w, d, v, e, epoch);
+					double key = d + h.estimate(w, t);
+					if (f.pq.contains(w)) f.pq.changeKey(w, key);
+					else                  f.pq.insert(w, key);
+				}
+			}
+		}
+		return Double.POSITIVE_INFINITY;
+	}
+
+	private double bidirectional(Workspace ws, int s, int t) {
+		Side f = ws.forward, b = ws.backward;
+		int epoch = ws.epoch;
+		f.set(s, 0.0, -1, -1, epoch);
+		b.set(t, 0.0, -1, -1, epoch);
+		f.pq.insert(s, 0.0);
+		b.pq.insert(t, 0.0);
+		double mu = Double.POSITIVE_INFINITY;
+		if (s == t) {
+			ws.meet = s;
+			mu = 0.0;
+		}
+		while (!f.pq.isEmpty() && !b.pq.isEmpty()) {
+			double fMin = f.pq.minKey(), bMin = b.pq.minKey();
+			if (fMin + bMin >= mu) break;
+			boolean forward = fMin <= bMin;
+			Side side = forward ? f : b, other = forward ? b : f;
+			CSREdgeWeightedDigraph graph = forward ? G : R;
+			int v = side.pq.delMin();
+			ws.settled++;
+			double dv = side.distTo[v];
+			for (int e = graph.begin(v), end = graph.end(v); e < end; e++) {
+				int w = graph.to(e);
+				double d = dv + graph.weight(e);
+				side.relax(w, d, v, e, epoch);
+				// w已经被另一边到达,经过v->w的路径是一条候选的s-t路径
+				double through = side.dist(w, epoch) + other.dist(w, epoch);
+				if (through < mu) {
+					mu = through;
+					ws.meet = w;
+				}
+			}
+		}
+		return mu;
+	}
+
+	private void validateVertex(int v) {
+		int V = G.V();
+		if (v < 0 || v >= V)
+			throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (V-1));
+	}
+
+	/**
+	 * 在类似道路网络的网格图上比较三种算法和DijkstraSP的单次查询延迟:side*side个顶点均匀地分布在平面上并带有随机的扰动,
+	 * 每个顶点和上下左右的邻居之间各有一条有向边,权重是两个端点的直线距离乘以[1, 1.5)中的随机数,
+	 * 所以直线距离是一致的启发函数.起点和终点随机选择,报告平均值,中位数,p99和最大延迟,以及平均取出的顶点数.
+	 * 用法: java PointToPointSP [side] [查询数]
+	 * */
+	public static void main(String[] args) {
+		int side = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+		int queries = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+		int V = side * side;
+		double[] x = new double[V], y = new double[V];
+		for (int v = 0; v < V; v++) {
+			x[v] = v % side + StdRandom.uniform(-0.3, 0.3);
+			y[v] = v / side + StdRandom.uniform(-0.3, 0.3);
+		}
+		int E = 4 * side * (side - 1), m = 0;
+		int[] from = new int[E], to = new int[E];
+		double[] weight = new double[E];
+		for (int v = 0; v < V; v++) {
+			int[] neighbors = { v % side + 1 < side ? v + 1 : -1, v / side + 1 < side ? v + side : -1 };
+			for (int w : neighbors) {
+				if (w < 0) continue;
+				double length = Math.hypot(x[v] - x[w], y[v] - y[w]);
+				from[m] = v; to[m] = w; weight[m++] = length * StdRandom.uniform(1.0, 1.5);
+				from[m] = w; to[m] = v; weight[m++] = length * StdRandom.uniform(1.0, 1.5);
+			}
+		}
+		EdgeList edges = new EdgeList(V, from, to, weight, E);
+		CSREdgeWeightedDigraph G = CSREdgeWeightedDigraph.of(edges);
+		PointToPointSP sp = new PointToPointSP(G, Heuristic.euclidean(x, y, 1.0));
+
+		int[] s = new int[queries], t = new int[queries];
+		for (int q = 0; q < queries; q++) {
+			s[q] = StdRandom.uniform(V);
+			t[q] = StdRandom.uniform(V);
+		}
+		// 和DijkstraSP比较少量查询的结果,同时预热
+		EdgeWeightedDigraph digraph = edges.toEdgeWeightedDigraph();
+		double[] dijkstraMicros = new double[Math.min(queries, 20)];
+		for (int q = 0; q < dijkstraMicros.length; q++) {
+			long t0 = System.nanoTime();
+			double expected = new DijkstraSP(digraph, s[q]).distTo(t[q]);
+			dijkstraMicros[q] = (System.nanoTime() - t0) / 1e3;
+			for (Algorithm algorithm : Algorithm.values()) {
+				double d = sp.distance(s[q], t[q], algorithm);
+				if (Math.abs(d - expected) > 1e-9 * Math.max(1.0, expected))
+					throw new AssertionError(algorithm + " " + s[q] + "->" + t[q] + ": " + d + " != " + expected);
+			}
+		}
+		System.out.printf("V = %d, E = %d, %d queries\n", V, E, queries);
+		System.out.printf("%-16s %12s %12s %12s %12s %12s\n", "algorithm", "mean(us)", "p50(us)", "p99(us)", "max(us)", "settled");
+		report("DijkstraSP", dijkstraMicros, V);
+		for (Algorithm algorithm : Algorithm.values()) {
+			double[] micros = new double[queries];
+			long settled = 0;
+			for (int q = 0; q < queries; q++) {
+				long t0 = System.nanoTime();
+				sp.distance(s[q], t[q], algorithm);
+				micros[q] = (System.nanoTime() - t0) / 1e3;
+				settled += sp.settled();
+			}
+			report(algorithm.toString(), micros, (double) settled / queries);
+		}
+	}
+
+	// 打印一行延迟的统计:平均值,中位数,p99,最大值(微秒)和平均取出的顶点数
+	static void report(String name, double[] micros, double settled) {
+		double[] sorted = micros.clone();
+		Arrays.sort(sorted);
+		double sum = 0;
+		for (double us : sorted)
+			sum += us;
+		int n = sorted.length;
+		System.out.printf("%-16s %12.1f %12.1f %12.1f %12.1f %12.0f\n", name, sum / n,
+				sorted[n / 2], sorted[Math.min(n - 1, (int) Math.ceil(0.99 * n) - 1)], sorted[n - 1], settled);
+	}
+}
@@ -2,6 +2,7 @@ package com.hxd.graphs.undirectedGraphs;
 
 import java.io.File;
 import java.nio.file.FileSystemNotFoundException;
+import java.util.Iterator;
 
 import com.hxd.base.Stack;
 import com.hxd.introcs.stdlib.In;
@@ -49,22 +50,37 @@ public class Bipartite {
 		marked = new boolean[G.V()];
 		edgeTo = new int[G.V()];
 		
-		for (int v = 0; v < G.V(); v++)
+		int[] stack = new int[G.V()];
+		@SuppressWarnings("unchecked")
+		Iterator<Integer>[] adj = (Iterator<Integer>[]) new Iterator<?>[G.V()];
+		for (int v = 0; v < G.V() && cycle == null; v++)
 			if (!marked[v])
-				dfs (G, v);
+				dfs (G, v, stack, adj);
 		assert check(G);
 	}
 	
-	private void dfs(Graph G, int v) {
-		marked[v] = true;
-		for (int w : G.adj(v)) {
-			//如果发现奇长度循环，则退出
-			if (cycle != null) return;
-			//找到无同色的顶点,递归
+	// 显式栈的深度优先搜索:stack[]中是递归调用栈上的顶点,adj[v]记录v的邻接表已经遍历到哪里
+	private void dfs(Graph G, int s, int[] stack, Iterator<Integer>[] adj) {
+		int top = 0;
+		marked[s] = true;
+		adj[s] = G.adj(s).iterator();
+		stack[top++] = s;
+		//如果发现奇长度循环，则退出
+		while (top > 0 && cycle == null) {
+			int v = stack[top - 1];
+			if (!adj[v].hasNext()) {
+				adj[v] = null;
+				top--;
+				continue;
+			}
+			int w = adj[v].next();
+			//找到无同色的顶点,入栈
 			if (!marked[w]) {
 				edgeTo[w] = v;
 				color[w] = !color[v];
-				dfs(G, w);
+				marked[w] = true;
+				adj[w] = G.adj(w).iterator();
+				stack[top++] = w;
 			}
 			//如果v-w创建一个奇长周期,找出
 			else if (color[w] == color[v]) {
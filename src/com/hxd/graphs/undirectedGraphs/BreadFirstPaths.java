@@ -5,6 +5,7 @@ import java.nio.file.FileSystemNotFoundException;
 
 import com.hxd.base.Queue;
 import com.hxd.base.Stack;
+import com.hxd.graphs.IntGraph;
 import com.hxd.introcs.stdlib.In;
 
 /**
@@ -72,6 +73,39 @@ public class BreadFirstPaths {
 		bfs(G, sources);
 	}
 
+	/**
+	 * 在{@link IntGraph}(例如CSRGraph)上计算从s出发的最短路径,队列是一个int数组,
+	 * 遍历邻接表时不创建迭代器,也不装箱
+	 * @param G the graph
+	 * @param s the source vertex
+	 * @throws IllegalArgumentException unless {@code 0 <= s < V}
+	 */
+	public BreadFirstPaths(IntGraph G, int s) {
+		marked = new boolean[G.V()];
+		distTo = new int[G.V()];
+		edgeTo = new int[G.V()];
+		validateVertex(s);
+		for (int v = 0; v < G.V(); v++)
+			distTo[v] = INFINITY;
+		int[] queue = new int[G.V()];
+		int head = 0, tail = 0;
+		distTo[s] = 0;
+		marked[s] = true;
+		queue[tail++] = s;
+		while (head < tail) {
+			int v = queue[head++];
+			for (long e = G.begin(v), end = G.end(v); e < end; e++) {
+				int w = G.target(e);
+				if (!marked[w]) {
+					edgeTo[w] = v;
+					distTo[w] = distTo[v] + 1;
+					marked[w] = true;
+					queue[tail++] = w;
+				}
+			}
+		}
+	}
+
 	/**
 	 * bfs不是递归的.不像递归中的隐式的使用的栈,它显示地使用了一个队列,结果也存到一个数组
 	 * edgeTo[],也是一颗用父链接表示的根结点为s的树.表示了s到每个与s连通的顶点的最短路径
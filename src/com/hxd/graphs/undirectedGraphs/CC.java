@@ -20,19 +20,20 @@ package com.hxd.graphs.undirectedGraphs;
  *  1 components
  *  0 1 2 3 4 5 6 7 8 9 10 ...
  *
- *  % java -Xss50m CC largeG.txt 
+ *  % java CC largeG.txt 
  *  1 components
  *  0 1 2 3 4 5 6 7 8 9 10 ...
  *
- *  Note: 此实现使用递归DFS。避免需要可能非常大
- *  的堆栈大小，替换为非递归 DFS NonrecursiveDFS.java。
+ *  Note: dfs()使用显式的栈,和NonrecursiveDFS.java一样,不需要很大的堆栈大小。
  *
  ******************************************************************************/
 
 import java.io.File;
 import java.nio.file.FileSystemNotFoundException;
+import java.util.Iterator;
 
 import com.hxd.base.Queue;
+import com.hxd.graphs.IntGraph;
 import com.hxd.introcs.stdlib.In;
 
 /**
@@ -77,22 +78,85 @@ public class CC {
 		marked = new boolean[G.V()];
 		id = new int[G.V()];
 		size = new int[G.V()];
+		int[] stack = new int[G.V()];
+		@SuppressWarnings("unchecked")
+		Iterator<Integer>[] adj = (Iterator<Integer>[]) new Iterator<?>[G.V()];
 		for (int v = 0; v < G.V(); v++) {
 			if (!marked[v]) {
-				dfs(G,v);
+				dfs(G, v, stack, adj);
 				count++;
 			}
 		}
 	}
 
-	private void dfs(Graph G, int v) {
+	/**
+	 * 计算{@link IntGraph}(例如CSRGraph)的连通分量
+	 * @param G the undirected graph
+	 */
+	public CC(IntGraph G) {
+		marked = new boolean[G.V()];
+		id = new int[G.V()];
+		size = new int[G.V()];
+		int[] stack = new int[G.V()];
+		long[] next = new long[G.V()];
+		for (int v = 0; v < G.V(); v++) {
+			if (!marked[v]) {
+				dfs(G, v, stack, next);
+				count++;
+			}
+		}
+	}
+
+	// 显式栈的深度优先搜索,next[v] = v的邻接表中下一条要检查的边
+	private void dfs(IntGraph G, int v, int[] stack, long[] next) {
+		int top = 0;
+		visit(v);
+		next[v] = G.begin(v);
+		stack[top++] = v;
+		while (top > 0) {
+			v = stack[top - 1];
+			if (next[v] < G.end(v)) {
+				int w = G.target(next[v]++);
+				if (!marked[w]) {
+					visit(w);
+					next[w] = G.begin(w);
+					stack[top++] = w;
+				}
+			}
+			else top--;
+		}
+	}
+
+	/**
+	 * 使用显式的栈代替递归,不再需要-Xss:stack[]中是递归调用栈上的顶点,
+	 * adj[v]记录v的邻接表已经遍历到哪里,出栈时释放
+	 * */
+	private void dfs(Graph G, int v, int[] stack, Iterator<Integer>[] adj) {
+		int top = 0;
+		visit(v);
+		adj[v] = G.adj(v).iterator();
+		stack[top++] = v;
+		while (top > 0) {
+			v = stack[top - 1];
+			if (adj[v].hasNext()) {
+				int w = adj[v].next();
+				if (!marked[w]) {
+					visit(w);
+					adj[w] = G.adj(w).iterator();
+					stack[top++] = w;
+				}
+			}
+			else {
+				adj[v] = null;
+				top--;
+			}
+		}
+	}
+
+	private void visit(int v) {
 		marked[v] = true;
 		id [v] = count;
 		size[count]++;
-		for (int w : G.adj(v)) {
-			if (!marked[w])
-				dfs(G, w);
-		}
 	}
 	
 	/**
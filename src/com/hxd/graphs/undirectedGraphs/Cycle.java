@@ -2,6 +2,7 @@ package com.hxd.graphs.undirectedGraphs;
 
 import java.io.File;
 import java.nio.file.FileSystemNotFoundException;
+import java.util.Iterator;
 
 import com.hxd.base.Stack;
 import com.hxd.introcs.stdlib.In;
@@ -66,9 +67,12 @@ public class Cycle {
 		if (hasParalleEdges(G)) return;
 		marked = new boolean[G.V()];
 		edgeTo = new int[G.V()];
+		int[] stack = new int[G.V()];
+		@SuppressWarnings("unchecked")
+		Iterator<Integer>[] adj = (Iterator<Integer>[]) new Iterator<?>[G.V()];
 		for (int v = 0; v<G.V(); v++)
-			if(!marked[v])
-				dfs(G,-1,v);
+			if(!marked[v] && cycle == null)
+				dfs(G, v, stack, adj);
 	}
 	
 	/**
@@ -126,13 +130,29 @@ public class Cycle {
 		return cycle;
 	}
 	
-	private void dfs(Graph G, int u, int v) {
-		marked[v] = true;
-		for (int w : G.adj(v)) {
-			if (cycle != null)	return;
+	/**
+	 * 用显式的栈代替递归,在路径很长的图上也不会栈溢出:stack[]中是递归调用栈上的顶点,
+	 * adj[v]记录v的邻接表已经遍历到哪里.递归版本中的参数u(v的父结点)就是栈中v下面的顶点
+	 * */
+	private void dfs(Graph G, int s, int[] stack, Iterator<Integer>[] adj) {
+		int top = 0;
+		marked[s] = true;
+		adj[s] = G.adj(s).iterator();
+		stack[top++] = s;
+		while (top > 0 && cycle == null) {
+			int v = stack[top - 1];
+			if (!adj[v].hasNext()) {
+				adj[v] = null;
+				top--;
+				continue;
+			}
+			int u = top > 1 ? stack[top - 2] : -1;
+			int w = adj[v].next();
 			if (!marked[w]) {
 				edgeTo[w] = v;
-				dfs(G, v, w);
+				marked[w] = true;
+				adj[w] = G.adj(w).iterator();
+				stack[top++] = w;
 			}
 			else if (w != u) {
 				cycle = new Stack<Integer>();
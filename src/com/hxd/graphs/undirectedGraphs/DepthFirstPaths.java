@@ -2,8 +2,10 @@ package com.hxd.graphs.undirectedGraphs;
 
 import java.io.File;
 import java.nio.file.FileSystemNotFoundException;
+import java.util.Iterator;
 
 import com.hxd.base.Stack;
+import com.hxd.graphs.IntGraph;
 import com.hxd.introcs.stdlib.In;
 
 /**
@@ -31,14 +33,70 @@ public class DepthFirstPaths {
 		this.s = s;
 		dfs(G,s);
 	}
+
+	/**
+	 * 在{@link IntGraph}(例如CSRGraph)上查找从s出发的路径,遍历邻接表时不创建迭代器
+	 * @param G the graph
+	 * @param s the source vertex
+	 */
+	public DepthFirstPaths(IntGraph G, int s) {
+		marked = new boolean[G.V()];
+		edgedTo = new int[G.V()];
+		this.s = s;
+		validateVertex(s);
+		dfs(G,s);
+	}
+	/**
+	 * 使用显式的栈代替递归,在路径很长的图上也不会栈溢出.stack[]中是递归调用栈上的顶点,
+	 * adj[v]记录v的邻接表已经遍历到哪里,访问顶点的顺序和递归的版本完全相同
+	 * */
 	// depth first search from v
+	@SuppressWarnings("unchecked")
 	private void dfs(Graph G, int v) {
+		int[] stack = new int[G.V()];
+		Iterator<Integer>[] adj = (Iterator<Integer>[]) new Iterator<?>[G.V()];
+		int top = 0;
 		marked[v] = true;
-		for (int w : G.adj(v))
-			if(!marked[w]){
-				edgedTo[w] = v;
-				dfs(G, w);
+		adj[v] = G.adj(v).iterator();
+		stack[top++] = v;
+		while (top > 0) {
+			v = stack[top - 1];
+			if (adj[v].hasNext()) {
+				int w = adj[v].next();
+				if (!marked[w]) {
+					edgedTo[w] = v;
+					marked[w] = true;
+					adj[w] = G.adj(w).iterator();
+					stack[top++] = w;
+				}
 			}
+			else {
+				adj[v] = null;
+				top--;
+			}
+		}
+	}
+
+	private void dfs(IntGraph G, int v) {
+		int[] stack = new int[G.V()];
+		long[] next = new long[G.V()];		// next[v] = v的邻接表中下一条要检查的边
+		int top = 0;
+		marked[v] = true;
+		next[v] = G.begin(v);
+		stack[top++] = v;
+		while (top > 0) {
+			v = stack[top - 1];
+			if (next[v] < G.end(v)) {
+				int w = G.target(next[v]++);
+				if (!marked[w]) {
+					edgedTo[w] = v;
+					marked[w] = true;
+					next[w] = G.begin(w);
+					stack[top++] = w;
+				}
+			}
+			else top--;
+		}
 	}
 	
 	/**
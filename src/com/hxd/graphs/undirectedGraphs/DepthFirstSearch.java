@@ -33,6 +33,7 @@ package com.hxd.graphs.undirectedGraphs;
 import java.io.File;
 import java.nio.file.FileSystemNotFoundException;
 import java.util.Arrays;
+import java.util.Iterator;
 
 import com.hxd.introcs.stdlib.In;
 
@@ -83,13 +84,33 @@ public class DepthFirstSearch {
 	 * 问过
 	 * */
 	// depth first search from v
+	// 递归的版本在路径很长的图上会栈溢出,这里用显式的栈模拟递归:stack[]中是递归调用栈上的顶点,
+	// adj[v]记录v的邻接表已经遍历到哪里,访问顶点的顺序和递归的版本相同
+	@SuppressWarnings("unchecked")
 	private void dfs(Graph G, int v) {
+		int[] stack = new int[G.V()];
+		Iterator<Integer>[] adj = (Iterator<Integer>[]) new Iterator<?>[G.V()];
+		int top = 0;
 		count++;
 		marked[v] = true;			//自身标记
-		//递归地访问它的所有没有标记过的邻居顶点
-		for (int w : G.adj(v)) {
-			if (!marked[w])
-				dfs(G, w);
+		adj[v] = G.adj(v).iterator();
+		stack[top++] = v;
+		while (top > 0) {
+			v = stack[top - 1];
+			//访问它的下一个没有标记过的邻居顶点
+			if (adj[v].hasNext()) {
+				int w = adj[v].next();
+				if (!marked[w]) {
+					count++;
+					marked[w] = true;
+					adj[w] = G.adj(w).iterator();
+					stack[top++] = w;
+				}
+			}
+			else {
+				adj[v] = null;
+				top--;
+			}
 		}
 	}
 	
@@ -0,0 +1,174 @@
+package com.hxd.graphs.undirectedGraphs;
+
+import java.util.concurrent.ForkJoinPool;
+
+import com.hxd.base.Parallel;
+import com.hxd.base.uf.ConcurrentUF;
+import com.hxd.base.uf.WeightQuickUnionCompressionUF;
+import com.hxd.graphs.CSRGraph;
+import com.hxd.graphs.IntGraph;
+import com.hxd.introcs.stdlib.StdRandom;
+
+/**
+ *	并行计算无向图的连通分量,API和{@link CC}相同:id(v),size(v),count(),connected(v, w).
+ *	CC使用递归的深度优先搜索,在很深的图上会栈溢出,也只能使用一个线程;这里不做搜索,而是把所有的边当作
+ *	union-find的连接来处理:
+ *	<p>
+ *	1: 顶点按照邻接表的长度均匀地分成若干段,每段在ForkJoinPool上并行地对自己的每条边v-w(w &lt; v,
+ *	   每条边只处理一次)调用union(v, w);
+ *	2: union-find是{@link ConcurrentUF},所有的线程共享它的父链接数组,链接和路径分割都用CAS完成.
+ *	   使用INDEX优先级,总是把编号较大的根结点链接到编号较小的根结点上,根结点就是分量中编号最小的顶点;
+ *	3: 所有的边处理完之后并行地求出每个顶点的根结点,再按根结点的编号从小到大给分量编号.
+ *	   这和CC按顶点顺序依次发现分量的编号方式相同,所以id(v)和CC的结果完全一致.
+ *	<p>
+ *	@author 候旭东 20261017
+ * */
+public class ParallelCC {
+	// 每段至少包含这么多条边,图较小时在当前线程中处理
+	private static final long SEQUENTIAL_CUTOFF = 1 << 14;
+
+	private final int[] id;			// id[v] = 包含v的连通分量的编号
+	private final int[] size;		// size[id] = 分量中的顶点数
+	private int count;				// 连通分量的数量
+
+	/**
+	 * 把Graph转换为CSRGraph之后计算它的连通分量
+	 */
+	public ParallelCC(Graph G) {
+		this(CSRGraph.of(G, false), ForkJoinPool.commonPool());
+	}
+
+	public ParallelCC(IntGraph G) {
+		this(G, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * @param G 无向图
+	 * @param pool 运行任务的线程池
+	 * @throws IllegalArgumentException 如果G是有向图
+	 */
+	public ParallelCC(IntGraph G, ForkJoinPool pool) {
+		if (G.directed()) throw new IllegalArgumentException("connected components require an undirected graph");
+		int V = G.V();
+		ConcurrentUF uf = new ConcurrentUF(V, ConcurrentUF.Linking.INDEX);
+		int[] parent = new int[V];
+		int[] bounds = partition(G, pool.getParallelism());
+		int P = bounds.length - 1;
+		Parallel.forEach(pool, P, c -> {
+			for (int v = bounds[c]; v < bounds[c + 1]; v++) {
+				for (long e = G.begin(v), end = G.end(v); e < end; e++) {
+					int w = G.target(e);
+					if (w < v) uf.union(v, w);
+				}
+			}
+		});
+		// 每个顶点直接指向它的根结点
+		Parallel.forEach(pool, P, c -> {
+			for (int v = bounds[c]; v < bounds[c + 1]; v++)
+				parent[v] = uf.find(v);
+		});
+
+		// 根结点是分量中编号最小的顶点,按顶点顺序编号
+		id = parent;
+		int[] sizes = new int[Math.max(1, V)];
+		for (int v = 0; v < V; v++) {
+			if (parent[v] == v) id[v] = count++;
+			else                id[v] = id[parent[v]];
+			sizes[id[v]]++;
+		}
+		size = sizes;
+	}
+
+	// 按邻接表的总长度把顶点分为若干段,返回段的边界
+	private static int[] partition(IntGraph G, int threads) {
+		int V = G.V();
+		long total = V == 0 ? 0 : G.end(V - 1) - G.begin(0);
+		int P = (int) Math.max(1, Math.min(4L * threads, total / SEQUENTIAL_CUTOFF));
+		int[] bounds = new int[P + 1];
+		int v = 0;
+		long base = V == 0 ? 0 : G.begin(0);
+		for (int c = 1; c < P; c++) {
+			long target = base + total * c / P;
+			while (v < V && G.end(v) <= target)
+				v++;
+			bounds[c] = v;
+		}
+		bounds[P] = V;
+		return bounds;
+	}
+
+	/**
+	 * Returns the component id of the connected component containing vertex {@code v}.
+	 * @throws IllegalArgumentException unless {@code 0 <= v < V}
+	 */
+	public int id(int v) {
+		validateVertex(v);
+		return id[v];
+	}
+
+	/**
+	 * Returns the number of vertices in the connected component containing vertex {@code v}.
+	 * @throws IllegalArgumentException unless {@code 0 <= v < V}
+	 */
+	public int size(int v) {
+		validateVertex(v);
+		return size[id[v]];
+	}
+
+	/**
+	 * Returns the number of connected components in the graph {@code G}.
+	 */
+	public int count() {
+		return count;
+	}
+
+	/**
+	 * Returns true if vertices {@code v} and {@code w} are in the same connected component.
+	 * @throws IllegalArgumentException unless {@code 0 <= v < V}
+	 * @throws IllegalArgumentException unless {@code 0 <= w < V}
+	 */
+	public boolean connected(int v, int w) {
+		validateVertex(v);
+		validateVertex(w);
+		return id[v] == id[w];
+	}
+
+	private void validateVertex(int v) {
+		int V = id.length;
+		if (v < 0 || v >= V)
+			throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (V-1));
+	}
+
+	/**
+	 * 在随机图上和WeightQuickUnionCompressionUF比较(CC的递归深度在这样的图上可能超过默认的栈大小):
+	 * 用法 java ParallelCC V E
+	 * */
+	public static void main(String[] args) {
+		int V = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+		int E = args.length > 1 ? Integer.parseInt(args[1]) : V / 2 + V / 4;
+		int[] from = new int[E], to = new int[E];
+		for (int i = 0; i < E; i++) {
+			from[i] = StdRandom.uniform(V);
+			to[i] = StdRandom.uniform(V);
+		}
+		CSRGraph G = CSRGraph.fromEdges(V, from, to, E, false, false);
+		for (int trial = 0; trial < 5; trial++) {
+			long t0 = System.nanoTime();
+			WeightQuickUnionCompressionUF uf = new WeightQuickUnionCompressionUF(V);
+			for (int i = 0; i < E; i++)
+				if (!uf.connected(from[i], to[i])) uf.union(from[i], to[i]);
+			long t1 = System.nanoTime();
+			ParallelCC pcc = new ParallelCC(G);
+			long t2 = System.nanoTime();
+			int[] component = new int[V];
+			for (int v = 0; v < V; v++) {
+				int root = uf.find(v);
+				if (v == root || component[root] == 0) component[root] = pcc.id(v) + 1;
+				if (component[root] != pcc.id(v) + 1) throw new AssertionError("id(" + v + ") differs");
+			}
+			if (uf.count() != pcc.count()) throw new AssertionError("count differs: " + uf.count() + " " + pcc.count());
+			System.out.printf("%d components   WeightQuickUnionCompressionUF: %.1f ms   ParallelCC, %d threads: %.1f ms%n",
+					pcc.count(), (t1 - t0) / 1e6, ForkJoinPool.commonPool().getParallelism(), (t2 - t1) / 1e6);
+		}
+	}
+}
@@ -439,6 +439,23 @@ public final class StdRandom {
         }
     }
 
+    /**
+     * Rearranges the elements of the specified array in uniformly random order.
+     *
+     * @param  a the array to shuffle
+     * @throws IllegalArgumentException if {@code a} is {@code null}
+     */
+    public static void shuffle(long[] a) {
+        if (a == null) throw new IllegalArgumentException("argument array is null");
+        int n = a.length;
+        for (int i = 0; i < n; i++) {
+            int r = i + uniform(n-i);     // between i and n-1
+            long temp = a[i];
+            a[i] = a[r];
+            a[r] = temp;
+        }
+    }
+
 
     /**
      * Rearranges the elements of the specified subarray in uniformly random order.
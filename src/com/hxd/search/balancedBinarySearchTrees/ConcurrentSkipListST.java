@@ -0,0 +1,560 @@
+package com.hxd.search.balancedBinarySearchTrees;
+
+import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+import com.hxd.base.Benchmark;
+import com.hxd.base.Queue;
+import com.hxd.introcs.stdlib.StdRandom;
+
+/**
+ * 候旭东 20261017 无锁的跳表有序符号表
+ * 提供和RedBlackBST相同的有序操作(min,max,floor,ceiling,rank,select,范围查找),可以被多个线程同时读写.
+ * <p>
+ * 跳表是一组有序链表:第0层包含所有的键,每个键以1/4的概率出现在上一层中,所以第l层约有N/4^l个键.
+ * 查找从最高层开始,在每一层中前进到最后一个小于给定键的结点后下降一层,期望比较次数为~2lgN.
+ * 一个键在各层中的结点组成一座"塔",每个结点只有一个right指针和指向下一层的down指针,并且保存了键,
+ * 在一层中前进一步只需要读取一个引用,不需要经过next数组.
+ * <p>
+ * 无锁算法(Herlihy-Shavit):
+ *    1: 插入:先用CAS把塔底链接到第0层,此时键就已经存在,然后自底向上逐层链接.3/4的键只有一层,
+ *       插入时只分配一个结点,查找也只记录第0层的前驱;
+ *    2: 删除:用CAS把塔底的值改为null,删除在这一刻生效(和ConcurrentSkipListMap相同),然后自顶向下标记塔中的
+ *       每个结点,再由查找把被标记的结点从链表中摘除.标记的方法是用CAS在结点和它的后继之间插入一个标记结点
+ *       (Harris),被标记的结点的right不再等于任何普通结点,所以不会有新结点被链接到它的后面;
+ *    3: get()和范围查找只读不写,跳过值为null的塔底,不会被写操作阻塞,也不需要重试.判断一个键是否被删除
+ *       只需要读塔底自己的value,不需要读它的后继.
+ * keys(lo, hi)沿第0层遍历,结果包含遍历期间一直存在的所有键,期间插入或删除的键可能出现也可能不出现.
+ * <p>
+ * 代价:get,put,delete,floor,ceiling,min,max的期望代价是O(lgN),keys(lo, hi)是O(lgN + 返回的键数).
+ * 结点中没有保存子表的大小(维护它需要在每次插入和删除时修改一条路径上的所有结点,无法无锁地完成),
+ * 所以rank(),select()和size(lo, hi)需要沿第0层计数,代价是O(N)(size(lo, hi)是O(lgN + 区间中的键数)),
+ * 而RedBlackBST中它们都是O(lgN):方法名相同,但是代价模型不同,需要频繁调用它们时应该使用RedBlackBST.
+ * size()由计数器维护,是O(1)的.
+ * 常数也比RedBlackBST大:查找比较的次数约为RedBlackBST的两倍,而且每下降一层都要读取一个新的结点.
+ * 单线程,262144个键时put约为RedBlackBST的1.6倍,get和floor约为2.2到2.5倍,超过了2倍以内的目标;
+ * 这个类只适合需要并发访问的场合
+ * <p>
+ * 和RedBlackBST相同,值不允许为null,put(key, null)等价于delete(key)
+ * */
+public class ConcurrentSkipListST<Key extends Comparable<Key>, Value> {
+	private static final int MAX_LEVEL = 32;
+
+	@SuppressWarnings("rawtypes")
+	private static final AtomicReferenceFieldUpdater<Node, Node> RIGHT =
+			AtomicReferenceFieldUpdater.newUpdater(Node.class, Node.class, "right");
+	@SuppressWarnings("rawtypes")
+	private static final AtomicReferenceFieldUpdater<Node, Object> VALUE =
+			AtomicReferenceFieldUpdater.newUpdater(Node.class, Object.class, "value");
+
+	private final Node<Key, Value>[] heads;				// 每一层的头结点
+	private final AtomicInteger n = new AtomicInteger();
+	private final AtomicInteger top = new AtomicInteger();	// 出现过的最高层
+
+	private static final class Node<Key, Value> {
+		final Key key;
+		final Node<Key, Value> down;		// 同一座塔中下一层的结点
+		final Node<Key, Value>[] tower;		// 塔中所有的结点,tower[0]是塔底;只有一层的塔(3/4的键)为null
+		volatile Value value;				// 只在塔底使用,null表示键已被删除
+		volatile Node<Key, Value> right;
+
+		Node(Key key, Value value, Node<Key, Value> down, Node<Key, Value>[] tower) {
+			this.key = key;
+			this.value = value;
+			this.down = down;
+			this.tower = tower;
+		}
+
+		// 标记结点:放在x和x的后继之间表示x在这一层被删除
+		Node(Node<Key, Value> right) {
+			key = null;
+			down = this;
+			tower = null;
+			this.right = right;
+		}
+
+		// 标记结点的down指向自己,不用单独的字段区分,结点只有32字节
+		boolean isMarker() {
+			return down == this;
+		}
+
+		Node<Key, Value> bottom() {
+			return tower == null ? this : tower[0];
+		}
+
+		// 后继(跳过标记结点)
+		Node<Key, Value> next() {
+			Node<Key, Value> succ = right;
+			return succ != null && succ.isMarker() ? succ.right : succ;
+		}
+
+		boolean isMarked() {
+			Node<Key, Value> succ = right;
+			return succ != null && succ.isMarker();
+		}
+
+		// 没有被标记时才能修改:被标记之后right指向标记结点,CAS必然失败
+		@SuppressWarnings("unchecked")
+		boolean casRight(Node<Key, Value> expect, Node<Key, Value> update) {
+			return RIGHT.compareAndSet(this, expect, update);
+		}
+
+		@SuppressWarnings("unchecked")
+		boolean casValue(Value expect, Value update) {
+			return VALUE.compareAndSet(this, expect, update);
+		}
+
+		// 标记这个结点,返回是否由这次调用完成标记
+		boolean mark() {
+			while (true) {
+				Node<Key, Value> succ = right;
+				if (succ != null && succ.isMarker()) return false;
+				if (casRight(succ, new Node<Key, Value>(succ))) return true;
+			}
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	public ConcurrentSkipListST() {
+		heads = (Node<Key, Value>[]) new Node<?, ?>[MAX_LEVEL];
+		for (int l = 0; l < MAX_LEVEL; l++)
+			heads[l] = new Node<Key, Value>(null, null, l == 0 ? null : heads[l - 1], heads);
+	}
+
+	// 随机层数:塔高超过l的概率为1/4^l.和1/2相比比较次数相同(都是~2lgN),但是结点更少,更节省缓存
+	private static int randomLevel() {
+		int r = ThreadLocalRandom.current().nextInt();
+		return Math.min(Integer.numberOfTrailingZeros(~r) / 2, MAX_LEVEL - 1);
+	}
+
+	/**
+	 * 在每一层中找到最后一个小于key的结点preds[l]和它的后继succs[l],同时摘除路过的被标记的结点.
+	 * 摘除失败或者前驱已被标记时从头开始重试.只记录preds.length以下的层,数组比当前的最高层高时
+	 * 更高的空层的前驱是头结点.返回第0层的后继是否等于key(这个结点的值可能已经是null).
+	 * <p>
+	 * 每一层停下的结点(第一个大于key的结点)不检查是否被标记:检查需要读取它的后继,多一次缓存不命中,
+	 * 而在被标记的结点前面插入是安全的.它在下一层再次出现时也不再比较.只有等于key的结点需要检查
+	 * */
+	private boolean find(Key key, Node<Key, Value>[] preds, Node<Key, Value>[] succs) {
+		retry:
+		while (true) {
+			int t = Math.max(top.get(), preds.length - 1);
+			Node<Key, Value> pred = heads[t];
+			Key stop = null;			// 上一层停下的结点的键,和key的比较结果是stopCmp
+			int stopCmp = 1;
+			for (int l = t; ; l--) {
+				Node<Key, Value> curr = pred.right;
+				int cmp = 1;
+				while (curr != null) {
+					if (curr.isMarker()) continue retry;	// pred在这一层被删除了
+					cmp = curr.key == stop ? stopCmp : curr.key.compareTo(key);
+					if (cmp > 0) break;
+					Node<Key, Value> succ = curr.right;
+					if (succ != null && succ.isMarker()) {
+						if (!pred.casRight(curr, succ.right)) continue retry;
+						curr = pred.right;
+						continue;
+					}
+					if (cmp == 0) break;
+					pred = curr;
+					curr = succ;
+				}
+				if (l < preds.length) {
+					preds[l] = pred;
+					succs[l] = curr;
+				}
+				if (l == 0) return curr != null && cmp == 0;
+				stop = curr == null ? null : curr.key;
+				stopCmp = cmp;
+				pred = pred.down;
+			}
+		}
+	}
+
+	/**
+	 * 只读的查找:返回第一个大于等于key并且没有被删除的塔底,不摘除任何结点.在某一层遇到key时立即返回,
+	 * 否则preds不为null时记录第0层中它的前驱
+	 * */
+	private Node<Key, Value> ceilingNode(Key key, Node<Key, Value>[] preds) {
+		int t = top.get();
+		Node<Key, Value> pred = heads[t], curr = null;
+		Key stop = null;
+		for (int l = t; ; l--) {
+			curr = pred.next();
+			while (curr != null && curr.key != stop) {		// stop在上一层已经比较过,大于等于key
+				int cmp = curr.key.compareTo(key);
+				if (cmp == 0 && curr.bottom().value != null) return curr.bottom();
+				if (cmp > 0) break;
+				Node<Key, Value> succ = curr.right;
+				if (succ != null && succ.isMarker()) {
+					curr = succ.right;
+					continue;
+				}
+				pred = curr;
+				curr = succ;
+			}
+			stop = curr == null ? null : curr.key;
+			if (l == 0) break;
+			pred = pred.down;
+		}
+		// 和find()一样停下的结点没有检查是否被删除,第0层中的需要跳过
+		while (curr != null && curr.value == null)
+			curr = curr.next();
+		if (preds != null) preds[0] = pred;
+		return curr;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <Key, Value> Node<Key, Value>[] newArray(int length) {
+		return (Node<Key, Value>[]) new Node<?, ?>[length];
+	}
+
+	/**
+	 * 键值对的数量.有其他线程同时写入时是近似值
+	 * */
+	public int size() {
+		return n.get();
+	}
+
+	public boolean isEmpty() {
+		return first() == null;
+	}
+
+	public boolean contains(Key key) {
+		if (key == null) throw new IllegalArgumentException("argument to contains() is null");
+		return get(key) != null;
+	}
+
+	public Value get(Key key) {
+		if (key == null) throw new IllegalArgumentException("argument to get() is null");
+		Node<Key, Value> x = ceilingNode(key, null);
+		if (x == null || x.key.compareTo(key) != 0) return null;
+		return x.value;
+	}
+
+	public void put(Key key, Value value) {
+		if (key == null) throw new IllegalArgumentException("first argument to put() is null");
+		if (value == null) {
+			delete(key);
+			return;
+		}
+		int level = randomLevel();
+		// 只记录新塔所在的层,3/4的键只需要第0层
+		Node<Key, Value>[] preds = newArray(level + 1), succs = newArray(level + 1);
+		while (true) {
+			if (find(key, preds, succs)) {
+				Node<Key, Value> x = succs[0];
+				Value old = x.value;
+				if (old != null) {
+					if (x.casValue(old, value)) return;
+					continue;
+				}
+				// x已经被删除但是还没有被标记,帮助标记之后重新查找,find()会摘除它
+				x.mark();
+				continue;
+			}
+			if (level == 0) {
+				Node<Key, Value> x = new Node<Key, Value>(key, value, null, null);
+				x.right = succs[0];
+				if (!preds[0].casRight(succs[0], x)) continue;
+				n.incrementAndGet();
+				return;
+			}
+			Node<Key, Value>[] tower = newArray(level + 1);
+			for (int l = 0; l <= level; l++) {
+				tower[l] = new Node<Key, Value>(key, l == 0 ? value : null, l == 0 ? null : tower[l - 1], tower);
+				tower[l].right = succs[l];
+			}
+			if (!preds[0].casRight(succs[0], tower[0])) continue;
+			n.incrementAndGet();
+			int t;
+			while (level > (t = top.get()) && !top.compareAndSet(t, level));
+			linkUpperLevels(tower, preds, succs);
+			return;
+		}
+	}
+
+	// 自底向上把塔链接到第1层及以上.塔在此期间被删除时停止
+	private void linkUpperLevels(Node<Key, Value>[] tower, Node<Key, Value>[] preds, Node<Key, Value>[] succs) {
+		Key key = tower[0].key;
+		for (int l = 1; l < tower.length; l++) {
+			Node<Key, Value> x = tower[l];
+			while (true) {
+				Node<Key, Value> next = x.right;
+				if (next != null && next.isMarker()) return;
+				if (next != succs[l] && !x.casRight(next, succs[l])) continue;
+				if (preds[l].casRight(succs[l], x)) break;
+				find(key, preds, succs);
+				if (succs[0] != tower[0]) return;	// 塔底已经被删除并摘除
+			}
+			// 链接的同时塔被删除,删除线程可能已经做完了摘除,由这里摘除刚链接的结点
+			if (x.isMarked()) {
+				find(key, preds, succs);
+				return;
+			}
+		}
+	}
+
+	public void delete(Key key) {
+		if (key == null) throw new IllegalArgumentException("argument to delete() is null");
+		Node<Key, Value>[] preds = newArray(1), succs = newArray(1);
+		Node<Key, Value> x;
+		while (true) {
+			if (!find(key, preds, succs)) return;
+			x = succs[0];
+			Value old = x.value;
+			if (old == null) return;			// 其他线程正在删除
+			if (x.casValue(old, null)) break;	// 删除在这里生效
+		}
+		n.decrementAndGet();
+		unlink(x);
+	}
+
+	// 自顶向下标记塔底x(值已经是null)所在的整座塔,然后由find()摘除.删除线程和遇到被删除的结点的其他线程
+	// 都可以调用,标记和摘除都是幂等的,所以其他线程不需要等待停在中途的删除线程
+	private void unlink(Node<Key, Value> x) {
+		Node<Key, Value>[] tower = x.tower;
+		int height = tower == null ? 1 : tower.length;
+		for (int l = height - 1; l >= 1; l--)
+			tower[l].mark();
+		x.mark();
+		find(x.key, newArray(height), newArray(height));
+	}
+
+	/***************************************************************************
+	 *  有序操作
+	 ***************************************************************************/
+
+	private Node<Key, Value> first() {
+		for (Node<Key, Value> x = heads[0].next(); x != null; x = x.next())
+			if (x.value != null) return x;
+		return null;
+	}
+
+	public Key min() {
+		Node<Key, Value> x = first();
+		if (x == null) throw new NoSuchElementException("calls min() with empty symbol table");
+		return x.key;
+	}
+
+	public Key max() {
+		// 在上层中尽量向右前进(只停在塔底没有被删除的塔上),然后沿第0层走到最后一个没有被删除的结点
+		while (true) {
+			int t = top.get();
+			Node<Key, Value> pred = heads[t];
+			for (int l = t; l >= 1; l--, pred = pred.down) {
+				for (Node<Key, Value> x = pred.next(); x != null; x = x.next())
+					if (x.bottom().value != null) pred = x;
+			}
+			Node<Key, Value> last = pred == heads[0] || pred.value == null ? null : pred;
+			for (Node<Key, Value> x = pred.next(); x != null; x = x.next())
+				if (x.value != null) last = x;
+			if (last != null) return last.key;
+			if (pred == heads[0]) throw new NoSuchElementException("calls max() with empty symbol table");
+			// 停下的塔在之后被删除,它前面可能还有键:和floor()一样帮助摘除之后重新查找
+			unlink(pred);
+		}
+	}
+
+	public void deleteMin() {
+		if (isEmpty()) throw new NoSuchElementException("Symbol table underflow");
+		delete(min());
+	}
+
+	public void deleteMax() {
+		if (isEmpty()) throw new NoSuchElementException("Symbol table underflow");
+		delete(max());
+	}
+
+	/**
+	 * 小于等于key的最大键,不存在时返回null
+	 * */
+	public Key floor(Key key) {
+		if (key == null) throw new IllegalArgumentException("argument to floor() is null");
+		if (isEmpty()) throw new NoSuchElementException("called floor() with empty symbol table");
+		Node<Key, Value>[] preds = newArray(1);
+		while (true) {
+			Node<Key, Value> x = ceilingNode(key, preds);
+			if (x != null && x.key.compareTo(key) == 0) return x.key;
+			Node<Key, Value> pred = preds[0];
+			if (pred == heads[0]) return null;
+			if (pred.value != null) return pred.key;
+			// 前驱已经被删除,但是删除线程可能还没有标记和摘除它,ceilingNode()只读不写,
+			// 重新查找还会停在这里:先帮助摘除,再重新查找
+			unlink(pred);
+		}
+	}
+
+	/**
+	 * 大于等于key的最小键,不存在时返回null
+	 * */
+	public Key ceiling(Key key) {
+		if (key == null) throw new IllegalArgumentException("argument to ceiling() is null");
+		if (isEmpty()) throw new NoSuchElementException("called ceiling() with empty symbol table");
+		Node<Key, Value> x = ceilingNode(key, null);
+		return x == null ? null : x.key;
+	}
+
+	/**
+	 * 小于key的键的数量,沿第0层计数,O(N)
+	 * */
+	public int rank(Key key) {
+		if (key == null) throw new IllegalArgumentException("argument to rank() is null");
+		int rank = 0;
+		for (Node<Key, Value> x = heads[0].next(); x != null && x.key.compareTo(key) < 0; x = x.next())
+			if (x.value != null) rank++;
+		return rank;
+	}
+
+	/**
+	 * 第k小的键,沿第0层计数,O(N)
+	 * */
+	public Key select(int k) {
+		if (k < 0) throw new IllegalArgumentException();
+		for (Node<Key, Value> x = heads[0].next(); x != null; x = x.next())
+			if (x.value != null && k-- == 0) return x.key;
+		throw new IllegalArgumentException();
+	}
+
+	public Iterable<Key> keys() {
+		Queue<Key> queue = new Queue<Key>();
+		for (Node<Key, Value> x = heads[0].next(); x != null; x = x.next())
+			if (x.value != null) queue.enqueue(x.key);
+		return queue;
+	}
+
+	/**
+	 * [lo, hi]之间的所有键.先用上层定位lo,再沿第0层遍历,可以和写操作同时进行
+	 * */
+	public Iterable<Key> keys(Key lo, Key hi) {
+		if (lo == null) throw new IllegalArgumentException("first argument to keys() is null");
+		if (hi == null) throw new IllegalArgumentException("second argument to keys() is null");
+		Queue<Key> queue = new Queue<Key>();
+		for (Node<Key, Value> x = ceilingNode(lo, null); x != null && x.key.compareTo(hi) <= 0; x = x.next())
+			if (x.value != null) queue.enqueue(x.key);
+		return queue;
+	}
+
+	/**
+	 * [lo, hi]之间的键的数量,沿第0层计数,和区间中的键数成正比
+	 * */
+	public int size(Key lo, Key hi) {
+		if (lo == null) throw new IllegalArgumentException("first argument to size() is null");
+		if (hi == null) throw new IllegalArgumentException("second argument to size() is null");
+		int count = 0;
+		for (Node<Key, Value> x = ceilingNode(lo, null); x != null && x.key.compareTo(hi) <= 0; x = x.next())
+			if (x.value != null) count++;
+		return count;
+	}
+
+	/**
+	 * 单线程时和RedBlackBST比较插入,查找和范围查找的吞吐量,然后在写线程插入的同时做范围查找
+	 * 用法: java ConcurrentSkipListST [n] [预热轮数] [测量轮数] [每轮毫秒数] [写线程数]
+	 * */
+	public static void main(String[] args) throws InterruptedException {
+		int n = args.length > 0 ? Integer.parseInt(args[0]) : 1 << 18;
+		int warmups = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+		int iterations = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+		long millis = args.length > 3 ? Long.parseLong(args[3]) : 1000;
+		int writers = args.length > 4 ? Integer.parseInt(args[4]) : 2;
+
+		Integer[] keys = new Integer[n];
+		for (int i = 0; i < n; i++)
+			keys[i] = i;
+		StdRandom.shuffle(keys);
+
+		RedBlackBST<Integer, Integer> tree = new RedBlackBST<Integer, Integer>();
+		ConcurrentSkipListST<Integer, Integer> list = new ConcurrentSkipListST<Integer, Integer>();
+		for (int i = 0; i < n; i++) {
+			tree.put(keys[i], i);
+			list.put(keys[i], i);
+		}
+
+		System.out.printf("n = %d, single thread, %d x %d ms\n", n, iterations, millis);
+		System.out.printf("%-8s %-22s %14s %12s\n", "op", "symbol table", "Mops/s", "error(99.9%)");
+		report("put", "RedBlackBST", n, () -> {
+			RedBlackBST<Integer, Integer> st = new RedBlackBST<Integer, Integer>();
+			for (int i = 0; i < n; i++)
+				st.put(keys[i], i);
+			return st.size();
+		}, warmups, iterations, millis);
+		report("put", "ConcurrentSkipListST", n, () -> {
+			ConcurrentSkipListST<Integer, Integer> st = new ConcurrentSkipListST<Integer, Integer>();
+			for (int i = 0; i < n; i++)
+				st.put(keys[i], i);
+			return st.size();
+		}, warmups, iterations, millis);
+		report("get", "RedBlackBST", n, () -> {
+			long sum = 0;
+			for (int i = 0; i < n; i++)
+				sum += tree.get(keys[i]);
+			return sum;
+		}, warmups, iterations, millis);
+		report("get", "ConcurrentSkipListST", n, () -> {
+			long sum = 0;
+			for (int i = 0; i < n; i++)
+				sum += list.get(keys[i]);
+			return sum;
+		}, warmups, iterations, millis);
+		report("floor", "RedBlackBST", n, () -> {
+			long sum = 0;
+			for (int i = 0; i < n; i++)
+				sum += tree.floor(keys[i]);
+			return sum;
+		}, warmups, iterations, millis);
+		report("floor", "ConcurrentSkipListST", n, () -> {
+			long sum = 0;
+			for (int i = 0; i < n; i++)
+				sum += list.floor(keys[i]);
+			return sum;
+		}, warmups, iterations, millis);
+		// 每次范围查找返回100个键,按返回的键计数
+		report("keys", "RedBlackBST", n, () -> {
+			long sum = 0;
+			for (int i = 0; i < n; i += 100)
+				for (Integer key : tree.keys(i, i + 99))
+					sum += key;
+			return sum;
+		}, warmups, iterations, millis);
+		report("keys", "ConcurrentSkipListST", n, () -> {
+			long sum = 0;
+			for (int i = 0; i < n; i += 100)
+				for (Integer key : list.keys(i, i + 99))
+					sum += key;
+			return sum;
+		}, warmups, iterations, millis);
+
+		// 写线程插入新的键(n以上),同时主线程做范围查找,原有的键都应该出现在结果中
+		Thread[] threads = new Thread[writers];
+		for (int t = 0; t < writers; t++) {
+			final int id = t;
+			threads[t] = new Thread(() -> {
+				for (int i = n + id; i < 2 * n; i += writers)
+					list.put(i, i);
+			});
+			threads[t].start();
+		}
+		long scans = 0;
+		while (true) {
+			boolean running = false;
+			for (Thread thread : threads)
+				running |= thread.isAlive();
+			int lo = StdRandom.uniform(n - 1000);
+			if (list.size(lo, lo + 999) != 1000) throw new IllegalStateException("range scan lost keys");
+			scans++;
+			if (!running) break;
+		}
+		for (Thread thread : threads)
+			thread.join();
+		System.out.printf("\n%d range scans during %d concurrent writers, size = %d\n", scans, writers, list.size());
+	}
+
+	private static void report(String op, String name, int n, Benchmark.Op run, int warmups, int iterations, long millis) {
+		double[] samples = Benchmark.measure(run, warmups, iterations, millis);
+		for (int i = 0; i < samples.length; i++)
+			samples[i] *= n / 1e6;
+		System.out.printf("%-8s %-22s %14.2f %12.2f\n", op, name, Benchmark.mean(samples), Benchmark.error(samples));
+	}
+}
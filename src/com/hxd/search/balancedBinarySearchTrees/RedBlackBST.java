@@ -1,8 +1,12 @@
 package com.hxd.search.balancedBinarySearchTrees;
 
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.NoSuchElementException;
+import java.util.function.BiConsumer;
 
 import com.hxd.base.Queue;
+import com.hxd.sort.merge.MergeX;
 
 /**
  *  一颗大小为N的红黑树的高度不会超过2lgN
@@ -467,6 +471,273 @@ public class RedBlackBST <Key extends Comparable<Key>,Value>{
 		return h;
 	}
 	
+	/***************************************************************************
+	 *  Bulk operations.
+	 ***************************************************************************/
+
+	/**
+	 * 候旭东 20261017 批量操作
+	 * 逐个插入N个键需要~NlgN次比较和大量的旋转.如果键已经有序,可以在线性时间内直接构造红黑树:
+	 * 黑色高度为k的2-3树能容纳2^k-1到3^k-1个键,对N个键取k=floor(lg(N+1)),根据键数决定根结点是
+	 * 2-结点还是3-结点(一条红色左链接),再把其余的键尽量平均地分给2个或3个黑色高度为k-1的子树,递归
+	 * 地构造.得到的树满足红黑树的全部性质,没有任何比较和旋转.
+	 * putAll()和deleteRange()改变的键较多时,按中序取出原有的结点,和输入合并后用同样的方法重建整棵树
+	 * (复用原有的结点);改变的键较少时(k*lgN < N)逐个put()或delete()
+	 * */
+
+	/**
+	 * 用严格递增的键和对应的值构造一棵红黑树,和N成正比
+	 * @throws IllegalArgumentException 键没有严格递增,长度不同,或者含有null
+	 */
+	public static <Key extends Comparable<Key>, Value> RedBlackBST<Key, Value> fromSorted(Key[] keys, Value[] values) {
+		checkPairs(keys, values);
+		RedBlackBST<Key, Value> st = new RedBlackBST<Key, Value>();
+		int n = keys.length;
+		RedBlackBST<Key, Value>.Node[] nodes = st.newNodes(n);
+		for (int i = 0; i < n; i++) {
+			if (values[i] == null) throw new IllegalArgumentException("value is null at index " + i);
+			if (i > 0 && keys[i - 1].compareTo(keys[i]) >= 0)
+				throw new IllegalArgumentException("keys are not strictly increasing at index " + i);
+			nodes[i] = st.new Node(keys[i], values[i], BLACK, 1);
+		}
+		st.root = st.build(nodes, n);
+		assert st.check();
+		return st;
+	}
+
+	/**
+	 * 插入一组键值对,和依次调用put()的结果相同:同一个键以最后一次出现为准,值为null表示删除.
+	 * 键不必有序;插入的键较多时先排序,再和原有的键归并并重建整棵树,和NlgN+M成正比
+	 */
+	public void putAll(Key[] keys, Value[] values) {
+		checkPairs(keys, values);
+		int m = keys.length, n = size();
+		if ((long) m * lg(n + m) < n) {
+			for (int i = 0; i < m; i++)
+				put(keys[i], values[i]);
+			return;
+		}
+		int[] order = sortedOrder(keys);
+		Node[] old = inOrder();
+		Node[] merged = newNodes(n + m);
+		int size = 0, i = 0;
+		for (int j = 0; j < m; j++) {
+			Key key = keys[order[j]];
+			// 相等的键只保留最后一个
+			if (j + 1 < m && key.compareTo(keys[order[j + 1]]) == 0) continue;
+			Value value = values[order[j]];
+			while (i < n && old[i].key.compareTo(key) < 0)
+				merged[size++] = old[i++];
+			if (i < n && old[i].key.compareTo(key) == 0) {
+				old[i].value = value;
+				if (value != null) merged[size++] = old[i];
+				i++;
+			}
+			else if (value != null)
+				merged[size++] = new Node(key, value, BLACK, 1);
+		}
+		while (i < n)
+			merged[size++] = old[i++];
+		root = build(merged, size);
+		assert check();
+	}
+
+	/**
+	 * 删除[lo, hi]之间的所有键.删除的键较多时重建整棵树,和N成正比
+	 */
+	public void deleteRange(Key lo, Key hi) {
+		if (lo == null) throw new IllegalArgumentException("first argument to deleteRange() is null");
+		if (hi == null) throw new IllegalArgumentException("second argument to deleteRange() is null");
+		int count = size(lo, hi);
+		if (count == 0) return;
+		int n = size();
+		if ((long) count * lg(n) < n) {
+			int r = rank(lo);
+			for (int i = 0; i < count; i++)
+				delete(select(r));
+			return;
+		}
+		Node[] nodes = newNodes(n - count);
+		int size = collect(root, lo, hi, nodes, 0);
+		assert size == nodes.length;
+		root = build(nodes, size);
+		assert check();
+	}
+
+	/**
+	 * 按顺序对[lo, hi]之间的每个键值对调用action,不创建任何对象
+	 */
+	public void forEach(Key lo, Key hi, BiConsumer<? super Key, ? super Value> action) {
+		if (lo == null) throw new IllegalArgumentException("first argument to forEach() is null");
+		if (hi == null) throw new IllegalArgumentException("second argument to forEach() is null");
+		forEach(root, lo, hi, action);
+	}
+
+	private void forEach(Node x, Key lo, Key hi, BiConsumer<? super Key, ? super Value> action) {
+		if (x == null) return;
+		int cmpLo = lo.compareTo(x.key);
+		int cmpHi = hi.compareTo(x.key);
+		if (cmpLo < 0)					forEach(x.left, lo, hi, action);
+		if (cmpLo <= 0 && cmpHi >= 0)	action.accept(x.key, x.value);
+		if (cmpHi > 0)					forEach(x.right, lo, hi, action);
+	}
+
+	/**
+	 * 和keys(lo, hi)返回相同的键,但是不把它们复制到队列中:迭代器只保存从根结点出发的一条路径
+	 * (红黑树的高度不超过2lgN),逐个中序遍历.迭代期间不能修改符号表
+	 */
+	public Iterable<Key> range(final Key lo, final Key hi) {
+		if (lo == null) throw new IllegalArgumentException("first argument to range() is null");
+		if (hi == null) throw new IllegalArgumentException("second argument to range() is null");
+		return new Iterable<Key>() {
+			public Iterator<Key> iterator() {
+				return new RangeIterator(lo, hi);
+			}
+		};
+	}
+
+	private class RangeIterator implements Iterator<Key> {
+		private final Key lo, hi;
+		private final Node[] stack = newNodes(2 * lg(size() + 1) + 2);
+		private int top;
+
+		RangeIterator(Key lo, Key hi) {
+			this.lo = lo;
+			this.hi = hi;
+			push(root);
+		}
+
+		// 沿左链接下降,跳过小于lo的子树
+		private void push(Node x) {
+			while (x != null) {
+				if (x.key.compareTo(lo) < 0) x = x.right;
+				else {
+					stack[top++] = x;
+					x = x.left;
+				}
+			}
+		}
+
+		public boolean hasNext() {
+			return top > 0 && stack[top - 1].key.compareTo(hi) <= 0;
+		}
+
+		public Key next() {
+			if (!hasNext()) throw new NoSuchElementException();
+			Node x = stack[--top];
+			push(x.right);
+			return x.key;
+		}
+
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+	}
+
+	private static <Key, Value> void checkPairs(Key[] keys, Value[] values) {
+		if (keys == null || values == null) throw new IllegalArgumentException("argument is null");
+		if (keys.length != values.length) throw new IllegalArgumentException("keys and values differ in length");
+		for (int i = 0; i < keys.length; i++)
+			if (keys[i] == null) throw new IllegalArgumentException("key is null at index " + i);
+	}
+
+	private static int lg(int n) {
+		return 31 - Integer.numberOfLeadingZeros(Math.max(n, 1));
+	}
+
+	@SuppressWarnings("unchecked")
+	private Node[] newNodes(int n) {
+		return (Node[]) new RedBlackBST<?, ?>.Node[n];
+	}
+
+	// keys按键排序后的下标,已经有序时不需要排序
+	private static <Key extends Comparable<Key>> int[] sortedOrder(final Key[] keys) {
+		int m = keys.length;
+		int[] order = new int[m];
+		boolean sorted = true;
+		for (int i = 0; i < m; i++) {
+			order[i] = i;
+			if (i > 0 && keys[i - 1].compareTo(keys[i]) > 0) sorted = false;
+		}
+		if (sorted) return order;
+		// 稳定的排序,相等的键保持输入的顺序
+		Integer[] index = new Integer[m];
+		for (int i = 0; i < m; i++)
+			index[i] = i;
+		MergeX.sort(index, new Comparator<Integer>() {
+			public int compare(Integer a, Integer b) {
+				return keys[a].compareTo(keys[b]);
+			}
+		});
+		for (int i = 0; i < m; i++)
+			order[i] = index[i];
+		return order;
+	}
+
+	// 按中序取出所有结点
+	private Node[] inOrder() {
+		Node[] nodes = newNodes(size());
+		inOrder(root, nodes, 0);
+		return nodes;
+	}
+
+	private int inOrder(Node x, Node[] nodes, int n) {
+		if (x == null) return n;
+		n = inOrder(x.left, nodes, n);
+		nodes[n++] = x;
+		return inOrder(x.right, nodes, n);
+	}
+
+	// 按中序取出不在[lo, hi]之间的结点
+	private int collect(Node x, Key lo, Key hi, Node[] nodes, int n) {
+		if (x == null) return n;
+		int cmpLo = lo.compareTo(x.key);
+		int cmpHi = hi.compareTo(x.key);
+		n = collect(x.left, lo, hi, nodes, n);
+		if (cmpLo > 0 || cmpHi < 0) nodes[n++] = x;
+		return collect(x.right, lo, hi, nodes, n);
+	}
+
+	// 用nodes[0..n-1]构造一棵红黑树
+	private Node build(Node[] nodes, int n) {
+		if (n == 0) return null;
+		Node h = build(nodes, 0, n - 1, lg(n + 1));
+		h.color = BLACK;
+		return h;
+	}
+
+	// 用nodes[lo..hi]构造一棵黑色高度为k的红黑树,返回黑色的根结点
+	private Node build(Node[] nodes, int lo, int hi, int k) {
+		int n = hi - lo + 1;
+		if (n == 0) return null;
+		long child = 1;				// 黑色高度为k-1的子树最多容纳3^(k-1)-1个键
+		for (int i = 1; i < k; i++)
+			child *= 3;
+		child -= 1;
+		if (n <= 2 * child + 1) {
+			// 2-结点:其余的键平均分给两个子树
+			int left = (n - 1) / 2;
+			Node h = nodes[lo + left];
+			h.left = build(nodes, lo, lo + left - 1, k - 1);
+			h.right = build(nodes, lo + left + 1, hi, k - 1);
+			h.color = BLACK;
+			h.size = n;
+			return h;
+		}
+		// 3-结点:a是b的红色左子结点,其余的键平均分给三个子树
+		int m = n - 2, c1 = m / 3, c2 = (m - c1) / 2;
+		Node a = nodes[lo + c1], b = nodes[lo + c1 + c2 + 1];
+		a.left = build(nodes, lo, lo + c1 - 1, k - 1);
+		a.right = build(nodes, lo + c1 + 1, lo + c1 + c2, k - 1);
+		a.color = RED;
+		a.size = c1 + c2 + 1;
+		b.left = a;
+		b.right = build(nodes, lo + c1 + c2 + 2, hi, k - 1);
+		b.color = BLACK;
+		b.size = n;
+		return b;
+	}
+
    /***************************************************************************
     *  Utility functions.
     ***************************************************************************/
@@ -823,5 +1094,17 @@ public class RedBlackBST <Key extends Comparable<Key>,Value>{
 		System.out.println("BST's height is " + st.height());
 		System.out.print("print key in In-Order ");st.printInOrder();
 		System.out.println();
+
+		String[] sorted = {"A","C","E","H","L","M","P","R","S","X"};
+		Integer[] values = {0,1,2,3,4,5,6,7,8,9};
+		st = RedBlackBST.fromSorted(sorted, values);
+		System.out.println("fromSorted height is " + st.height());
+		System.out.print("range [C, P] ");
+		for (String s : st.range("C", "P"))
+			System.out.print(s + " ");
+		System.out.println();
+		st.deleteRange("E", "R");
+		System.out.print("after deleteRange [E, R] ");st.printInOrder();
+		System.out.println();
 	}
 }
@@ -0,0 +1,286 @@
+package com.hxd.search.hashlTable;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.hxd.base.Queue;
+
+/**
+ * 候旭东 20261017 线程安全的拉链法散列表
+ * 用一把全局锁保护SeparateChainingHashST时,所有线程的读写都是串行的.这里使用锁分段:
+ *    1: 表被分为S个段(S为2的幂,默认不少于处理器数的4倍),每个段是一个独立的拉链法散列表,有自己的锁,
+ *       键按散列值的高位分配到段,按低位分配到段内的链表.不同段上的写操作互不阻塞;
+ *    2: get()不加锁.链表结点的键不可变,值和next是volatile的,链表头保存在AtomicReferenceArray中,
+ *       写操作在锁内完成,读线程总能看到一条完整的链表;
+ *    3: 每个段在自己的锁内独立地加倍或减半(平均链长超过LOAD时加倍),加倍时复制结点而不修改旧的链表,
+ *       正在旧数组上查找的线程不受影响,其他段的读写也不会被阻塞.
+ * 和SeparateChainingHashST相同,值不允许为null,put(key, null)等价于delete(key).
+ * size()是各段计数之和,keys()逐段遍历,二者在有并发写入时都只是某一时刻附近的近似结果
+ * */
+public class ConcurrentSeparateChainingHashST<Key, Value> {
+	private static final int INIT_CAPACITY = 4;		// 每个段的初始链表数
+	private static final int LOAD = 2;				// 每个段的平均链长超过它时加倍
+
+	private final Segment<Key, Value>[] segments;
+	private final int segmentShift;
+
+	private static final class Node<Key, Value> {
+		final int hash;
+		final Key key;
+		volatile Value value;
+		volatile Node<Key, Value> next;
+
+		Node(int hash, Key key, Value value, Node<Key, Value> next) {
+			this.hash = hash;
+			this.key = key;
+			this.value = value;
+			this.next = next;
+		}
+	}
+
+	/**
+	 * 一个段:数组的大小是2的幂,所有修改都在锁内进行
+	 * */
+	private static final class Segment<Key, Value> extends ReentrantLock {
+		private static final long serialVersionUID = 1L;
+		volatile AtomicReferenceArray<Node<Key, Value>> table;
+		volatile int n;
+
+		Segment(int m) {
+			table = new AtomicReferenceArray<Node<Key, Value>>(m);
+		}
+
+		Value get(Key key, int h) {
+			AtomicReferenceArray<Node<Key, Value>> t = table;
+			for (Node<Key, Value> x = t.get(h & (t.length() - 1)); x != null; x = x.next)
+				if (x.hash == h && key.equals(x.key))
+					return x.value;
+			return null;
+		}
+
+		void put(Key key, int h, Value value) {
+			lock();
+			try {
+				AtomicReferenceArray<Node<Key, Value>> t = table;
+				int i = h & (t.length() - 1);
+				for (Node<Key, Value> x = t.get(i); x != null; x = x.next) {
+					if (x.hash == h && key.equals(x.key)) {
+						x.value = value;
+						return;
+					}
+				}
+				t.set(i, new Node<Key, Value>(h, key, value, t.get(i)));
+				n++;
+				if (n > LOAD * t.length()) resize(2 * t.length());
+			}
+			finally {
+				unlock();
+			}
+		}
+
+		void delete(Key key, int h) {
+			lock();
+			try {
+				AtomicReferenceArray<Node<Key, Value>> t = table;
+				int i = h & (t.length() - 1);
+				Node<Key, Value> prev = null;
+				for (Node<Key, Value> x = t.get(i); x != null; prev = x, x = x.next) {
+					if (x.hash == h && key.equals(x.key)) {
+						// 只修改前驱的next,停在x上的读线程仍然可以沿x.next继续查找
+						if (prev == null) t.set(i, x.next);
+						else              prev.next = x.next;
+						n--;
+						if (t.length() > INIT_CAPACITY && n <= t.length() / 8) resize(t.length() / 2);
+						return;
+					}
+				}
+			}
+			finally {
+				unlock();
+			}
+		}
+
+		// 在锁内调用:把所有结点复制到新数组中,然后一次性发布新数组
+		private void resize(int m) {
+			AtomicReferenceArray<Node<Key, Value>> old = table;
+			AtomicReferenceArray<Node<Key, Value>> t = new AtomicReferenceArray<Node<Key, Value>>(m);
+			for (int j = 0; j < old.length(); j++) {
+				for (Node<Key, Value> x = old.get(j); x != null; x = x.next) {
+					int i = x.hash & (m - 1);
+					t.lazySet(i, new Node<Key, Value>(x.hash, x.key, x.value, t.get(i)));
+				}
+			}
+			table = t;
+		}
+
+		void keys(Queue<Key> queue) {
+			AtomicReferenceArray<Node<Key, Value>> t = table;
+			for (int i = 0; i < t.length(); i++)
+				for (Node<Key, Value> x = t.get(i); x != null; x = x.next)
+					queue.enqueue(x.key);
+		}
+	}
+
+	public ConcurrentSeparateChainingHashST() {
+		this(INIT_CAPACITY, 4 * Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * @param capacity 预计的键数
+	 * @param concurrency 预计同时写入的线程数,段数为不小于它的2的幂
+	 */
+	@SuppressWarnings("unchecked")
+	public ConcurrentSeparateChainingHashST(int capacity, int concurrency) {
+		if (capacity < 0) throw new IllegalArgumentException("capacity is negative: " + capacity);
+		if (concurrency < 1) throw new IllegalArgumentException("concurrency must be positive: " + concurrency);
+		int s = 1, shift = 32;
+		while (s < concurrency && s < 1 << 16) {
+			s <<= 1;
+			shift--;
+		}
+		segmentShift = shift;
+		int m = INIT_CAPACITY;
+		while ((long) m * LOAD * s < capacity)
+			m <<= 1;
+		segments = (Segment<Key, Value>[]) new Segment<?, ?>[s];
+		for (int i = 0; i < s; i++)
+			segments[i] = new Segment<Key, Value>(m);
+	}
+
+	// 乘法散列打乱hashCode(),高位用于选择段,低位用于段内的链表
+	private static int hash(Object key) {
+		int h = key.hashCode() * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+
+	private Segment<Key, Value> segment(int h) {
+		return segments[segmentShift == 32 ? 0 : h >>> segmentShift];
+	}
+
+	public int size() {
+		long n = 0;
+		for (Segment<Key, Value> s : segments)
+			n += s.n;
+		return (int) Math.min(n, Integer.MAX_VALUE);
+	}
+
+	public boolean isEmpty() {
+		for (Segment<Key, Value> s : segments)
+			if (s.n != 0) return false;
+		return true;
+	}
+
+	public boolean contains(Key key) {
+		if (key == null) throw new IllegalArgumentException("argument to contains() is null");
+		return get(key) != null;
+	}
+
+	public Value get(Key key) {
+		if (key == null) throw new IllegalArgumentException("argument to get() is null");
+		int h = hash(key);
+		return segment(h).get(key, h);
+	}
+
+	public void put(Key key, Value value) {
+		if (key == null) throw new IllegalArgumentException("first argument to put() is null");
+		if (value == null) {
+			delete(key);
+			return;
+		}
+		int h = hash(key);
+		segment(h).put(key, h, value);
+	}
+
+	public void delete(Key key) {
+		if (key == null) throw new IllegalArgumentException("argument to delete() is null");
+		int h = hash(key);
+		segment(h).delete(key, h);
+	}
+
+	/**
+	 * 逐段复制所有的键.和其他线程的写操作同时进行时,结果包含开始之前就存在并且没有被删除的所有键,
+	 * 期间插入或删除的键可能出现也可能不出现
+	 * */
+	public Iterable<Key> keys() {
+		Queue<Key> queue = new Queue<Key>();
+		for (Segment<Key, Value> s : segments)
+			s.keys(queue);
+		return queue;
+	}
+
+	/**
+	 * 混合读写的吞吐量,和一把全局锁保护的SeparateChainingHashST比较
+	 * 用法: java ConcurrentSeparateChainingHashST [键数] [写操作的比例] [每个线程的操作数] [最大线程数]
+	 * */
+	public static void main(String[] args) throws InterruptedException {
+		int keys = args.length > 0 ? Integer.parseInt(args[0]) : 1 << 16;
+		double writes = args.length > 1 ? Double.parseDouble(args[1]) : 0.2;
+		int ops = args.length > 2 ? Integer.parseInt(args[2]) : 1 << 21;
+		int maxThreads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+
+		System.out.printf("%d keys, %.0f%% writes, %d ops per thread, %d processors\n",
+				keys, 100 * writes, ops, Runtime.getRuntime().availableProcessors());
+		System.out.printf("%8s %16s %16s\n", "threads", "locked Mops/s", "striped Mops/s");
+		for (int threads = 1; ; threads = Math.min(2 * threads, maxThreads)) {
+			final SeparateChainingHashST<Integer, Integer> locked = new SeparateChainingHashST<Integer, Integer>();
+			final ConcurrentSeparateChainingHashST<Integer, Integer> striped = new ConcurrentSeparateChainingHashST<Integer, Integer>();
+			double a = run(threads, keys, writes, ops, new Workload() {
+				public Integer get(Integer key) { synchronized (locked) { return locked.get(key); } }
+				public void put(Integer key, Integer value) { synchronized (locked) { locked.put(key, value); } }
+				public void delete(Integer key) { synchronized (locked) { locked.delete(key); } }
+			});
+			double b = run(threads, keys, writes, ops, new Workload() {
+				public Integer get(Integer key) { return striped.get(key); }
+				public void put(Integer key, Integer value) { striped.put(key, value); }
+				public void delete(Integer key) { striped.delete(key); }
+			});
+			System.out.printf("%8d %16.2f %16.2f\n", threads, a, b);
+			if (threads >= maxThreads) break;
+		}
+	}
+
+	private interface Workload {
+		Integer get(Integer key);
+		void put(Integer key, Integer value);
+		void delete(Integer key);
+	}
+
+	// threads个线程各执行ops次操作:写操作中插入和删除各占一半,返回总吞吐量(百万次每秒)
+	private static double run(int threads, int keys, double writes, int ops, Workload st) throws InterruptedException {
+		for (int i = 0; i < keys; i += 2)
+			st.put(i, i);
+		CountDownLatch start = new CountDownLatch(1);
+		Thread[] workers = new Thread[threads];
+		final long[] sinks = new long[threads];
+		for (int t = 0; t < threads; t++) {
+			final int id = t;
+			workers[t] = new Thread(() -> {
+				SplittableRandom random = new SplittableRandom(id);
+				long sum = 0;
+				try {
+					start.await();
+				}
+				catch (InterruptedException e) {
+					return;
+				}
+				for (int i = 0; i < ops; i++) {
+					Integer key = random.nextInt(keys);
+					double p = random.nextDouble();
+					if (p >= writes)         { Integer v = st.get(key); if (v != null) sum += v; }
+					else if (p < writes / 2) st.put(key, i);
+					else                     st.delete(key);
+				}
+				sinks[id] = sum;
+			});
+			workers[t].start();
+		}
+		long begin = System.nanoTime();
+		start.countDown();
+		for (Thread worker : workers)
+			worker.join();
+		long elapsed = System.nanoTime() - begin;
+		return (double) threads * ops / elapsed * 1e3;
+	}
+}
@@ -0,0 +1,177 @@
+package com.hxd.search.hashlTable;
+
+import com.hxd.base.Benchmark;
+import com.hxd.introcs.stdlib.StdRandom;
+
+/**
+ * 候旭东 20261017 散列表的基准测试
+ * 第一部分比较IntIntMap和LinearProbingHashST<Integer, Integer>,每组测试对n个随机的int键做一种操作:
+ *    put     向空表中插入n个键(IntIntMap按默认容量开始,和LinearProbingHashST一样需要反复加倍);
+ *    hit     查找n个存在的键;
+ *    miss    查找n个不存在的键;
+ *    churn   删除一半的键再插回去.
+ * 第二部分比较RobinHoodHashST,LinearProbingHashST和SeparateChainingHashST的命中和未命中查找.键数取为
+ * 不大于n的2的幂乘以Robin Hood的装载因子,使RobinHoodHashST的使用率接近装载因子(另外两个散列表的使用率
+ * 由它们自己的加倍策略决定),并报告RobinHoodHashST的探测长度.
+ * 用法: java HashSTBenchmark [n] [装载因子] [预热轮数] [测量轮数] [每轮毫秒数] [Robin Hood的装载因子]
+ * */
+public class HashSTBenchmark {
+	private HashSTBenchmark() {}
+
+	public static void main(String[] args) {
+		int n = args.length > 0 ? Integer.parseInt(args[0]) : 1 << 20;
+		double loadFactor = args.length > 1 ? Double.parseDouble(args[1]) : 0.5;
+		int warmups = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+		int iterations = args.length > 3 ? Integer.parseInt(args[3]) : 5;
+		long millis = args.length > 4 ? Long.parseLong(args[4]) : 1000;
+		double robinHoodLoad = args.length > 5 ? Double.parseDouble(args[5]) : 0.875;
+
+		// 前n个是表中的键,后n个一定不在表中
+		int[] keys = new int[2 * n];
+		IntIntMap seen = new IntIntMap(2 * n, 0.5, 0);
+		for (int i = 0; i < 2 * n; i++) {
+			int key;
+			do key = StdRandom.uniform(-1000000000, 1000000000);
+			while (seen.contains(key));
+			seen.put(key, 1);
+			keys[i] = key;
+		}
+		Integer[] boxed = new Integer[2 * n];
+		for (int i = 0; i < 2 * n; i++)
+			boxed[i] = keys[i];
+
+		IntIntMap prim = new IntIntMap(n, loadFactor, -1);
+		LinearProbingHashST<Integer, Integer> generic = new LinearProbingHashST<Integer, Integer>();
+		for (int i = 0; i < n; i++) {
+			prim.put(keys[i], i);
+			generic.put(boxed[i], i);
+		}
+
+		System.out.printf("n = %d, load factor = %.2f, %d x %d ms\n", n, loadFactor, iterations, millis);
+		System.out.printf("%-8s %-24s %14s %12s\n", "op", "symbol table", "Mops/s", "error(99.9%)");
+
+		report("put", "IntIntMap", n, () -> {
+			IntIntMap st = new IntIntMap(16, loadFactor, -1);
+			for (int i = 0; i < n; i++)
+				st.put(keys[i], i);
+			return st.size();
+		}, warmups, iterations, millis);
+		report("put", "LinearProbingHashST", n, () -> {
+			LinearProbingHashST<Integer, Integer> st = new LinearProbingHashST<Integer, Integer>();
+			for (int i = 0; i < n; i++)
+				st.put(boxed[i], i);
+			return st.size();
+		}, warmups, iterations, millis);
+
+		report("hit", "IntIntMap", n, () -> {
+			long sum = 0;
+			for (int i = 0; i < n; i++)
+				sum += prim.get(keys[i]);
+			return sum;
+		}, warmups, iterations, millis);
+		report("hit", "LinearProbingHashST", n, () -> {
+			long sum = 0;
+			for (int i = 0; i < n; i++)
+				sum += generic.get(boxed[i]);
+			return sum;
+		}, warmups, iterations, millis);
+
+		report("miss", "IntIntMap", n, () -> {
+			long sum = 0;
+			for (int i = n; i < 2 * n; i++)
+				sum += prim.get(keys[i]);
+			return sum;
+		}, warmups, iterations, millis);
+		report("miss", "LinearProbingHashST", n, () -> {
+			long sum = 0;
+			for (int i = n; i < 2 * n; i++)
+				if (generic.get(boxed[i]) == null) sum++;
+			return sum;
+		}, warmups, iterations, millis);
+
+		report("churn", "IntIntMap", n, () -> {
+			for (int i = 0; i < n; i += 2)
+				prim.delete(keys[i]);
+			for (int i = 0; i < n; i += 2)
+				prim.put(keys[i], i);
+			return prim.size();
+		}, warmups, iterations, millis);
+		report("churn", "LinearProbingHashST", n, () -> {
+			for (int i = 0; i < n; i += 2)
+				generic.delete(boxed[i]);
+			for (int i = 0; i < n; i += 2)
+				generic.put(boxed[i], i);
+			return generic.size();
+		}, warmups, iterations, millis);
+
+		generic(keys, boxed, Integer.highestOneBit(n), robinHoodLoad, warmups, iterations, millis);
+	}
+
+	private static void generic(int[] keys, Integer[] boxed, int m, double loadFactor, int warmups, int iterations, long millis) {
+		int n = (int) (m * loadFactor) - 1;
+		RobinHoodHashST<Integer, Integer> robinHood = new RobinHoodHashST<Integer, Integer>(n, loadFactor);
+		LinearProbingHashST<Integer, Integer> linear = new LinearProbingHashST<Integer, Integer>();
+		SeparateChainingHashST<Integer, Integer> chaining = new SeparateChainingHashST<Integer, Integer>();
+		for (int i = 0; i < n; i++) {
+			robinHood.put(boxed[i], i);
+			linear.put(boxed[i], i);
+			chaining.put(boxed[i], i);
+		}
+
+		int[] histogram = robinHood.probeHistogram();
+		int p99 = 0;
+		for (long count = 0; count < 0.99 * n; p99++)
+			count += histogram[p99];
+		System.out.printf("\nn = %d, RobinHoodHashST load = %.3f, probe length: average %.2f, p99 %d, max %d\n",
+				n, robinHood.load(), robinHood.averageProbe(), p99, robinHood.maxProbe());
+		System.out.printf("%-8s %-24s %14s %12s\n", "op", "symbol table", "Mops/s", "error(99.9%)");
+
+		report("hit", "RobinHoodHashST", n, () -> {
+			long sum = 0;
+			for (int i = 0; i < n; i++)
+				sum += robinHood.get(boxed[i]);
+			return sum;
+		}, warmups, iterations, millis);
+		report("hit", "LinearProbingHashST", n, () -> {
+			long sum = 0;
+			for (int i = 0; i < n; i++)
+				sum += linear.get(boxed[i]);
+			return sum;
+		}, warmups, iterations, millis);
+		report("hit", "SeparateChainingHashST", n, () -> {
+			long sum = 0;
+			for (int i = 0; i < n; i++)
+				sum += chaining.get(boxed[i]);
+			return sum;
+		}, warmups, iterations, millis);
+
+		// keys的后一半一定不在表中
+		int offset = keys.length / 2;
+		report("miss", "RobinHoodHashST", n, () -> {
+			long sum = 0;
+			for (int i = offset; i < offset + n; i++)
+				if (robinHood.get(boxed[i]) == null) sum++;
+			return sum;
+		}, warmups, iterations, millis);
+		report("miss", "LinearProbingHashST", n, () -> {
+			long sum = 0;
+			for (int i = offset; i < offset + n; i++)
+				if (linear.get(boxed[i]) == null) sum++;
+			return sum;
+		}, warmups, iterations, millis);
+		report("miss", "SeparateChainingHashST", n, () -> {
+			long sum = 0;
+			for (int i = offset; i < offset + n; i++)
+				if (chaining.get(boxed[i]) == null) sum++;
+			return sum;
+		}, warmups, iterations, millis);
+	}
+
+	// 每次运行op执行n个操作,以百万次操作每秒报告
+	private static void report(String op, String name, int n, Benchmark.Op run, int warmups, int iterations, long millis) {
+		double[] samples = Benchmark.measure(run, warmups, iterations, millis);
+		for (int i = 0; i < samples.length; i++)
+			samples[i] *= n / 1e6;
+		System.out.printf("%-8s %-24s %14.2f %12.2f\n", op, name, Benchmark.mean(samples), Benchmark.error(samples));
+	}
+}
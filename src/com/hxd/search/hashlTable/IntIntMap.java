@@ -0,0 +1,210 @@
+package com.hxd.search.hashlTable;
+
+import java.util.Arrays;
+
+/**
+ * 键和值都是int的线性探测散列表,用于以整数ID为键的计数器等场景.
+ * 和LinearProbingHashST的区别:
+ * <p>
+ *  1: 键和值保存在int[]中,get()和put()不会装箱,也不会调用hashCode()和equals();
+ *  2: 数组的大小总是2的幂,散列值用乘法散列打乱之后取低位,代替除法取余;
+ *  3: 使用率的上限(装载因子)可以配置,达到上限时数组加倍;
+ *  4: 删除时使用反向移位:把被删除位置右侧同一键簇中可以左移的键依次前移填补空位,不需要把键簇中的键全部重新插入,
+ *     删除之后也不会留下"墓碑",查找的成本不会随着删除而增加.
+ * <p>
+ * 键0被用来表示空位,所以键0单独保存在hasZero/zeroValue中.get()在键不存在时返回构造时给定的noValue
+ * <p>
+ * @author 候旭东 20261017
+ * */
+public class IntIntMap {
+	private static final int INIT_CAPACITY = 16;
+	private static final double DEFAULT_LOAD_FACTOR = 0.5;
+	private static final int EMPTY = 0;
+
+	private final double loadFactor;
+	private final int noValue;
+	private int n;				// 键值对的总数(包括键0)
+	private int m;				// 线性探测表的大小,2的幂
+	private int mask;			// m-1
+	private int shift;			// 32-lg(m),hash()取乘积的高lg(m)位
+	private int threshold;		// 表中的键数达到它时加倍
+	private int[] keys;
+	private int[] values;
+	private boolean hasZero;
+	private int zeroValue;
+
+	public IntIntMap() {
+		this(INIT_CAPACITY, DEFAULT_LOAD_FACTOR, 0);
+	}
+
+	/**
+	 * @param capacity 预计的键数,初始化时就分配足够的空间,避免反复加倍
+	 * @param loadFactor 使用率的上限,0到1之间
+	 * @param noValue get()在键不存在时的返回值
+	 */
+	public IntIntMap(int capacity, double loadFactor, int noValue) {
+		if (capacity < 0) throw new IllegalArgumentException("capacity is negative: " + capacity);
+		if (!(loadFactor > 0 && loadFactor < 1)) throw new IllegalArgumentException("load factor must be in (0, 1): " + loadFactor);
+		this.loadFactor = loadFactor;
+		this.noValue = noValue;
+		allocate(tableSize(capacity, loadFactor));
+	}
+
+	// 能够以loadFactor的使用率容纳capacity个键的最小的2的幂
+	static int tableSize(long capacity, double loadFactor) {
+		long size = Math.max(2, (long) Math.ceil(capacity / loadFactor) + 1);
+		long m = Long.highestOneBit(size - 1) << 1;
+		if (m > 1 << 30) throw new IllegalArgumentException("capacity too large: " + capacity);
+		return (int) m;
+	}
+
+	private void allocate(int capacity) {
+		m = capacity;
+		mask = m - 1;
+		shift = 32 - Integer.numberOfTrailingZeros(m);
+		threshold = Math.min(m - 1, (int) (m * loadFactor));
+		keys = new int[m];
+		values = new int[m];
+	}
+
+	public int size() {
+		return n;
+	}
+
+	public boolean isEmpty() {
+		return n == 0;
+	}
+
+	// Fibonacci散列:乘以2^32/黄金分割比并取高lg(m)位,高位和键的所有位都有关,打乱低位相同的键(例如连续的ID)
+	private int hash(int key) {
+		return (key * 0x9E3779B9) >>> shift;
+	}
+
+	public boolean contains(int key) {
+		if (key == EMPTY) return hasZero;
+		for (int i = hash(key); keys[i] != EMPTY; i = (i + 1) & mask)
+			if (keys[i] == key) return true;
+		return false;
+	}
+
+	public int get(int key) {
+		if (key == EMPTY) return hasZero ? zeroValue : noValue;
+		for (int i = hash(key); keys[i] != EMPTY; i = (i + 1) & mask)
+			if (keys[i] == key) return values[i];
+		return noValue;
+	}
+
+	public void put(int key, int value) {
+		if (key == EMPTY) {
+			if (!hasZero) n++;
+			hasZero = true;
+			zeroValue = value;
+			return;
+		}
+		int i;
+		for (i = hash(key); keys[i] != EMPTY; i = (i + 1) & mask) {
+			if (keys[i] == key) {
+				values[i] = value;
+				return;
+			}
+		}
+		keys[i] = key;
+		values[i] = value;
+		if (++n - (hasZero ? 1 : 0) >= threshold) resize(2 * m);
+	}
+
+	/**
+	 * 将key对应的值加上delta(键不存在时从noValue开始),返回新的值.计数器只需要一次探测
+	 * */
+	public int increment(int key, int delta) {
+		if (key == EMPTY) {
+			if (!hasZero) {
+				n++;
+				hasZero = true;
+				zeroValue = noValue;
+			}
+			return zeroValue += delta;
+		}
+		int i;
+		for (i = hash(key); keys[i] != EMPTY; i = (i + 1) & mask)
+			if (keys[i] == key) return values[i] += delta;
+		keys[i] = key;
+		int value = values[i] = noValue + delta;
+		if (++n - (hasZero ? 1 : 0) >= threshold) resize(2 * m);
+		return value;
+	}
+
+	/**
+	 * 反向移位删除:从被删除的位置i向右扫描键簇,如果位置j上的键的散列值h不在(i, j]之间(循环意义下),
+	 * 说明它可以放在i上而不会断开自己的探测序列,将它移到i,然后把j作为新的空位继续扫描,直到遇到空位
+	 * */
+	public void delete(int key) {
+		if (key == EMPTY) {
+			if (hasZero) n--;
+			hasZero = false;
+			return;
+		}
+		int i = hash(key);
+		while (keys[i] != key) {
+			if (keys[i] == EMPTY) return;
+			i = (i + 1) & mask;
+		}
+		n--;
+		for (int j = (i + 1) & mask; keys[j] != EMPTY; j = (j + 1) & mask) {
+			int h = hash(keys[j]);
+			// h在(i, j]之间时键必须留在原处
+			if (((j - h) & mask) >= ((j - i) & mask)) {
+				keys[i] = keys[j];
+				values[i] = values[j];
+				i = j;
+			}
+		}
+		keys[i] = EMPTY;
+		values[i] = 0;
+	}
+
+	private void resize(int capacity) {
+		int[] oldKeys = keys, oldValues = values;
+		allocate(capacity);
+		for (int j = 0; j < oldKeys.length; j++) {
+			int key = oldKeys[j];
+			if (key == EMPTY) continue;
+			int i = hash(key);
+			while (keys[i] != EMPTY)
+				i = (i + 1) & mask;
+			keys[i] = key;
+			values[i] = oldValues[j];
+		}
+	}
+
+	/**
+	 * 所有的键,顺序不确定
+	 * */
+	public int[] keys() {
+		int[] result = new int[n];
+		int k = 0;
+		if (hasZero) result[k++] = EMPTY;
+		for (int i = 0; i < m; i++)
+			if (keys[i] != EMPTY)
+				result[k++] = keys[i];
+		return result;
+	}
+
+	public void clear() {
+		Arrays.fill(keys, EMPTY);
+		Arrays.fill(values, 0);
+		hasZero = false;
+		n = 0;
+	}
+
+	public static void main(String[] args) {
+		IntIntMap st = new IntIntMap();
+		int[] ids = { 7, 3, 0, 7, 42, 3, 7, -1, 1 << 20 };
+		for (int id : ids)
+			st.increment(id, 1);
+		for (int key : st.keys())
+			System.out.println(key + " " + st.get(key));
+		st.delete(7);
+		System.out.println(st.size() + " " + st.contains(7) + " " + st.get(3));
+	}
+}
@@ -0,0 +1,175 @@
+package com.hxd.search.hashlTable;
+
+import com.hxd.base.Queue;
+
+/**
+ * 键为long的线性探测散列表,结构和IntIntMap相同:键保存在long[]中不装箱,数组大小为2的幂,装载因子可以配置,
+ * 删除时反向移位.值不允许为null,和LinearProbingHashST一样,put(key, null)等价于delete(key),
+ * get()在键不存在时返回null
+ * <p>
+ * 键0表示空位,单独保存在zeroValue中(zeroValue不为null表示键0存在)
+ * <p>
+ * @author 候旭东 20261017
+ * */
+public class LongObjectMap<Value> {
+	private static final int INIT_CAPACITY = 16;
+	private static final double DEFAULT_LOAD_FACTOR = 0.5;
+	private static final long EMPTY = 0L;
+
+	private final double loadFactor;
+	private int n;				// 键值对的总数(包括键0)
+	private int m;				// 线性探测表的大小,2的幂
+	private int mask;			// m-1
+	private int shift;			// 64-lg(m),hash()取乘积的高lg(m)位
+	private int threshold;		// 表中的键数达到它时加倍
+	private long[] keys;
+	private Value[] values;
+	private Value zeroValue;
+
+	public LongObjectMap() {
+		this(INIT_CAPACITY, DEFAULT_LOAD_FACTOR);
+	}
+
+	/**
+	 * @param capacity 预计的键数
+	 * @param loadFactor 使用率的上限,0到1之间
+	 */
+	public LongObjectMap(int capacity, double loadFactor) {
+		if (capacity < 0) throw new IllegalArgumentException("capacity is negative: " + capacity);
+		if (!(loadFactor > 0 && loadFactor < 1)) throw new IllegalArgumentException("load factor must be in (0, 1): " + loadFactor);
+		this.loadFactor = loadFactor;
+		allocate(IntIntMap.tableSize(capacity, loadFactor));
+	}
+
+	@SuppressWarnings("unchecked")
+	private void allocate(int capacity) {
+		m = capacity;
+		mask = m - 1;
+		shift = 64 - Integer.numberOfTrailingZeros(m);
+		threshold = Math.min(m - 1, (int) (m * loadFactor));
+		keys = new long[m];
+		values = (Value[]) new Object[m];
+	}
+
+	public int size() {
+		return n;
+	}
+
+	public boolean isEmpty() {
+		return n == 0;
+	}
+
+	// 和IntIntMap一样使用Fibonacci散列,乘以2^64/黄金分割比并取高lg(m)位
+	private int hash(long key) {
+		return (int) ((key * 0x9E3779B97F4A7C15L) >>> shift);
+	}
+
+	public boolean contains(long key) {
+		return get(key) != null;
+	}
+
+	public Value get(long key) {
+		if (key == EMPTY) return zeroValue;
+		for (int i = hash(key); keys[i] != EMPTY; i = (i + 1) & mask)
+			if (keys[i] == key) return values[i];
+		return null;
+	}
+
+	public void put(long key, Value value) {
+		if (value == null) {
+			delete(key);
+			return;
+		}
+		if (key == EMPTY) {
+			if (zeroValue == null) n++;
+			zeroValue = value;
+			return;
+		}
+		int i;
+		for (i = hash(key); keys[i] != EMPTY; i = (i + 1) & mask) {
+			if (keys[i] == key) {
+				values[i] = value;
+				return;
+			}
+		}
+		keys[i] = key;
+		values[i] = value;
+		if (++n - (zeroValue != null ? 1 : 0) >= threshold) resize(2 * m);
+	}
+
+	/**
+	 * 反向移位删除,见IntIntMap.delete()
+	 * */
+	public void delete(long key) {
+		if (key == EMPTY) {
+			if (zeroValue != null) n--;
+			zeroValue = null;
+			return;
+		}
+		int i = hash(key);
+		while (keys[i] != key) {
+			if (keys[i] == EMPTY) return;
+			i = (i + 1) & mask;
+		}
+		n--;
+		for (int j = (i + 1) & mask; keys[j] != EMPTY; j = (j + 1) & mask) {
+			int h = hash(keys[j]);
+			if (((j - h) & mask) >= ((j - i) & mask)) {
+				keys[i] = keys[j];
+				values[i] = values[j];
+				i = j;
+			}
+		}
+		keys[i] = EMPTY;
+		values[i] = null;
+	}
+
+	private void resize(int capacity) {
+		long[] oldKeys = keys;
+		Value[] oldValues = values;
+		allocate(capacity);
+		for (int j = 0; j < oldKeys.length; j++) {
+			long key = oldKeys[j];
+			if (key == EMPTY) continue;
+			int i = hash(key);
+			while (keys[i] != EMPTY)
+				i = (i + 1) & mask;
+			keys[i] = key;
+			values[i] = oldValues[j];
+		}
+	}
+
+	/**
+	 * 所有的键,顺序不确定
+	 * */
+	public long[] keys() {
+		long[] result = new long[n];
+		int k = 0;
+		if (zeroValue != null) result[k++] = EMPTY;
+		for (int i = 0; i < m; i++)
+			if (keys[i] != EMPTY)
+				result[k++] = keys[i];
+		return result;
+	}
+
+	public Iterable<Value> values() {
+		Queue<Value> queue = new Queue<Value>();
+		if (zeroValue != null) queue.enqueue(zeroValue);
+		for (int i = 0; i < m; i++)
+			if (keys[i] != EMPTY)
+				queue.enqueue(values[i]);
+		return queue;
+	}
+
+	public static void main(String[] args) {
+		LongObjectMap<String> st = new LongObjectMap<String>();
+		long[] ids = { 13800138000L, 0L, -5L, 1L << 40, 13800138000L };
+		String[] names = { "a", "zero", "negative", "big", "b" };
+		for (int i = 0; i < ids.length; i++)
+			st.put(ids[i], names[i]);
+		for (long key : st.keys())
+			System.out.println(key + " " + st.get(key));
+		st.put(-5L, null);
+		System.out.println(st.size() + " " + st.contains(-5L));
+	}
+}
@@ -0,0 +1,227 @@
+package com.hxd.search.hashlTable;
+
+import com.hxd.base.Queue;
+
+/**
+ * 候旭东 20261017 Robin Hood散列
+ * LinearProbingHashST在使用率接近1时键簇很长,个别键的探测序列会远远长于平均值.Robin Hood散列仍然是线性探测,
+ * 但是插入时比较"距离"(键所在位置和它的散列值之间的偏移):
+ *    1: 插入的键遇到一个距离比自己短的键时,两者交换,由被换出的键继续向后探测.所有键的距离因此比较平均,
+ *       最长的探测序列(尾延迟)大大缩短;
+ *    2: 查找时一旦遇到距离比当前探测步数短的键,就可以断定要找的键不存在,未命中的查找不必走到空位;
+ *    3: 删除时使用反向移位,把后面距离大于0的键依次前移一位,不需要"墓碑".
+ * 每个位置还保存了键的散列值,探测时先比较int,散列值相同时才调用equals(),扫描的是连续的int数组,
+ * 所以使用率达到0.85以上时查找仍然是缓存友好的.默认的装载因子为0.875.
+ * probeHistogram()等方法报告命中查找的探测长度的分布
+ * */
+public class RobinHoodHashST<Key, Value> {
+	private static final int INIT_CAPACITY = 16;
+	private static final double DEFAULT_LOAD_FACTOR = 0.875;
+	private static final int EMPTY = 0;
+
+	private final double loadFactor;
+	private int n;				// 键值对的总数
+	private int m;				// 表的大小,2的幂
+	private int mask;			// m-1
+	private int threshold;		// 键数达到它时加倍
+	private int[] hashes;		// 键的散列值,最高位总是1,0表示空位
+	private Key[] keys;
+	private Value[] vals;
+
+	public RobinHoodHashST() {
+		this(INIT_CAPACITY, DEFAULT_LOAD_FACTOR);
+	}
+
+	/**
+	 * @param capacity 预计的键数
+	 * @param loadFactor 使用率的上限,0到1之间
+	 */
+	public RobinHoodHashST(int capacity, double loadFactor) {
+		if (capacity < 0) throw new IllegalArgumentException("capacity is negative: " + capacity);
+		if (!(loadFactor > 0 && loadFactor < 1)) throw new IllegalArgumentException("load factor must be in (0, 1): " + loadFactor);
+		this.loadFactor = loadFactor;
+		allocate(IntIntMap.tableSize(capacity, loadFactor));
+	}
+
+	@SuppressWarnings("unchecked")
+	private void allocate(int capacity) {
+		m = capacity;
+		mask = m - 1;
+		threshold = Math.min(m - 1, (int) (m * loadFactor));
+		hashes = new int[m];
+		keys = (Key[]) new Object[m];
+		vals = (Value[]) new Object[m];
+	}
+
+	// 打乱hashCode()并把最高位置1,使散列值不会等于EMPTY.位置只取低位,不受最高位影响
+	private static int hash(Object key) {
+		int h = key.hashCode() * 0x9E3779B9;
+		return (h ^ (h >>> 16)) | Integer.MIN_VALUE;
+	}
+
+	// 散列值为h的键在位置i时的距离
+	private int distance(int h, int i) {
+		return (i - h) & mask;
+	}
+
+	public int size() {
+		return n;
+	}
+
+	public boolean isEmpty() {
+		return n == 0;
+	}
+
+	public boolean contains(Key key) {
+		if (key == null) throw new IllegalArgumentException("argument to contains() is null");
+		return get(key) != null;
+	}
+
+	public Value get(Key key) {
+		if (key == null) throw new IllegalArgumentException("argument to get() is null");
+		int i = indexOf(key, hash(key));
+		return i < 0 ? null : vals[i];
+	}
+
+	// 键所在的位置,不存在时返回-1
+	private int indexOf(Key key, int h) {
+		for (int i = h & mask, d = 0; ; i = (i + 1) & mask, d++) {
+			int hi = hashes[i];
+			if (hi == EMPTY || distance(hi, i) < d) return -1;
+			if (hi == h && key.equals(keys[i])) return i;
+		}
+	}
+
+	public void put(Key key, Value value) {
+		if (key == null) throw new IllegalArgumentException("first argument to put() is null");
+		if (value == null) {
+			delete(key);
+			return;
+		}
+		int h = hash(key);
+		int i = indexOf(key, h);
+		if (i >= 0) {
+			vals[i] = value;
+			return;
+		}
+		if (n >= threshold) resize(2 * m);
+		insert(h, key, value);
+		n++;
+	}
+
+	// 插入一个表中没有的键:距离比当前的键短的位置被"劫富济贫",换出的键继续向后探测
+	private void insert(int h, Key key, Value value) {
+		for (int i = h & mask, d = 0; ; i = (i + 1) & mask, d++) {
+			int hi = hashes[i];
+			if (hi == EMPTY) {
+				hashes[i] = h;
+				keys[i] = key;
+				vals[i] = value;
+				return;
+			}
+			int di = distance(hi, i);
+			if (di < d) {
+				Key k = keys[i];
+				Value v = vals[i];
+				hashes[i] = h;
+				keys[i] = key;
+				vals[i] = value;
+				h = hi;
+				key = k;
+				value = v;
+				d = di;
+			}
+		}
+	}
+
+	public void delete(Key key) {
+		if (key == null) throw new IllegalArgumentException("argument to delete() is null");
+		int i = indexOf(key, hash(key));
+		if (i < 0) return;
+		// 反向移位:后面的键只要不在自己的散列位置上,就前移一位
+		for (int j = (i + 1) & mask; hashes[j] != EMPTY && distance(hashes[j], j) > 0; i = j, j = (j + 1) & mask) {
+			hashes[i] = hashes[j];
+			keys[i] = keys[j];
+			vals[i] = vals[j];
+		}
+		hashes[i] = EMPTY;
+		keys[i] = null;
+		vals[i] = null;
+		n--;
+	}
+
+	private void resize(int capacity) {
+		int[] oldHashes = hashes;
+		Key[] oldKeys = keys;
+		Value[] oldVals = vals;
+		allocate(capacity);
+		for (int i = 0; i < oldHashes.length; i++)
+			if (oldHashes[i] != EMPTY)
+				insert(oldHashes[i], oldKeys[i], oldVals[i]);
+	}
+
+	public Iterable<Key> keys() {
+		Queue<Key> queue = new Queue<Key>();
+		for (int i = 0; i < m; i++)
+			if (hashes[i] != EMPTY)
+				queue.enqueue(keys[i]);
+		return queue;
+	}
+
+	/***************************************************************************
+	 *  探测长度的统计:命中的查找需要探测 距离+1 个位置
+	 ***************************************************************************/
+
+	/**
+	 * 当前的使用率 n/m
+	 * */
+	public double load() {
+		return (double) n / m;
+	}
+
+	/**
+	 * histogram[d]为距离等于d的键数
+	 * */
+	public int[] probeHistogram() {
+		int[] histogram = new int[maxProbe()];
+		for (int i = 0; i < m; i++)
+			if (hashes[i] != EMPTY)
+				histogram[distance(hashes[i], i)]++;
+		return histogram;
+	}
+
+	/**
+	 * 命中查找的最长探测长度
+	 * */
+	public int maxProbe() {
+		int max = 0;
+		for (int i = 0; i < m; i++)
+			if (hashes[i] != EMPTY)
+				max = Math.max(max, distance(hashes[i], i) + 1);
+		return max;
+	}
+
+	/**
+	 * 命中查找的平均探测长度
+	 * */
+	public double averageProbe() {
+		if (n == 0) return 0;
+		long total = 0;
+		for (int i = 0; i < m; i++)
+			if (hashes[i] != EMPTY)
+				total += distance(hashes[i], i) + 1;
+		return (double) total / n;
+	}
+
+	public static void main(String[] args) {
+		RobinHoodHashST<String, Integer> st = new RobinHoodHashST<String, Integer>();
+		String[] strings = new String[]{"S","E","A","R","C","H","E","X","A","M","P","L","E"};
+		int i = 0;
+		for (String string : strings)
+			st.put(string, i++);
+		for (String s : st.keys())
+			System.out.println(s + " " + st.get(s));
+		System.out.printf("size %d, load %.2f, average probe %.2f, max probe %d\n",
+				st.size(), st.load(), st.averageProbe(), st.maxProbe());
+	}
+}
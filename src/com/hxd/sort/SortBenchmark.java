@@ -0,0 +1,308 @@
+package com.hxd.sort;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.hxd.base.Benchmark;
+import com.hxd.introcs.stdlib.StdRandom;
+import com.hxd.introcs.stdlib.StdStats;
+import com.hxd.sort.base.Insertion;
+import com.hxd.sort.base.InsertionX;
+import com.hxd.sort.base.Selection;
+import com.hxd.sort.base.Shell;
+import com.hxd.sort.merge.Merge;
+import com.hxd.sort.merge.MergeBU;
+import com.hxd.sort.merge.MergeX;
+import com.hxd.sort.merge.ParallelMerge;
+import com.hxd.sort.priorityQueue.Heap;
+import com.hxd.sort.quick.ParallelQuick;
+import com.hxd.sort.quick.Quick;
+import com.hxd.sort.quick.Quick3Way;
+import com.hxd.sort.quick.Quick3WayX;
+
+/**
+ * 候旭东 20261017 排序算法的基准测试
+ * SortCompare只对一次排序计时,结果中混入了JIT预热,GC和Double[]的分配时间.这里按照JMH的方式组织测量:
+ *    1: 每个(算法,输入分布,规模)组合先做若干轮预热,再做若干轮测量;
+ *    2: 输入在计时之外生成一次,每次排序之前用System.arraycopy复制到同一个工作数组,计时只包含排序本身;
+ *    3: 每轮至少运行一段固定的时间,报告吞吐量(ops/s)的均值和99.9%置信区间(Student t分布);
+ *    4: 每次排序之后(计时之外)检查结果是否有序,防止错误的实现得到虚高的成绩.
+ * 输入分布: random(均匀随机), sorted(有序), reverse(逆序), few(只有10个不同的主键), zipf(Zipf分布,s=1)
+ *
+ * 算法名带有.int/.long/.double后缀的是基本类型的版本,和同名的装箱版本使用同一组主键
+ *
+ * 用法: java SortBenchmark [算法列表|all] [规模列表] [分布列表|all] [预热轮数] [测量轮数] [每轮毫秒数]
+ *   例如 java SortBenchmark Merge,MergeX,Quick 1000,100000 random,zipf 5 10 200
+ * 构建环境中没有JMH的依赖,所以这里没有forks,所有组合在同一个JVM中运行;比较结果时以置信区间是否重叠为准
+ * */
+@SuppressWarnings("rawtypes")
+public class SortBenchmark {
+	private static final String[] DISTRIBUTIONS = { "random", "sorted", "reverse", "few", "zipf" };
+	private static final int FEW_DISTINCT = 10;
+	private static final double ZIPF_EXPONENT = 1.0;
+
+	private SortBenchmark() {}
+
+	/**
+	 * 被测的排序算法.prepare()在计时之外把同一组主键转换成算法需要的数组(Double[],int[]...),
+	 * sort()对该数组排序,isSorted()在计时之外检查结果
+	 * */
+	abstract static class Case {
+		final String name;
+		Case(String name) { this.name = name; }
+		abstract Object prepare(double[] keys);
+		abstract void sort(Object a);
+		abstract boolean isSorted(Object a);
+	}
+
+	interface ComparableSorter { void sort(Comparable[] a); }
+
+	/**
+	 * 基于Comparable[]的排序算法,主键装箱为Double
+	 * */
+	static class BoxedCase extends Case {
+		private final ComparableSorter sorter;
+		BoxedCase(String name, ComparableSorter sorter) {
+			super(name);
+			this.sorter = sorter;
+		}
+		Object prepare(double[] keys) {
+			Double[] a = new Double[keys.length];
+			for (int i = 0; i < keys.length; i++)
+				a[i] = keys[i];
+			return a;
+		}
+		void sort(Object a) { sorter.sort((Comparable[]) a); }
+		@SuppressWarnings("unchecked")
+		boolean isSorted(Object o) {
+			Comparable[] a = (Comparable[]) o;
+			for (int i = 1; i < a.length; i++)
+				if (a[i].compareTo(a[i-1]) < 0) return false;
+			return true;
+		}
+	}
+
+	interface IntSorter { void sort(int[] a); }
+	interface LongSorter { void sort(long[] a); }
+	interface DoubleSorter { void sort(double[] a); }
+
+	/**
+	 * 基本类型的排序算法,和BoxedCase使用同一组主键,便于比较装箱的开销
+	 * */
+	static class IntCase extends Case {
+		private final IntSorter sorter;
+		IntCase(String name, IntSorter sorter) {
+			super(name);
+			this.sorter = sorter;
+		}
+		Object prepare(double[] keys) {
+			int[] a = new int[keys.length];
+			for (int i = 0; i < keys.length; i++)
+				a[i] = (int) keys[i];
+			return a;
+		}
+		void sort(Object a) { sorter.sort((int[]) a); }
+		boolean isSorted(Object o) {
+			int[] a = (int[]) o;
+			for (int i = 1; i < a.length; i++)
+				if (a[i] < a[i-1]) return false;
+			return true;
+		}
+	}
+
+	static class LongCase extends Case {
+		private final LongSorter sorter;
+		LongCase(String name, LongSorter sorter) {
+			super(name);
+			this.sorter = sorter;
+		}
+		Object prepare(double[] keys) {
+			long[] a = new long[keys.length];
+			for (int i = 0; i < keys.length; i++)
+				a[i] = (long) keys[i];
+			return a;
+		}
+		void sort(Object a) { sorter.sort((long[]) a); }
+		boolean isSorted(Object o) {
+			long[] a = (long[]) o;
+			for (int i = 1; i < a.length; i++)
+				if (a[i] < a[i-1]) return false;
+			return true;
+		}
+	}
+
+	static class DoubleCase extends Case {
+		private final DoubleSorter sorter;
+		DoubleCase(String name, DoubleSorter sorter) {
+			super(name);
+			this.sorter = sorter;
+		}
+		Object prepare(double[] keys) {
+			return keys.clone();
+		}
+		void sort(Object a) { sorter.sort((double[]) a); }
+		boolean isSorted(Object o) {
+			double[] a = (double[]) o;
+			for (int i = 1; i < a.length; i++)
+				if (Double.compare(a[i], a[i-1]) < 0) return false;
+			return true;
+		}
+	}
+
+	private static final Map<String, Case> CASES = new LinkedHashMap<String, Case>();
+	static {
+		register(new BoxedCase("Insertion",  Insertion::sort));
+		register(new BoxedCase("InsertionX", InsertionX::sort));
+		register(new BoxedCase("Selection",  Selection::sort));
+		register(new BoxedCase("Shell",      Shell::sort));
+		register(new BoxedCase("Merge",      Merge::sort));
+		register(new BoxedCase("MergeBU",    MergeBU::sort));
+		register(new BoxedCase("MergeX",     MergeX::sort));
+		register(new BoxedCase("Quick",      Quick::sort));
+		register(new BoxedCase("Quick3Way",  Quick3Way::sort));
+		register(new BoxedCase("Quick3WayX", Quick3WayX::sort));
+		register(new BoxedCase("Heap",       Heap::sort));
+		//泛型的sort(T[])不接受原始类型的Comparable[],BoxedCase中的数组都是Double[]
+		register(new BoxedCase("ParallelMerge", a -> ParallelMerge.sort((Double[]) a)));
+		register(new BoxedCase("ParallelQuick3Way", a -> ParallelQuick.sort((Double[]) a, ParallelQuick.Partition.THREE_WAY)));
+		register(new BoxedCase("ParallelDualPivot", a -> ParallelQuick.sort((Double[]) a, ParallelQuick.Partition.DUAL_PIVOT)));
+
+		//基本类型的版本,名字后缀为主键类型
+		register(new IntCase("Shell.int",           Shell::sort));
+		register(new IntCase("MergeX.int",          MergeX::sort));
+		register(new IntCase("Quick.int",           Quick::sort));
+		register(new IntCase("Quick3Way.int",       Quick3Way::sort));
+		register(new IntCase("Heap.int",            Heap::sort));
+		register(new LongCase("Shell.long",         Shell::sort));
+		register(new LongCase("MergeX.long",        MergeX::sort));
+		register(new LongCase("Quick.long",         Quick::sort));
+		register(new LongCase("Quick3Way.long",     Quick3Way::sort));
+		register(new LongCase("Heap.long",          Heap::sort));
+		register(new DoubleCase("Shell.double",     Shell::sort));
+		register(new DoubleCase("MergeX.double",    MergeX::sort));
+		register(new DoubleCase("Quick.double",     Quick::sort));
+		register(new DoubleCase("Quick3Way.double", Quick3Way::sort));
+		register(new DoubleCase("Heap.double",      Heap::sort));
+	}
+
+	static void register(Case c) {
+		CASES.put(c.name, c);
+	}
+
+	/**
+	 * 按分布生成n个主键.主键都是整数值,以便同一组数据也能转换成int[]和long[]
+	 * */
+	public static double[] generate(String dist, int n) {
+		double[] keys = new double[n];
+		if (dist.equals("random")) {
+			for (int i = 0; i < n; i++)
+				keys[i] = StdRandom.uniform(Integer.MAX_VALUE);
+		}
+		else if (dist.equals("sorted")) {
+			for (int i = 0; i < n; i++)
+				keys[i] = i;
+		}
+		else if (dist.equals("reverse")) {
+			for (int i = 0; i < n; i++)
+				keys[i] = n - i;
+		}
+		else if (dist.equals("few")) {
+			for (int i = 0; i < n; i++)
+				keys[i] = StdRandom.uniform(FEW_DISTINCT);
+		}
+		else if (dist.equals("zipf")) {
+			//第k个主键出现的概率正比于1/k^s,用累积分布的二分查找抽样
+			double[] cdf = new double[Math.max(n, 1)];
+			double sum = 0.0;
+			for (int k = 0; k < cdf.length; k++) {
+				sum += 1.0 / Math.pow(k + 1, ZIPF_EXPONENT);
+				cdf[k] = sum;
+			}
+			for (int i = 0; i < n; i++) {
+				int k = Arrays.binarySearch(cdf, StdRandom.uniform() * sum);
+				keys[i] = k >= 0 ? k : -k - 1;
+			}
+		}
+		else throw new IllegalArgumentException("Invalid distribution: " + dist);
+		return keys;
+	}
+
+	/**
+	 * 对一个组合测量一轮:反复复制输入并排序,直到排序累计时间达到millis毫秒.返回每秒排序次数
+	 * */
+	private static double iteration(Case c, Object source, Object work, int n, long millis) {
+		long budget = millis * 1000000L;
+		long elapsed = 0;
+		long ops = 0;
+		while (elapsed < budget) {
+			System.arraycopy(source, 0, work, 0, n);
+			long start = System.nanoTime();
+			c.sort(work);
+			elapsed += System.nanoTime() - start;
+			ops++;
+			if (!c.isSorted(work))
+				throw new IllegalStateException(c.name + " did not sort its input");
+		}
+		return ops * 1e9 / elapsed;
+	}
+
+	/**
+	 * 预热warmups轮之后测量iterations轮,返回每轮的吞吐量
+	 * */
+	public static double[] measure(Case c, double[] keys, int warmups, int iterations, long millis) {
+		Object source = c.prepare(keys);
+		Object work = c.prepare(keys);
+		for (int i = 0; i < warmups; i++)
+			iteration(c, source, work, keys.length, millis);
+		double[] result = new double[iterations];
+		for (int i = 0; i < iterations; i++)
+			result[i] = iteration(c, source, work, keys.length, millis);
+		return result;
+	}
+
+	private static List<String> select(String arg, Iterable<String> all) {
+		List<String> names = new ArrayList<String>();
+		if (arg == null || arg.equals("all")) {
+			for (String s : all)
+				names.add(s);
+		}
+		else names.addAll(Arrays.asList(arg.split(",")));
+		return names;
+	}
+
+	public static void main(String[] args) {
+		List<String> algs = select(args.length > 0 ? args[0] : null, CASES.keySet());
+		String sizes = args.length > 1 ? args[1] : "1000,10000";
+		List<String> dists = select(args.length > 2 ? args[2] : null, Arrays.asList(DISTRIBUTIONS));
+		int warmups = args.length > 3 ? Integer.parseInt(args[3]) : 5;
+		int iterations = args.length > 4 ? Integer.parseInt(args[4]) : 10;
+		long millis = args.length > 5 ? Long.parseLong(args[5]) : 200;
+
+		System.out.printf("%-20s %-8s %10s %14s %14s %8s\n", "Benchmark", "dist", "n", "ops/s", "error(99.9%)", "ns/key");
+		for (String s : sizes.split(",")) {
+			int n = Integer.parseInt(s);
+			for (String dist : dists) {
+				double[] keys = generate(dist, n);
+				for (String alg : algs) {
+					Case c = CASES.get(alg);
+					if (c == null) throw new IllegalArgumentException("Invalid algorithm: " + alg);
+					double[] samples;
+					try {
+						samples = measure(c, keys, warmups, iterations, millis);
+					}
+					catch (IllegalStateException | StackOverflowError e) {
+						//例如不打乱输入的Quick3Way在有序的大数组上递归过深,记录失败后继续测量其他组合
+						System.out.printf("%-20s %-8s %10d %s\n", alg, dist, n, "FAILED: " + e);
+						continue;
+					}
+					double mean = StdStats.mean(samples);
+					System.out.printf("%-20s %-8s %10d %14.3f %14.3f %8.2f\n",
+							alg, dist, n, mean, Benchmark.error(samples), 1e9 / mean / n);
+				}
+			}
+		}
+	}
+}
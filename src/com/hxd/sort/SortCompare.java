@@ -12,6 +12,7 @@ import com.hxd.sort.quick.Quick;
 
 /**
  * 候旭东  20161216 比较两种排序算法的时间
+ * 只对每次排序计时一次,结果包含JIT预热和GC的影响,需要可靠的数据时使用SortBenchmark
  * */
 public class SortCompare {
 	
@@ -28,6 +28,37 @@ public abstract class Example {
 		a[i]=a[j];
 		a[j]=t;
 	}
+	/**
+	 * 基本类型的比较,内循环中不装箱也不调用compareTo().
+	 * double按照Double.compare()的全序比较(-0.0 < 0.0,NaN最大),和Double.compareTo()的结果一致
+	 * */
+	protected static boolean less(int v,int w){
+		return v<w;
+	}
+	protected static boolean less(long v,long w){
+		return v<w;
+	}
+	protected static boolean less(double v,double w){
+		return Double.compare(v,w)<0;
+	}
+	/**
+	 * 基本类型的交换
+	 * */
+	protected static void exch(int[] a,int i,int j){
+		int t = a[i];
+		a[i]=a[j];
+		a[j]=t;
+	}
+	protected static void exch(long[] a,int i,int j){
+		long t = a[i];
+		a[i]=a[j];
+		a[j]=t;
+	}
+	protected static void exch(double[] a,int i,int j){
+		double t = a[i];
+		a[i]=a[j];
+		a[j]=t;
+	}
 	/**
 	 * 输出
 	 * */
@@ -23,8 +23,8 @@ public class Selection extends Example{
 			for (int j = i+1; j < N; j++) {
 				if (less(a[j], a[min]))
 					min=j;
-				exch(a, i, min);
 			}
+			exch(a, i, min);
 		}
 	}
 	
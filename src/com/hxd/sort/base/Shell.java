@@ -42,6 +42,66 @@ public class Shell extends Example {
 		}
 	}
 	
+	/**
+	 * int[]版本,使用相同的递增序列,用半交换(将较大的元素右移h位)代替exch()
+	 * */
+	public static void sort(int[] a){
+		int N=a.length;
+		int h=1;
+		while (h<N/3)
+			h=3*h+1;
+		while(h>=1){
+			for (int i = h; i < N; i++) {
+				int v=a[i];
+				int j=i;
+				for (; j >=h && less(v, a[j-h]); j-=h)
+					a[j]=a[j-h];
+				a[j]=v;
+			}
+			h=h/3;
+		}
+	}
+
+	/**
+	 * long[]版本,使用相同的递增序列,用半交换(将较大的元素右移h位)代替exch()
+	 * */
+	public static void sort(long[] a){
+		int N=a.length;
+		int h=1;
+		while (h<N/3)
+			h=3*h+1;
+		while(h>=1){
+			for (int i = h; i < N; i++) {
+				long v=a[i];
+				int j=i;
+				for (; j >=h && less(v, a[j-h]); j-=h)
+					a[j]=a[j-h];
+				a[j]=v;
+			}
+			h=h/3;
+		}
+	}
+
+	/**
+	 * double[]版本,使用相同的递增序列,用半交换(将较大的元素右移h位)代替exch()
+	 * */
+	public static void sort(double[] a){
+		int N=a.length;
+		int h=1;
+		while (h<N/3)
+			h=3*h+1;
+		while(h>=1){
+			for (int i = h; i < N; i++) {
+				double v=a[i];
+				int j=i;
+				for (; j >=h && less(v, a[j-h]); j-=h)
+					a[j]=a[j-h];
+				a[j]=v;
+			}
+			h=h/3;
+		}
+	}
+
 	public static void main(String[] args) {
 		String[] a = new String[]{"bed","bug","dad","yes","zoo","now","for"
 				,"tip","ilk","dim","tag","jot","sob","nob","sky","hut","men","egg","few","jay","owl",
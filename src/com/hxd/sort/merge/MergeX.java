@@ -125,7 +125,8 @@ public class MergeX extends Example{
     }
 
 
-    private static void sort(Object[] src, Object[] dst, int lo, int hi, Comparator comparator) {
+    // ParallelMerge在顺序阈值以下直接调用这个方法
+    static void sort(Object[] src, Object[] dst, int lo, int hi, Comparator comparator) {
         // if (hi <= lo) return;
         if (hi <= lo + CUTOFF) { 
             insertionSort(dst, lo, hi, comparator);
@@ -152,6 +153,153 @@ public class MergeX extends Example{
     }
 
 
+    /*******************************************************************
+     *  Primitive versions (int[], long[], double[]): same algorithm,
+     *  no boxing and no compareTo() in the inner loops.
+     *******************************************************************/
+
+    /**
+     * Rearranges the int[] array in ascending order.
+     * @param a the array to be sorted
+     */
+    public static void sort(int[] a) {
+        int[] aux = a.clone();
+        sort(aux, a, 0, a.length-1);
+    }
+
+    private static void merge(int[] src, int[] dst, int lo, int mid, int hi) {
+        int i = lo, j = mid+1;
+        for (int k = lo; k <= hi; k++) {
+            if      (i > mid)              dst[k] = src[j++];
+            else if (j > hi)               dst[k] = src[i++];
+            else if (less(src[j], src[i])) dst[k] = src[j++];
+            else                           dst[k] = src[i++];
+        }
+    }
+
+    private static void sort(int[] src, int[] dst, int lo, int hi) {
+        if (hi <= lo + CUTOFF) {
+            insertionSort(dst, lo, hi);
+            return;
+        }
+        int mid = lo + (hi - lo) / 2;
+        sort(dst, src, lo, mid);
+        sort(dst, src, mid+1, hi);
+
+        if (!less(src[mid+1], src[mid])) {
+            System.arraycopy(src, lo, dst, lo, hi - lo + 1);
+            return;
+        }
+
+        merge(src, dst, lo, mid, hi);
+    }
+
+    // sort from a[lo] to a[hi] using insertion sort with half-exchanges
+    private static void insertionSort(int[] a, int lo, int hi) {
+        for (int i = lo + 1; i <= hi; i++) {
+            int v = a[i];
+            int j = i;
+            for (; j > lo && less(v, a[j-1]); j--)
+                a[j] = a[j-1];
+            a[j] = v;
+        }
+    }
+
+    /**
+     * Rearranges the long[] array in ascending order.
+     * @param a the array to be sorted
+     */
+    public static void sort(long[] a) {
+        long[] aux = a.clone();
+        sort(aux, a, 0, a.length-1);
+    }
+
+    private static void merge(long[] src, long[] dst, int lo, int mid, int hi) {
+        int i = lo, j = mid+1;
+        for (int k = lo; k <= hi; k++) {
+            if      (i > mid)              dst[k] = src[j++];
+            else if (j > hi)               dst[k] = src[i++];
+            else if (less(src[j], src[i])) dst[k] = src[j++];
+            else                           dst[k] = src[i++];
+        }
+    }
+
+    private static void sort(long[] src, long[] dst, int lo, int hi) {
+        if (hi <= lo + CUTOFF) {
+            insertionSort(dst, lo, hi);
+            return;
+        }
+        int mid = lo + (hi - lo) / 2;
+        sort(dst, src, lo, mid);
+        sort(dst, src, mid+1, hi);
+
+        if (!less(src[mid+1], src[mid])) {
+            System.arraycopy(src, lo, dst, lo, hi - lo + 1);
+            return;
+        }
+
+        merge(src, dst, lo, mid, hi);
+    }
+
+    // sort from a[lo] to a[hi] using insertion sort with half-exchanges
+    private static void insertionSort(long[] a, int lo, int hi) {
+        for (int i = lo + 1; i <= hi; i++) {
+            long v = a[i];
+            int j = i;
+            for (; j > lo && less(v, a[j-1]); j--)
+                a[j] = a[j-1];
+            a[j] = v;
+        }
+    }
+
+    /**
+     * Rearranges the double[] array in ascending order.
+     * @param a the array to be sorted
+     */
+    public static void sort(double[] a) {
+        double[] aux = a.clone();
+        sort(aux, a, 0, a.length-1);
+    }
+
+    private static void merge(double[] src, double[] dst, int lo, int mid, int hi) {
+        int i = lo, j = mid+1;
+        for (int k = lo; k <= hi; k++) {
+            if      (i > mid)              dst[k] = src[j++];
+            else if (j > hi)               dst[k] = src[i++];
+            else if (less(src[j], src[i])) dst[k] = src[j++];
+            else                           dst[k] = src[i++];
+        }
+    }
+
+    private static void sort(double[] src, double[] dst, int lo, int hi) {
+        if (hi <= lo + CUTOFF) {
+            insertionSort(dst, lo, hi);
+            return;
+        }
+        int mid = lo + (hi - lo) / 2;
+        sort(dst, src, lo, mid);
+        sort(dst, src, mid+1, hi);
+
+        if (!less(src[mid+1], src[mid])) {
+            System.arraycopy(src, lo, dst, lo, hi - lo + 1);
+            return;
+        }
+
+        merge(src, dst, lo, mid, hi);
+    }
+
+    // sort from a[lo] to a[hi] using insertion sort with half-exchanges
+    private static void insertionSort(double[] a, int lo, int hi) {
+        for (int i = lo + 1; i <= hi; i++) {
+            double v = a[i];
+            int j = i;
+            for (; j > lo && less(v, a[j-1]); j--)
+                a[j] = a[j-1];
+            a[j] = v;
+        }
+    }
+
+
    /***************************************************************************
     *  Check if array is sorted - useful for debugging.
     ***************************************************************************/
@@ -0,0 +1,216 @@
+package com.hxd.sort.merge;
+
+import java.util.Comparator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import com.hxd.introcs.stdlib.StdRandom;
+
+/**
+ * 候旭东 20261017 并行归并排序
+ * 在ForkJoinPool上运行MergeX:
+ *    1: 左右两半作为两个任务并行排序,子数组的长度不超过cutoff时在当前线程中调用MergeX的顺序排序
+ *       (其中仍然会在长度不超过7时切换到插入排序);
+ *    2: 和MergeX一样只分配一个辅助数组,在递归中交换src和dst的角色来避免复制;
+ *    3: 归并本身也是并行的:取较长的有序子数组的中间元素,在另一个子数组中二分查找它的位置,
+ *       两部分分别归并,否则最顶层的一次归并需要一个线程顺序处理N个元素,限制了加速比;
+ *    4: 保持稳定:相等的元素总是左边子数组的排在前面.
+ * */
+@SuppressWarnings({ "rawtypes", "unchecked" })
+public class ParallelMerge {
+	/**
+	 * 默认的顺序阈值,子数组更短时不再拆分任务
+	 * */
+	public static final int DEFAULT_CUTOFF = 1 << 13;
+
+	private ParallelMerge() {}
+
+	/**
+	 * 使用ForkJoinPool.commonPool()和默认阈值,按照comparator定义的顺序稳定地排序
+	 * @param a
+	 * @param comparator
+	 */
+	public static <T> void sort(T[] a, Comparator<? super T> comparator) {
+		sort(a, comparator, DEFAULT_CUTOFF, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * 按照自然顺序排序
+	 * @param a
+	 */
+	public static <T extends Comparable<? super T>> void sort(T[] a) {
+		sort(a, Comparator.<T>naturalOrder());
+	}
+
+	/**
+	 * @param a 待排序的数组
+	 * @param comparator 定义全序关系
+	 * @param cutoff 顺序阈值,子数组的长度不超过它时顺序排序
+	 * @param pool 运行任务的线程池,并行度决定使用的线程数
+	 */
+	public static <T> void sort(T[] a, Comparator<? super T> comparator, int cutoff, ForkJoinPool pool) {
+		if (cutoff < 1) throw new IllegalArgumentException("cutoff must be positive: " + cutoff);
+		if (a.length < 2) return;
+		Object[] aux = a.clone();
+		pool.invoke(new SortTask(aux, a, 0, a.length - 1, comparator, cutoff));
+	}
+
+	/**
+	 * 将src[lo..hi]排序的结果写入dst[lo..hi].前提是src和dst在[lo..hi]中的内容相同
+	 * */
+	private static class SortTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final Object[] src, dst;
+		private final int lo, hi;
+		private final Comparator comparator;
+		private final int cutoff;
+
+		SortTask(Object[] src, Object[] dst, int lo, int hi, Comparator comparator, int cutoff) {
+			this.src = src;
+			this.dst = dst;
+			this.lo = lo;
+			this.hi = hi;
+			this.comparator = comparator;
+			this.cutoff = cutoff;
+		}
+
+		@Override
+		protected void compute() {
+			if (hi - lo + 1 <= cutoff) {
+				MergeX.sort(src, dst, lo, hi, comparator);
+				return;
+			}
+			int mid = lo + (hi - lo) / 2;
+			invokeAll(new SortTask(dst, src, lo, mid, comparator, cutoff),
+					  new SortTask(dst, src, mid + 1, hi, comparator, cutoff));
+			// 两半已经有序并且衔接,直接复制
+			if (comparator.compare(src[mid + 1], src[mid]) >= 0) {
+				System.arraycopy(src, lo, dst, lo, hi - lo + 1);
+				return;
+			}
+			new MergeTask(src, lo, mid, mid + 1, hi, dst, lo, comparator, cutoff).compute();
+		}
+	}
+
+	/**
+	 * 将有序的src[lo1..hi1]和src[lo2..hi2](前者在原数组中位于后者左边)归并到dst[k..]
+	 * */
+	private static class MergeTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final Object[] src, dst;
+		private final int lo1, hi1, lo2, hi2, k;
+		private final Comparator comparator;
+		private final int cutoff;
+
+		MergeTask(Object[] src, int lo1, int hi1, int lo2, int hi2, Object[] dst, int k,
+				Comparator comparator, int cutoff) {
+			this.src = src;
+			this.lo1 = lo1;
+			this.hi1 = hi1;
+			this.lo2 = lo2;
+			this.hi2 = hi2;
+			this.dst = dst;
+			this.k = k;
+			this.comparator = comparator;
+			this.cutoff = cutoff;
+		}
+
+		@Override
+		protected void compute() {
+			int n1 = hi1 - lo1 + 1, n2 = hi2 - lo2 + 1;
+			if (n1 + n2 <= cutoff || n1 == 0 || n2 == 0) {
+				merge();
+				return;
+			}
+			// 取较长子数组的中间元素x,它在dst中的位置由另一个子数组中应该排在它前面的元素数决定,
+			// 直接写入x之后两边各自归并,两个子任务都不包含x所以规模严格变小
+			int m1, m2;
+			MergeTask left, right;
+			if (n1 >= n2) {
+				// 左边中点之前的元素和右边严格小于x的元素在x之前
+				m1 = lo1 + n1 / 2;
+				m2 = lowerBound(lo2, hi2, src[m1]);
+				dst[k + (m1 - lo1) + (m2 - lo2)] = src[m1];
+				left  = new MergeTask(src, lo1, m1 - 1, lo2, m2 - 1, dst, k, comparator, cutoff);
+				right = new MergeTask(src, m1 + 1, hi1, m2, hi2, dst, k + (m1 - lo1) + (m2 - lo2) + 1, comparator, cutoff);
+			}
+			else {
+				// 右边中点之前的元素和左边不大于x的元素在x之前
+				m2 = lo2 + n2 / 2;
+				m1 = upperBound(lo1, hi1, src[m2]);
+				dst[k + (m1 - lo1) + (m2 - lo2)] = src[m2];
+				left  = new MergeTask(src, lo1, m1 - 1, lo2, m2 - 1, dst, k, comparator, cutoff);
+				right = new MergeTask(src, m1, hi1, m2 + 1, hi2, dst, k + (m1 - lo1) + (m2 - lo2) + 1, comparator, cutoff);
+			}
+			invokeAll(left, right);
+		}
+
+		// src[lo..hi]中第一个不小于key的位置
+		private int lowerBound(int lo, int hi, Object key) {
+			hi++;
+			while (lo < hi) {
+				int mid = lo + (hi - lo) / 2;
+				if (comparator.compare(src[mid], key) < 0) lo = mid + 1;
+				else                                       hi = mid;
+			}
+			return lo;
+		}
+
+		// src[lo..hi]中第一个大于key的位置
+		private int upperBound(int lo, int hi, Object key) {
+			hi++;
+			while (lo < hi) {
+				int mid = lo + (hi - lo) / 2;
+				if (comparator.compare(key, src[mid]) < 0) hi = mid;
+				else                                       lo = mid + 1;
+			}
+			return lo;
+		}
+
+		private void merge() {
+			int i = lo1, j = lo2;
+			for (int d = k; d <= k + (hi1 - lo1) + (hi2 - lo2) + 1; d++) {
+				if      (i > hi1)                                dst[d] = src[j++];
+				else if (j > hi2)                                dst[d] = src[i++];
+				else if (comparator.compare(src[j], src[i]) < 0) dst[d] = src[j++];
+				else                                             dst[d] = src[i++];
+			}
+		}
+	}
+
+	/**
+	 * 输出从1个线程到N个线程(默认为处理器数)的加速比
+	 * 用法: java ParallelMerge n [最大线程数] [cutoff] [重复次数]
+	 * */
+	public static void main(String[] args) {
+		int n = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+		int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+		int cutoff = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_CUTOFF;
+		int trials = args.length > 3 ? Integer.parseInt(args[3]) : 5;
+
+		Double[] source = new Double[n];
+		for (int i = 0; i < n; i++)
+			source[i] = StdRandom.uniform();
+		Comparator<Double> order = Comparator.naturalOrder();
+
+		double base = 0.0;
+		System.out.printf("%8s %12s %8s\n", "threads", "ms", "speedup");
+		for (int p = 1; p <= maxThreads; p++) {
+			ForkJoinPool pool = new ForkJoinPool(p);
+			Double[] a = source.clone();
+			sort(a, order, cutoff, pool);	//预热
+			double best = Double.POSITIVE_INFINITY;
+			for (int t = 0; t < trials; t++) {
+				System.arraycopy(source, 0, a, 0, n);
+				long start = System.nanoTime();
+				sort(a, order, cutoff, pool);
+				best = Math.min(best, (System.nanoTime() - start) / 1e6);
+			}
+			pool.shutdown();
+			for (int i = 1; i < n; i++)
+				if (a[i].compareTo(a[i-1]) < 0) throw new IllegalStateException("not sorted");
+			if (p == 1) base = best;
+			System.out.printf("%8d %12.1f %8.2f\n", p, best, base / best);
+		}
+	}
+}
@@ -0,0 +1,222 @@
+package com.hxd.sort.priorityQueue;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Comparator;
+
+import com.hxd.base.Queue;
+import com.hxd.sort.merge.MergeX;
+
+/**
+ * 候旭东 20261017 外部排序
+ * 对放不进内存的文本文件按行排序,分为两个阶段:
+ *    1: 生成分段:按顺序读入输入,估计已读入的行占用的内存,达到预算时用MergeX将这一段排序并写入临时文件;
+ *    2: 多向归并:用Multiway.merge()每次归并至多fanIn个分段.分段数多于fanIn时先归并成更长的分段,
+ *       直到一次归并就能得到输出为止.
+ * 任何时刻内存中至多有一个分段(阶段1)或者fanIn个读缓冲区(阶段2),所以占用的内存由memory参数限定.
+ * 文件通过Files.newInputStream/newOutputStream(基于FileChannel)读写,使用较大的缓冲区,文件按UTF-8编码.
+ * 分段按输入的顺序生成和归并,归并时次序相同的行按分段编号输出,所以排序是稳定的
+ * */
+public class ExternalSort {
+	/**
+	 * 默认的内存预算(字节)和归并路数
+	 * */
+	public static final long DEFAULT_MEMORY = 64L << 20;
+	public static final int DEFAULT_FAN_IN = 64;
+
+	// 估计一行String占用的内存:对象头,数组头和引用约56字节,每个字符按2字节计算
+	private static final int LINE_OVERHEAD = 56;
+	private static final int MIN_BUFFER = 1 << 13;
+	// 阶段1的读写缓冲区只占预算的一小部分,其余留给分段本身
+	private static final int RUN_BUFFER_SHARE = 16;
+
+	private final Comparator<String> order;
+	private final long memory;
+	private final int fanIn;
+	private final Path tmpDir;
+
+	private int runs;		// 阶段1生成的分段数
+	private int passes;		// 阶段2的归并趟数
+
+	/**
+	 * @param order 行的次序,为null时使用String的自然顺序
+	 * @param memory 内存预算(字节)
+	 * @param fanIn 每次归并的最大分段数,至少为2
+	 * @param tmpDir 临时文件所在的目录,为null时使用系统的临时目录
+	 */
+	public ExternalSort(Comparator<String> order, long memory, int fanIn, Path tmpDir) {
+		if (memory < MIN_BUFFER) throw new IllegalArgumentException("memory budget too small: " + memory);
+		if (fanIn < 2) throw new IllegalArgumentException("fan-in must be at least 2: " + fanIn);
+		this.order = order == null ? Comparator.<String>naturalOrder() : order;
+		this.memory = memory;
+		this.fanIn = fanIn;
+		this.tmpDir = tmpDir;
+	}
+
+	public ExternalSort() {
+		this(null, DEFAULT_MEMORY, DEFAULT_FAN_IN, null);
+	}
+
+	/**
+	 * 将input中的行排序后写入output
+	 * */
+	public void sort(Path input, Path output) throws IOException {
+		runs = 0;
+		passes = 0;
+		Queue<Path> queue = createRuns(input);
+		Queue<Path> next = null;	// 这一趟已经写完的分段
+		Path pending = null;		// 正在写的分段
+		try {
+			while (queue.size() > fanIn) {
+				// 一趟归并:依次把每fanIn个分段归并成一个更长的分段
+				next = new Queue<Path>();
+				while (!queue.isEmpty()) {
+					int k = Math.min(fanIn, queue.size());
+					Path[] group = new Path[k];
+					for (int i = 0; i < k; i++)
+						group[i] = queue.dequeue();
+					pending = newRun();
+					next.enqueue(merge(group, pending));
+					pending = null;
+				}
+				queue = next;
+				next = null;
+				passes++;
+			}
+			Path[] group = new Path[queue.size()];
+			for (int i = 0; i < group.length; i++)
+				group[i] = queue.dequeue();
+			merge(group, output);
+			passes++;
+		}
+		finally {
+			// 出错时删除所有的临时文件,包括写了一半的分段
+			while (!queue.isEmpty())
+				Files.deleteIfExists(queue.dequeue());
+			while (next != null && !next.isEmpty())
+				Files.deleteIfExists(next.dequeue());
+			if (pending != null) Files.deleteIfExists(pending);
+		}
+	}
+
+	/**
+	 * 阶段1:把输入切分为内存能容纳的分段,每段排序后写入一个临时文件
+	 * */
+	private Queue<Path> createRuns(Path input) throws IOException {
+		Queue<Path> queue = new Queue<Path>();
+		String[] lines = new String[1024];
+		try (BufferedReader in = reader(input, bufferSize(RUN_BUFFER_SHARE))) {
+			while (true) {
+				int n = 0;
+				long used = 0;
+				String line;
+				while (used < memory && (line = in.readLine()) != null) {
+					if (n == lines.length) lines = Arrays.copyOf(lines, 2 * n);
+					lines[n++] = line;
+					used += LINE_OVERHEAD + 2L * line.length() + 8;
+				}
+				if (n == 0) break;
+				String[] run = n == lines.length ? lines : Arrays.copyOf(lines, n);
+				MergeX.sort(run, order);
+				Path path = newRun();
+				try (BufferedWriter out = writer(path, bufferSize(RUN_BUFFER_SHARE))) {
+					for (int i = 0; i < n; i++) {
+						out.write(run[i]);
+						out.write('\n');
+					}
+				}
+				queue.enqueue(path);
+				runs++;
+				Arrays.fill(lines, 0, n, null);
+				if (used < memory) break;	// 没有用完预算说明输入已经读完
+			}
+		}
+		catch (IOException | RuntimeException e) {
+			while (!queue.isEmpty())
+				Files.deleteIfExists(queue.dequeue());
+			throw e;
+		}
+		return queue;
+	}
+
+	/**
+	 * 阶段2:用Multiway归并若干个分段,然后删除它们
+	 * */
+	private Path merge(Path[] group, Path output) throws IOException {
+		int size = bufferSize(group.length + 1);
+		BufferedReader[] streams = new BufferedReader[group.length];
+		try {
+			for (int i = 0; i < group.length; i++)
+				streams[i] = reader(group[i], size);
+			try (BufferedWriter out = writer(output, size)) {
+				Multiway.merge(streams, out, order);
+			}
+		}
+		finally {
+			for (int i = 0; i < group.length; i++) {
+				if (streams[i] != null) streams[i].close();
+				Files.deleteIfExists(group[i]);
+			}
+		}
+		return output;
+	}
+
+	// 把内存预算平均分给同时打开的k个流,缓冲区按字符计算
+	private int bufferSize(int k) {
+		return (int) Math.max(MIN_BUFFER, Math.min(Integer.MAX_VALUE / 2, memory / (2L * k)));
+	}
+
+	// 临时文件由sort()负责删除,不使用deleteOnExit():它登记的路径直到JVM退出才释放
+	private Path newRun() throws IOException {
+		return tmpDir == null ? Files.createTempFile("run", ".txt") : Files.createTempFile(tmpDir, "run", ".txt");
+	}
+
+	private static BufferedReader reader(Path path, int size) throws IOException {
+		return new BufferedReader(new InputStreamReader(Files.newInputStream(path), StandardCharsets.UTF_8), size);
+	}
+
+	private static BufferedWriter writer(Path path, int size) throws IOException {
+		return new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(path), StandardCharsets.UTF_8), size);
+	}
+
+	/**
+	 * 上一次sort()生成的分段数
+	 * */
+	public int runs() { return runs; }
+
+	/**
+	 * 上一次sort()的归并趟数
+	 * */
+	public int passes() { return passes; }
+
+	/**
+	 * 用法: java ExternalSort input output [内存预算MB] [归并路数] [临时目录]
+	 * */
+	public static void main(String[] args) {
+		Path input = Paths.get(args[0]);
+		Path output = Paths.get(args[1]);
+		long memory = args.length > 2 ? Long.parseLong(args[2]) << 20 : DEFAULT_MEMORY;
+		int fanIn = args.length > 3 ? Integer.parseInt(args[3]) : DEFAULT_FAN_IN;
+		Path tmpDir = args.length > 4 ? Paths.get(args[4]) : null;
+
+		ExternalSort sorter = new ExternalSort(null, memory, fanIn, tmpDir);
+		long start = System.nanoTime();
+		try {
+			sorter.sort(input, output);
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		System.out.printf("%d runs, %d merge passes, %.1f s\n",
+				sorter.runs(), sorter.passes(), (System.nanoTime() - start) / 1e9);
+	}
+}
@@ -54,6 +54,102 @@ public class Heap {
 	private static boolean less(Comparable v, Comparable w) {
         return v.compareTo(w) < 0;
     }
+	/**
+	 * int[]版本,构造堆和下沉排序与sort(Comparable[])相同
+	 * */
+	public static void sort(int[] pq){
+		int n = pq.length;
+		for (int k = n/2; k >=1; k--)
+			sink(pq,k,n);
+		while(n>1){
+			exch(pq,1,n--);
+			sink(pq,1,n);
+		}
+	}
+
+	private static void sink(int[] pq, int k, int n) {
+		while(2*k<=n){
+			int j=2*k;
+			if(j<n&&less(pq,j,j+1))j++;
+			if(!less(pq,k,j))break;
+			exch(pq,k,j);
+			k=j;
+		}
+	}
+
+	private static void exch(int[] pq, int i, int j) {
+		int swap=pq[i-1];
+		pq[i-1]=pq[j-1];
+		pq[j-1]=swap;
+	}
+
+	/**
+	 * long[]版本,构造堆和下沉排序与sort(Comparable[])相同
+	 * */
+	public static void sort(long[] pq){
+		int n = pq.length;
+		for (int k = n/2; k >=1; k--)
+			sink(pq,k,n);
+		while(n>1){
+			exch(pq,1,n--);
+			sink(pq,1,n);
+		}
+	}
+
+	private static void sink(long[] pq, int k, int n) {
+		while(2*k<=n){
+			int j=2*k;
+			if(j<n&&less(pq,j,j+1))j++;
+			if(!less(pq,k,j))break;
+			exch(pq,k,j);
+			k=j;
+		}
+	}
+
+	private static void exch(long[] pq, int i, int j) {
+		long swap=pq[i-1];
+		pq[i-1]=pq[j-1];
+		pq[j-1]=swap;
+	}
+
+	/**
+	 * double[]版本,构造堆和下沉排序与sort(Comparable[])相同
+	 * */
+	public static void sort(double[] pq){
+		int n = pq.length;
+		for (int k = n/2; k >=1; k--)
+			sink(pq,k,n);
+		while(n>1){
+			exch(pq,1,n--);
+			sink(pq,1,n);
+		}
+	}
+
+	private static void sink(double[] pq, int k, int n) {
+		while(2*k<=n){
+			int j=2*k;
+			if(j<n&&less(pq,j,j+1))j++;
+			if(!less(pq,k,j))break;
+			exch(pq,k,j);
+			k=j;
+		}
+	}
+
+	private static void exch(double[] pq, int i, int j) {
+		double swap=pq[i-1];
+		pq[i-1]=pq[j-1];
+		pq[j-1]=swap;
+	}
+
+	private static boolean less(int[] pq, int j, int i) {
+		return pq[j-1]<pq[i-1];
+	}
+	private static boolean less(long[] pq, int j, int i) {
+		return pq[j-1]<pq[i-1];
+	}
+	private static boolean less(double[] pq, int j, int i) {
+		return Double.compare(pq[j-1], pq[i-1])<0;
+	}
 	/**
 	 * 输出
 	 * */
@@ -0,0 +1,364 @@
+package com.hxd.sort.priorityQueue;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import com.hxd.base.Benchmark;
+import com.hxd.introcs.stdlib.StdRandom;
+
+/**
+ * 键为double的索引优先队列,API和{@link IndexMinPQ}相同,用于DijkstraSP,DijkstraUndirectedSP和PrimMST.
+ * <p>
+ * IndexMinPQ&lt;Double&gt;的每次insert()和decreaseKey()都要把键装箱成一个Double对象,比较时还要拆箱并调用compareTo();
+ * 这里的键直接保存在double[]中,没有任何对象分配.另外两点不同:
+ * <p>
+ * 1: 堆是d叉的(d为2的幂,默认为4),位置k的子结点是d*k+1..d*k+d,父结点是(k-1)/d.树的高度从lgN降为log_d(N),
+ *    swim()(decreaseKey和insert)的比较次数相应减少;sink()(delMin)每层要比较d个子结点,但它们在数组中是相邻的,
+ *    d=4或8时正好在一两个缓存行中.Dijkstra算法中decreaseKey()的次数通常远多于delMin(),所以d叉堆更合适;
+ * 2: 键按堆中的位置保存(key[k]是位置k上的索引的键),sink()和swim()比较时不需要先通过pq[]间接访问,
+ *    keyOf(i)通过qp[]找到位置.
+ * <p>
+ * insert,decreaseKey的时间和log_d(N)成正比,delMin,increaseKey,delete的时间和d*log_d(N)成正比,
+ * isEmpty,size,minIndex,minKey,keyOf和contains需要常数时间.
+ * @author 候旭东 20261017
+ * */
+public class IndexMinDoublePQ implements Iterable<Integer> {
+	private static final int DEFAULT_ARITY = 4;
+
+	private final int maxN;		// 索引的范围是0..maxN-1
+	private final int d;		// 每个结点的子结点数
+	private final int shift;	// d = 1 << shift
+	private int n;				// 堆中的元素数
+	private final int[] pq;		// pq[k] = 位置k上的索引,堆从位置0开始
+	private final int[] qp;		// qp[i] = 索引i在堆中的位置,不在堆中时为-1;qp[pq[k]] == k
+	private final double[] key;	// key[k] = 位置k上的索引的键
+
+	/**
+	 * 使用4叉堆初始化索引范围为0到maxN-1的空队列
+	 * @throws IllegalArgumentException if {@code maxN < 0}
+	 * */
+	public IndexMinDoublePQ(int maxN) {
+		this(maxN, DEFAULT_ARITY);
+	}
+
+	/**
+	 * @param maxN 索引的范围是0到maxN-1
+	 * @param d 堆的分支数,必须是2的幂(2是二叉堆)
+	 * @throws IllegalArgumentException if {@code maxN < 0} 或者d不是2的幂
+	 * */
+	public IndexMinDoublePQ(int maxN, int d) {
+		if (maxN < 0) throw new IllegalArgumentException();
+		if (d < 2 || Integer.bitCount(d) != 1) throw new IllegalArgumentException("arity must be a power of 2: " + d);
+		this.maxN = maxN;
+		this.d = d;
+		this.shift = Integer.numberOfTrailingZeros(d);
+		pq = new int[maxN];
+		qp = new int[maxN];
+		key = new double[maxN];
+		for (int i = 0; i < maxN; i++)
+			qp[i] = -1;
+	}
+
+	/**
+	 * @return 堆的分支数
+	 * */
+	public int arity() { return d; }
+
+	public boolean isEmpty() { return n == 0; }
+
+	/**
+	 * 此索引是否是优先队列上的索引
+	 * @throws IndexOutOfBoundsException unless {@code 0 <= i < maxN}
+	 * */
+	public boolean contains(int i) {
+		validateIndex(i);
+		return qp[i] != -1;
+	}
+
+	public int size() { return n; }
+
+	/**
+	 * 使用索引关联键
+	 * @throws IndexOutOfBoundsException unless {@code 0 <= i < maxN}
+	 * @throws IllegalArgumentException if there already is an item associated with index {@code i}
+	 * */
+	public void insert(int i, double k) {
+		if (contains(i)) throw new IllegalArgumentException("index is already in priority Queue");
+		swim(n++, i, k);
+	}
+
+	/**
+	 * 返回与最小键相关联的索引
+	 * @throws NoSuchElementException if this priority queue is empty
+	 * */
+	public int minIndex() {
+		if (n == 0) throw new NoSuchElementException();
+		return pq[0];
+	}
+
+	/**
+	 * 返回最小键值
+	 * @throws NoSuchElementException if this priority queue is empty
+	 * */
+	public double minKey() {
+		if (n == 0) throw new NoSuchElementException();
+		return key[0];
+	}
+
+	/**
+	 * 删除最小键并返回其关联的索引
+	 * @throws NoSuchElementException if this priority queue is empty
+	 * */
+	public int delMin() {
+		if (n == 0) throw new NoSuchElementException();
+		int min = pq[0];
+		qp[min] = -1;
+		if (--n > 0) sink(0, pq[n], key[n]);
+		return min;
+	}
+
+	/**
+	 * 返回与索引i相关联的键
+	 * @throws IndexOutOfBoundsException unless {@code 0 <= i < maxN}
+	 * @throws NoSuchElementException no key is associated with index {@code i}
+	 * */
+	public double keyOf(int i) {
+		if (!contains(i)) throw new NoSuchElementException("index is not in the priority queue");
+		return key[qp[i]];
+	}
+
+	/**
+	 * 将与索引i关联的键更改为指定的值
+	 * @throws IndexOutOfBoundsException unless {@code 0 <= i < maxN}
+	 * @throws NoSuchElementException no key is associated with index {@code i}
+	 * */
+	public void changeKey(int i, double k) {
+		if (!contains(i)) throw new NoSuchElementException("index is not in the priority queue");
+		if (k < key[qp[i]]) swim(qp[i], i, k);
+		else                sink(qp[i], i, k);
+	}
+
+	/**
+	 * 将与索引i相关联的键减少为指定的值
+	 * @throws IndexOutOfBoundsException unless {@code 0 <= i < maxN}
+	 * @throws IllegalArgumentException if {@code k >= keyOf(i)}
+	 * @throws NoSuchElementException no key is associated with index {@code i}
+	 * */
+	public void decreaseKey(int i, double k) {
+		if (!contains(i)) throw new NoSuchElementException("index is not in the priority queue");
+		if (!(k < key[qp[i]]))
+			throw new IllegalArgumentException("Calling decreaseKey() with given argument would not strictly decrease the key");
+		swim(qp[i], i, k);
+	}
+
+	/**
+	 * 将与索引i关联的键增加到指定的值
+	 * @throws IndexOutOfBoundsException unless {@code 0 <= i < maxN}
+	 * @throws IllegalArgumentException if {@code k <= keyOf(i)}
+	 * @throws NoSuchElementException no key is associated with index {@code i}
+	 * */
+	public void increaseKey(int i, double k) {
+		if (!contains(i)) throw new NoSuchElementException("index is not in the priority queue");
+		if (!(k > key[qp[i]]))
+			throw new IllegalArgumentException("Calling increaseKey() with given argument would not strictly increase the key");
+		sink(qp[i], i, k);
+	}
+
+	/**
+	 * 删除与索引i关联的键
+	 * @throws IndexOutOfBoundsException unless {@code 0 <= i < maxN}
+	 * @throws NoSuchElementException no key is associated with index {@code i}
+	 * */
+	public void delete(int i) {
+		if (!contains(i)) throw new NoSuchElementException("index is not in the priority queue");
+		int k = qp[i];
+		qp[i] = -1;
+		if (--n == k) return;
+		// 用最后一个元素填补位置k,它可能需要上浮也可能需要下沉
+		int last = pq[n];
+		double lastKey = key[n];
+		if (k > 0 && lastKey < key[(k - 1) >> shift]) swim(k, last, lastKey);
+		else                                           sink(k, last, lastKey);
+	}
+
+	/**
+	 * 删除所有的元素,所需的时间和size()成正比而不是maxN,可以在多次查询之间重复使用同一个队列
+	 * */
+	public void clear() {
+		for (int k = 0; k < n; k++)
+			qp[pq[k]] = -1;
+		n = 0;
+	}
+
+	private void validateIndex(int i) {
+		if (i < 0 || i >= maxN) throw new IndexOutOfBoundsException("index " + i + " is not between 0 and " + (maxN - 1));
+	}
+
+	/**
+	 * 把索引i(键为k)放到位置j,然后上浮:比它大的父结点依次下移,最后把i写到空出的位置,不做交换
+	 * */
+	private void swim(int j, int i, double k) {
+		while (j > 0) {
+			int parent = (j - 1) >> shift;
+			if (!(k < key[parent])) break;
+			move(parent, j);
+			j = parent;
+		}
+		put(j, i, k);
+	}
+
+	/**
+	 * 把索引i(键为k)放到位置j,然后下沉:子结点中最小的一个比它小时上移,最后把i写到空出的位置
+	 * */
+	private void sink(int j, int i, double k) {
+		while (true) {
+			int first = (j << shift) + 1;
+			if (first >= n) break;
+			int last = Math.min(first + d, n);
+			int min = first;
+			double minKey = key[first];
+			for (int c = first + 1; c < last; c++) {
+				if (key[c] < minKey) {
+					min = c;
+					minKey = key[c];
+				}
+			}
+			if (!(minKey < k)) break;
+			move(min, j);
+			j = min;
+		}
+		put(j, i, k);
+	}
+
+	private void move(int from, int to) {
+		pq[to] = pq[from];
+		key[to] = key[from];
+		qp[pq[to]] = to;
+	}
+
+	private void put(int j, int i, double k) {
+		pq[j] = i;
+		key[j] = k;
+		qp[i] = j;
+	}
+
+	@Override
+	public Iterator<Integer> iterator() {
+		return new HeapIterator();
+	}
+
+	private class HeapIterator implements Iterator<Integer> {
+		private IndexMinDoublePQ copy;
+
+		public HeapIterator() {
+			copy = new IndexMinDoublePQ(maxN, d);
+			for (int k = 0; k < n; k++)
+				copy.insert(pq[k], key[k]);
+		}
+
+		@Override
+		public boolean hasNext() { return !copy.isEmpty(); }
+		@Override
+		public Integer next() {
+			if (!hasNext()) throw new NoSuchElementException();
+			return copy.delMin();
+		}
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+	}
+
+	/***************************************************************************
+	 *  基准测试
+	 ***************************************************************************/
+
+	/**
+	 * 模拟Dijkstra算法的操作序列:每次delMin()之后对degree个随机的索引做insert()或decreaseKey(),
+	 * 新的键是当前最小键加上[0, 1)中的随机数.比较IndexMinPQ&lt;Double&gt;和2,4,8,16叉的IndexMinDoublePQ,
+	 * 吞吐量按堆操作数计算.
+	 * 用法: java IndexMinDoublePQ [N] [degree] [预热轮数] [测量轮数] [每轮毫秒数]
+	 * */
+	public static void main(String[] args) {
+		int N = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+		int degree = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+		int warmups = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+		int iterations = args.length > 3 ? Integer.parseInt(args[3]) : 5;
+		long millis = args.length > 4 ? Long.parseLong(args[4]) : 1000;
+
+		// 预先生成随机数,两种实现处理完全相同的操作序列
+		int ops = 4 * N;
+		int[] target = new int[ops];
+		double[] delta = new double[ops];
+		for (int i = 0; i < ops; i++) {
+			target[i] = StdRandom.uniform(N);
+			delta[i] = StdRandom.uniform();
+		}
+
+		// 先用两种实现各运行一次,检查delMin()的顺序相同
+		long expected = runBoxed(N, degree, target, delta);
+		for (int d = 2; d <= 16; d *= 2)
+			if (runPrimitive(N, d, degree, target, delta) != expected)
+				throw new AssertionError("d = " + d + ": different delMin() sequence");
+
+		System.out.printf("N = %d, degree = %d, %d x %d ms\n", N, degree, iterations, millis);
+		System.out.printf("%-26s %14s %12s\n", "priority queue", "Mops/s", "error(99.9%)");
+		report("IndexMinPQ<Double>", ops, () -> runBoxed(N, degree, target, delta), warmups, iterations, millis);
+		for (int d = 2; d <= 16; d *= 2) {
+			int arity = d;
+			report("IndexMinDoublePQ d=" + d, ops, () -> runPrimitive(N, arity, degree, target, delta), warmups, iterations, millis);
+		}
+	}
+
+	private static void report(String name, int ops, Benchmark.Op run, int warmups, int iterations, long millis) {
+		double[] samples = Benchmark.measure(run, warmups, iterations, millis);
+		for (int i = 0; i < samples.length; i++)
+			samples[i] *= ops / 1e6;
+		System.out.printf("%-26s %14.2f %12.2f\n", name, Benchmark.mean(samples), Benchmark.error(samples));
+	}
+
+	// 返回delMin()得到的索引序列的散列值
+	private static long runBoxed(int N, int degree, int[] target, double[] delta) {
+		IndexMinPQ<Double> pq = new IndexMinPQ<Double>(N);
+		boolean[] done = new boolean[N];
+		long hash = 0;
+		int op = 0;
+		pq.insert(0, 0.0);
+		while (!pq.isEmpty() && op < target.length) {
+			double min = pq.minKey();
+			int v = pq.delMin();
+			done[v] = true;
+			hash = 31 * hash + v;
+			for (int j = 0; j < degree && op < target.length; j++, op++) {
+				int w = target[op];
+				double k = min + delta[op];
+				if (done[w]) continue;
+				if (!pq.contains(w))         pq.insert(w, k);
+				else if (k < pq.keyOf(w))    pq.decreaseKey(w, k);
+			}
+		}
+		return hash;
+	}
+
+	private static long runPrimitive(int N, int d, int degree, int[] target, double[] delta) {
+		IndexMinDoublePQ pq = new IndexMinDoublePQ(N, d);
+		boolean[] done = new boolean[N];
+		long hash = 0;
+		int op = 0;
+		pq.insert(0, 0.0);
+		while (!pq.isEmpty() && op < target.length) {
+			double min = pq.minKey();
+			int v = pq.delMin();
+			done[v] = true;
+			hash = 31 * hash + v;
+			for (int j = 0; j < degree && op < target.length; j++, op++) {
+				int w = target[op];
+				double k = min + delta[op];
+				if (done[w]) continue;
+				if (!pq.contains(w))         pq.insert(w, k);
+				else if (k < pq.keyOf(w))    pq.decreaseKey(w, k);
+			}
+		}
+		return hash;
+	}
+}
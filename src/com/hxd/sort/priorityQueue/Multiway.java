@@ -1,5 +1,10 @@
 package com.hxd.sort.priorityQueue;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Comparator;
+
 import com.hxd.introcs.stdlib.In;
 
 /**
@@ -21,6 +26,51 @@ public class Multiway {
 		}
 	}
 	
+	/**
+	 * 按行归并:每个输入流中的行已经按照order有序,将它们归并后逐行写入out.
+	 * 和merge(In[])相同,IndexMinPQ中保存每个流的当前行,索引就是流的编号;流之间的次序相同时编号
+	 * 较小的流先输出,所以归并是稳定的.order为null时使用String的自然顺序
+	 * ExternalSort用它把有序的分段文件归并起来
+	 * */
+	public static void merge(BufferedReader[] streams, Writer out, Comparator<String> order) throws IOException {
+		int N = streams.length;
+		IndexMinPQ<Line> pq = new IndexMinPQ<Line>(N);
+		for (int i = 0; i < N; i++) {
+			String line = streams[i].readLine();
+			if (line != null)
+				pq.insert(i, new Line(line, i, order));
+		}
+		while (!pq.isEmpty()) {
+			out.write(pq.minKey().line);
+			out.write('\n');
+			int i = pq.delMin();
+			String line = streams[i].readLine();
+			if (line != null)
+				pq.insert(i, new Line(line, i, order));
+		}
+	}
+
+	/**
+	 * IndexMinPQ要求键实现Comparable,用它包装一行和它所在的流
+	 * */
+	private static final class Line implements Comparable<Line> {
+		private final String line;
+		private final int stream;
+		private final Comparator<String> order;
+
+		Line(String line, int stream, Comparator<String> order) {
+			this.line = line;
+			this.stream = stream;
+			this.order = order;
+		}
+
+		public int compareTo(Line that) {
+			int cmp = order == null ? line.compareTo(that.line) : order.compare(line, that.line);
+			if (cmp != 0) return cmp;
+			return Integer.compare(stream, that.stream);
+		}
+	}
+
 	public static void main(String[] args) {
 		int N = args.length; 
 		In[] streams = new In[N];
@@ -0,0 +1,270 @@
+package com.hxd.sort.quick;
+
+import java.util.Comparator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import com.hxd.base.Date;
+import com.hxd.introcs.stdlib.StdRandom;
+import com.hxd.sort.base.Transaction;
+
+/**
+ * 候旭东 20261017 并行快速排序
+ * 快速排序在切分之后两个(或三个)子数组互相独立,天然适合fork/join:每个任务在当前线程中顺序地切分自己的
+ * 子数组,然后把切分出的子数组作为新的任务并行排序.子数组的长度不超过cutoff时不再拆分任务,直接在当前线程
+ * 中用同一种切分方式递归排序(长度不超过8时切换到插入排序).
+ * 两种切分方式:
+ *    THREE_WAY:  和Quick3Way一样的Dijkstra三向切分,和切分元素相等的元素一次归位,适合重复主键很多的数组
+ *                (例如按WhoOrder排序的Transaction).切分元素用Tukey ninther选取,和Quick3WayX相同
+ *    DUAL_PIVOT: Yaroslavskiy双切分元素,将数组切分为 <p1, p1..p2, >p2 三部分.p1和p2相等时中间部分
+ *                都等于切分元素,不再递归
+ * 不需要像Quick那样先打乱数组,打乱是一个顺序的O(N)步骤,会限制加速比
+ * 排序不稳定
+ * */
+@SuppressWarnings({ "rawtypes", "unchecked" })
+public class ParallelQuick {
+	public enum Partition { THREE_WAY, DUAL_PIVOT }
+
+	/**
+	 * 默认的顺序阈值,子数组更短时不再拆分任务
+	 * */
+	public static final int DEFAULT_CUTOFF = 1 << 13;
+	private static final int INSERTION_SORT_CUTOFF = 8;
+	private static final int MEDIAN_OF_3_CUTOFF = 40;
+
+	private ParallelQuick() {}
+
+	/**
+	 * 使用ForkJoinPool.commonPool(),默认阈值和三向切分
+	 * @param a
+	 * @param comparator
+	 */
+	public static <T> void sort(T[] a, Comparator<? super T> comparator) {
+		sort(a, comparator, Partition.THREE_WAY, DEFAULT_CUTOFF, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * 按照自然顺序排序
+	 * @param a
+	 */
+	public static <T extends Comparable<? super T>> void sort(T[] a) {
+		sort(a, Comparator.<T>naturalOrder());
+	}
+
+	/**
+	 * 使用ForkJoinPool.commonPool()和默认阈值,按照自然顺序和指定的切分方式排序
+	 * @param a
+	 * @param partition
+	 */
+	public static <T extends Comparable<? super T>> void sort(T[] a, Partition partition) {
+		sort(a, Comparator.<T>naturalOrder(), partition, DEFAULT_CUTOFF, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * @param a 待排序的数组
+	 * @param comparator 定义全序关系
+	 * @param partition 切分方式
+	 * @param cutoff 顺序阈值,子数组的长度不超过它时顺序排序
+	 * @param pool 运行任务的线程池,并行度决定使用的线程数
+	 */
+	public static <T> void sort(T[] a, Comparator<? super T> comparator, Partition partition, int cutoff, ForkJoinPool pool) {
+		if (cutoff < 1) throw new IllegalArgumentException("cutoff must be positive: " + cutoff);
+		if (a.length < 2) return;
+		pool.invoke(new SortTask(a, 0, a.length - 1, comparator, partition == Partition.DUAL_PIVOT, cutoff));
+	}
+
+	private static class SortTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final Object[] a;
+		private final int lo, hi;
+		private final Comparator c;
+		private final boolean dualPivot;
+		private final int cutoff;
+
+		SortTask(Object[] a, int lo, int hi, Comparator c, boolean dualPivot, int cutoff) {
+			this.a = a;
+			this.lo = lo;
+			this.hi = hi;
+			this.c = c;
+			this.dualPivot = dualPivot;
+			this.cutoff = cutoff;
+		}
+
+		@Override
+		protected void compute() {
+			if (hi - lo + 1 <= cutoff) {
+				if (dualPivot) sortDualPivot(a, lo, hi, c);
+				else           sort3Way(a, lo, hi, c);
+				return;
+			}
+			int[] r = dualPivot ? partitionDualPivot(a, lo, hi, c) : partition3Way(a, lo, hi, c);
+			// r中是等于切分元素的区间,其余部分作为子任务
+			if (r.length == 2) {
+				invokeAll(new SortTask(a, lo, r[0] - 1, c, dualPivot, cutoff),
+						  new SortTask(a, r[1] + 1, hi, c, dualPivot, cutoff));
+			}
+			else {
+				invokeAll(new SortTask(a, lo, r[0] - 1, c, dualPivot, cutoff),
+						  new SortTask(a, r[0] + 1, r[1] - 1, c, dualPivot, cutoff),
+						  new SortTask(a, r[1] + 1, hi, c, dualPivot, cutoff));
+			}
+		}
+	}
+
+	/***************************************************************************
+	 *  三向切分
+	 ***************************************************************************/
+
+	private static void sort3Way(Object[] a, int lo, int hi, Comparator c) {
+		if (hi - lo + 1 <= INSERTION_SORT_CUTOFF) {
+			insertionSort(a, lo, hi, c);
+			return;
+		}
+		int[] r = partition3Way(a, lo, hi, c);
+		sort3Way(a, lo, r[0] - 1, c);
+		sort3Way(a, r[1] + 1, hi, c);
+	}
+
+	/**
+	 * 切分之后a[lo..lt-1] < v = a[lt..gt] < a[gt+1..hi],返回{lt, gt}
+	 * */
+	private static int[] partition3Way(Object[] a, int lo, int hi, Comparator c) {
+		exch(a, lo, pivot(a, lo, hi, c));
+		int lt = lo, i = lo + 1, gt = hi;
+		Object v = a[lo];
+		while (i <= gt) {
+			int cmp = c.compare(a[i], v);
+			if      (cmp < 0) exch(a, lt++, i++);
+			else if (cmp > 0) exch(a, i, gt--);
+			else              i++;
+		}
+		return new int[] { lt, gt };
+	}
+
+	/**
+	 * 和Quick3WayX相同:小数组取三个元素的中位数,大数组取Tukey ninther
+	 * */
+	private static int pivot(Object[] a, int lo, int hi, Comparator c) {
+		int n = hi - lo + 1;
+		if (n <= MEDIAN_OF_3_CUTOFF)
+			return median3(a, lo, lo + n / 2, hi, c);
+		int eps = n / 8;
+		int mid = lo + n / 2;
+		int m1 = median3(a, lo, lo + eps, lo + eps + eps, c);
+		int m2 = median3(a, mid - eps, mid, mid + eps, c);
+		int m3 = median3(a, hi - eps - eps, hi - eps, hi, c);
+		return median3(a, m1, m2, m3, c);
+	}
+
+	/***************************************************************************
+	 *  双切分元素
+	 ***************************************************************************/
+
+	private static void sortDualPivot(Object[] a, int lo, int hi, Comparator c) {
+		if (hi - lo + 1 <= INSERTION_SORT_CUTOFF) {
+			insertionSort(a, lo, hi, c);
+			return;
+		}
+		int[] r = partitionDualPivot(a, lo, hi, c);
+		sortDualPivot(a, lo, r[0] - 1, c);
+		if (r.length == 3) sortDualPivot(a, r[0] + 1, r[1] - 1, c);
+		sortDualPivot(a, r[1] + 1, hi, c);
+	}
+
+	/**
+	 * 切分之后a[lo..lt-1] < p1 = a[lt], p1 <= a[lt+1..gt-1] <= p2, a[gt] = p2 < a[gt+1..hi].
+	 * p1 < p2时返回{lt, gt, 0},中间部分还需要排序;p1和p2相等时中间部分都等于切分元素,返回{lt, gt}
+	 * */
+	private static int[] partitionDualPivot(Object[] a, int lo, int hi, Comparator c) {
+		// 在五个等距的位置上取样,用第二小和第四小的元素作为p1和p2
+		int seventh = (hi - lo + 1) / 7;
+		int e3 = lo + (hi - lo) / 2;
+		int e2 = e3 - seventh, e1 = e2 - seventh;
+		int e4 = e3 + seventh, e5 = e4 + seventh;
+		int[] e = { e1, e2, e3, e4, e5 };
+		for (int i = 1; i < e.length; i++)
+			for (int j = i; j > 0 && c.compare(a[e[j]], a[e[j-1]]) < 0; j--)
+				exch(a, e[j], e[j-1]);
+		exch(a, lo, e[1]);
+		exch(a, hi, e[3]);
+		if (c.compare(a[hi], a[lo]) < 0) exch(a, lo, hi);	//子数组很短时取样的位置可能重合
+
+		Object p1 = a[lo], p2 = a[hi];
+		int lt = lo + 1, gt = hi - 1, i = lo + 1;
+		while (i <= gt) {
+			if      (c.compare(a[i], p1) < 0) exch(a, lt++, i++);
+			else if (c.compare(p2, a[i]) < 0) exch(a, i, gt--);
+			else                              i++;
+		}
+		exch(a, lo, --lt);
+		exch(a, hi, ++gt);
+		if (c.compare(p1, p2) == 0) return new int[] { lt, gt };
+		return new int[] { lt, gt, 0 };
+	}
+
+	/***************************************************************************
+	 *  辅助方法
+	 ***************************************************************************/
+
+	private static void insertionSort(Object[] a, int lo, int hi, Comparator c) {
+		for (int i = lo + 1; i <= hi; i++) {
+			Object v = a[i];
+			int j = i;
+			for (; j > lo && c.compare(v, a[j-1]) < 0; j--)
+				a[j] = a[j-1];
+			a[j] = v;
+		}
+	}
+
+	private static int median3(Object[] a, int i, int j, int k, Comparator c) {
+		return (c.compare(a[i], a[j]) < 0 ?
+				(c.compare(a[j], a[k]) < 0 ? j : c.compare(a[i], a[k]) < 0 ? k : i) :
+				(c.compare(a[k], a[j]) < 0 ? j : c.compare(a[k], a[i]) < 0 ? k : i));
+	}
+
+	private static void exch(Object[] a, int i, int j) {
+		Object swap = a[i];
+		a[i] = a[j];
+		a[j] = swap;
+	}
+
+	/**
+	 * 用只有几个不同客户名的交易按WhoOrder排序(重复主键很多),输出从1个线程到N个线程的加速比
+	 * 用法: java ParallelQuick n [最大线程数] [THREE_WAY|DUAL_PIVOT] [cutoff] [重复次数]
+	 * */
+	public static void main(String[] args) {
+		int n = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+		int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+		Partition partition = args.length > 2 ? Partition.valueOf(args[2]) : Partition.THREE_WAY;
+		int cutoff = args.length > 3 ? Integer.parseInt(args[3]) : DEFAULT_CUTOFF;
+		int trials = args.length > 4 ? Integer.parseInt(args[4]) : 5;
+
+		String[] names = { "Turing", "Knuth", "Dijkstra", "Hoare", "Tarjan", "Thompson", "Bellman" };
+		Transaction[] source = new Transaction[n];
+		for (int i = 0; i < n; i++) {
+			Date when = new Date(1 + StdRandom.uniform(12), 1 + StdRandom.uniform(28), 1990 + StdRandom.uniform(20));
+			source[i] = new Transaction(names[StdRandom.uniform(names.length)], when, StdRandom.uniform(0.0, 5000.0));
+		}
+		Comparator<Transaction> order = new Transaction.WhoOrder();
+
+		double base = 0.0;
+		System.out.printf("%8s %12s %8s\n", "threads", "ms", "speedup");
+		for (int p = 1; p <= maxThreads; p++) {
+			ForkJoinPool pool = new ForkJoinPool(p);
+			Transaction[] a = source.clone();
+			sort(a, order, partition, cutoff, pool);	//预热
+			double best = Double.POSITIVE_INFINITY;
+			for (int t = 0; t < trials; t++) {
+				System.arraycopy(source, 0, a, 0, n);
+				long start = System.nanoTime();
+				sort(a, order, partition, cutoff, pool);
+				best = Math.min(best, (System.nanoTime() - start) / 1e6);
+			}
+			pool.shutdown();
+			for (int i = 1; i < n; i++)
+				if (order.compare(a[i], a[i-1]) < 0) throw new IllegalStateException("not sorted");
+			if (p == 1) base = best;
+			System.out.printf("%8d %12.1f %8.2f\n", p, best, base / best);
+		}
+	}
+}
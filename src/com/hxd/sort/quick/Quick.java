@@ -80,6 +80,96 @@ public class Quick extends Example {
 		return a[k];
 	}
 	
+	/***************************************************************************
+	 *  基本类型(int[],long[],double[])的版本:主键直接存放在数组中,内循环中没有对象分配
+	 ***************************************************************************/
+	/**
+	 * int[]版本,和sort(Comparable[])的算法相同,不装箱也不调用compareTo()
+	 * @param a
+	 */
+	public static void sort(int[] a){
+		StdRandom.shuffle(a);
+		sort(a,0,a.length-1);
+	}
+
+	private static void sort(int[] a, int lo, int hi) {
+		if(lo>=hi)return;
+		int j=partition(a,lo,hi);
+		sort(a,lo,j-1);
+		sort(a,j+1,hi);
+	}
+
+	private static int partition(int[] a, int lo, int hi) {
+		int i=lo,j=hi+1;
+		int v=a[lo];
+		while (true) {
+			while(less(a[++i],v)) if(i==hi)break;
+			while(less(v,a[--j])) if(j==lo) break;
+			if(i>=j)break;
+			exch(a, i, j);
+		}
+		exch(a, lo, j);
+		return j;
+	}
+
+	/**
+	 * long[]版本,和sort(Comparable[])的算法相同,不装箱也不调用compareTo()
+	 * @param a
+	 */
+	public static void sort(long[] a){
+		StdRandom.shuffle(a);
+		sort(a,0,a.length-1);
+	}
+
+	private static void sort(long[] a, int lo, int hi) {
+		if(lo>=hi)return;
+		int j=partition(a,lo,hi);
+		sort(a,lo,j-1);
+		sort(a,j+1,hi);
+	}
+
+	private static int partition(long[] a, int lo, int hi) {
+		int i=lo,j=hi+1;
+		long v=a[lo];
+		while (true) {
+			while(less(a[++i],v)) if(i==hi)break;
+			while(less(v,a[--j])) if(j==lo) break;
+			if(i>=j)break;
+			exch(a, i, j);
+		}
+		exch(a, lo, j);
+		return j;
+	}
+
+	/**
+	 * double[]版本,和sort(Comparable[])的算法相同,不装箱也不调用compareTo()
+	 * @param a
+	 */
+	public static void sort(double[] a){
+		StdRandom.shuffle(a);
+		sort(a,0,a.length-1);
+	}
+
+	private static void sort(double[] a, int lo, int hi) {
+		if(lo>=hi)return;
+		int j=partition(a,lo,hi);
+		sort(a,lo,j-1);
+		sort(a,j+1,hi);
+	}
+
+	private static int partition(double[] a, int lo, int hi) {
+		int i=lo,j=hi+1;
+		double v=a[lo];
+		while (true) {
+			while(less(a[++i],v)) if(i==hi)break;
+			while(less(v,a[--j])) if(j==lo) break;
+			if(i>=j)break;
+			exch(a, i, j);
+		}
+		exch(a, lo, j);
+		return j;
+	}
+
 	public static void main(String[] args) {
 		String[] a = new String[]{"bed","zizi","xixi","bug","dad","yes","zoo","now","for"
 				,"tip","ilk","dim","tag","jot","sob","nob","sky","hut","men","egg","few","jay","owl",
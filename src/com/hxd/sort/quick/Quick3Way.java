@@ -52,6 +52,66 @@ public class Quick3Way extends Example{
 		sort(a, lo, hi);
 	}
 	
+	/**
+	 * int[]版本,和sort(Comparable[])相同的三向切分
+	 * */
+	public static void sort(int[] a){
+		sort(a, 0, a.length-1);
+	}
+
+	private static void sort(int[] a,int lo,int hi){
+		if(hi<=lo)return;
+		int lt=lo,i=lo+1,gt=hi;
+		int v = a[lo];
+		while(i<=gt){
+			if(less(a[i],v))		exch(a,lt++,i++);
+			else if(less(v,a[i]))	exch(a,i,gt--);
+			else					i++;
+		}
+		sort(a,lo,lt-1);
+		sort(a,gt+1,hi);
+	}
+
+	/**
+	 * long[]版本,和sort(Comparable[])相同的三向切分
+	 * */
+	public static void sort(long[] a){
+		sort(a, 0, a.length-1);
+	}
+
+	private static void sort(long[] a,int lo,int hi){
+		if(hi<=lo)return;
+		int lt=lo,i=lo+1,gt=hi;
+		long v = a[lo];
+		while(i<=gt){
+			if(less(a[i],v))		exch(a,lt++,i++);
+			else if(less(v,a[i]))	exch(a,i,gt--);
+			else					i++;
+		}
+		sort(a,lo,lt-1);
+		sort(a,gt+1,hi);
+	}
+
+	/**
+	 * double[]版本,和sort(Comparable[])相同的三向切分
+	 * */
+	public static void sort(double[] a){
+		sort(a, 0, a.length-1);
+	}
+
+	private static void sort(double[] a,int lo,int hi){
+		if(hi<=lo)return;
+		int lt=lo,i=lo+1,gt=hi;
+		double v = a[lo];
+		while(i<=gt){
+			if(less(a[i],v))		exch(a,lt++,i++);
+			else if(less(v,a[i]))	exch(a,i,gt--);
+			else					i++;
+		}
+		sort(a,lo,lt-1);
+		sort(a,gt+1,hi);
+	}
+
 	public static void main(String[] args) {
 		String[] a = new String[]{"bed","all","rap","bug","dad","rap","yes","rap","zoo","now","for","rap"
 				,"tip","ilk","all","rap","dim","all","rap","tag","jot","sob","nob","rap","sky","hut","all","all","men","egg","few","jay","owl",
@@ -75,12 +75,12 @@ public class LSD {
 				for (int r = 0; r < R/2; r++)
 					count[r] += shift1;
 				for (int r = R/2; r < R; r++)
-					count[r] = shift2;
+					count[r] -= shift2;
 			}
 			
 			// 数据分类
 			for (int i = 0; i < n; i++) {
-				int c = (a[i] >> BITS_PRE_BYTE) & MASK;
+				int c = (a[i] >> BITS_PRE_BYTE*d) & MASK;
 				aux[count[c]++] = a[i];
 			}
 			
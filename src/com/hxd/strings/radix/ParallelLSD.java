@@ -0,0 +1,286 @@
+package com.hxd.strings.radix;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import com.hxd.base.Parallel;
+import com.hxd.introcs.stdlib.StdRandom;
+
+/**
+ * 候旭东 20261017 并行的低位优先排序
+ * 和LSD相同,从最低位的数字开始,每一趟用键索引计数法按一个数字稳定地分配元素.对int[]和long[]做了三点改进:
+ *    1: 每个数字可以有8位(R=256)或11位(R=2048).11位时int只需要3趟,long只需要6趟;
+ *    2: 排序开始前用一趟遍历统计出所有数字的频率,如果某个数字上所有键都相同(某个频率等于N),跳过这一趟,
+ *       例如键都小于2^22时int的最高一趟不需要执行;
+ *    3: 频率统计和数据分类两个阶段都是并行的:数组被分为P段,每段统计自己的频率,再把频率转换为每段在每个
+ *       桶中的起始位置(桶r中,第c段的元素排在前c-1段之后),各段就可以互不干扰地把元素写入辅助数组,
+ *       并且保持稳定.
+ * 有符号整数按补码比较,所以在取数字之前把符号位取反,负数就会排在前面.
+ * 定长字符串的版本每一趟处理一个字符(R=256),同样跳过所有键都相同的位置并且并行地统计和分类.
+ * 使用的额外空间和N+P*R成正比
+ * */
+public class ParallelLSD {
+	/**
+	 * 默认每个数字的位数
+	 * */
+	public static final int DEFAULT_BITS = 11;
+	private static final int R_CHAR = 256;
+	// 数组短于这个长度时只分为一段,在当前线程中排序
+	private static final int SEQUENTIAL_CUTOFF = 1 << 16;
+
+	private ParallelLSD() {}
+
+	/**
+	 * 使用ForkJoinPool.commonPool()和11位的数字将a排序
+	 * @param a
+	 */
+	public static void sort(int[] a) {
+		sort(a, DEFAULT_BITS, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * @param a 待排序的数组
+	 * @param bits 每个数字的位数,1到16之间,通常为8或11
+	 * @param pool 运行任务的线程池
+	 */
+	public static void sort(int[] a, int bits, ForkJoinPool pool) {
+		checkBits(bits);
+		int n = a.length;
+		if (n < 2) return;
+		final int R = 1 << bits;
+		final int MASK = R - 1;
+		final int w = (32 + bits - 1) / bits;
+		final int P = chunks(n, pool);
+
+		// 一趟遍历统计所有数字的频率 count[c][d][r]
+		final int[][][] count = new int[P][w][R];
+		final int[] src0 = a;
+		Parallel.forEach(pool, P, c -> {
+			int[][] cnt = count[c];
+			for (int i = lo(c, n, P); i < lo(c + 1, n, P); i++) {
+				int key = src0[i] ^ Integer.MIN_VALUE;
+				for (int d = 0; d < w; d++)
+					cnt[d][(key >>> (bits * d)) & MASK]++;
+			}
+		});
+
+		int[] src = a, dst = new int[n];
+		boolean first = true;
+		for (int d = 0; d < w; d++) {
+			if (allSame(count, d, n)) continue;
+			final int shift = bits * d, digit = d;
+			final int[] from = src, to = dst;
+			// 只有第一趟执行之前数组没有移动,之后每段的频率需要重新统计
+			if (!first) {
+				Parallel.forEach(pool, P, c -> {
+					int[] cnt = count[c][digit];
+					Arrays.fill(cnt, 0);
+					for (int i = lo(c, n, P); i < lo(c + 1, n, P); i++)
+						cnt[((from[i] ^ Integer.MIN_VALUE) >>> shift) & MASK]++;
+				});
+			}
+			toIndex(count, d, R);
+			Parallel.forEach(pool, P, c -> {
+				int[] next = count[c][digit];
+				for (int i = lo(c, n, P); i < lo(c + 1, n, P); i++) {
+					int key = from[i];
+					to[next[((key ^ Integer.MIN_VALUE) >>> shift) & MASK]++] = key;
+				}
+			});
+			src = to;
+			dst = from;
+			first = false;
+		}
+		if (src != a) System.arraycopy(src, 0, a, 0, n);
+	}
+
+	/**
+	 * 使用ForkJoinPool.commonPool()和11位的数字将a排序
+	 * @param a
+	 */
+	public static void sort(long[] a) {
+		sort(a, DEFAULT_BITS, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * @param a 待排序的数组
+	 * @param bits 每个数字的位数,1到16之间,通常为8或11
+	 * @param pool 运行任务的线程池
+	 */
+	public static void sort(long[] a, int bits, ForkJoinPool pool) {
+		checkBits(bits);
+		int n = a.length;
+		if (n < 2) return;
+		final int R = 1 << bits;
+		final int MASK = R - 1;
+		final int w = (64 + bits - 1) / bits;
+		final int P = chunks(n, pool);
+
+		final int[][][] count = new int[P][w][R];
+		final long[] src0 = a;
+		Parallel.forEach(pool, P, c -> {
+			int[][] cnt = count[c];
+			for (int i = lo(c, n, P); i < lo(c + 1, n, P); i++) {
+				long key = src0[i] ^ Long.MIN_VALUE;
+				for (int d = 0; d < w; d++)
+					cnt[d][(int) (key >>> (bits * d)) & MASK]++;
+			}
+		});
+
+		long[] src = a, dst = new long[n];
+		boolean first = true;
+		for (int d = 0; d < w; d++) {
+			if (allSame(count, d, n)) continue;
+			final int shift = bits * d, digit = d;
+			final long[] from = src, to = dst;
+			if (!first) {
+				Parallel.forEach(pool, P, c -> {
+					int[] cnt = count[c][digit];
+					Arrays.fill(cnt, 0);
+					for (int i = lo(c, n, P); i < lo(c + 1, n, P); i++)
+						cnt[(int) ((from[i] ^ Long.MIN_VALUE) >>> shift) & MASK]++;
+				});
+			}
+			toIndex(count, d, R);
+			Parallel.forEach(pool, P, c -> {
+				int[] next = count[c][digit];
+				for (int i = lo(c, n, P); i < lo(c + 1, n, P); i++) {
+					long key = from[i];
+					to[next[(int) ((key ^ Long.MIN_VALUE) >>> shift) & MASK]++] = key;
+				}
+			});
+			src = to;
+			dst = from;
+			first = false;
+		}
+		if (src != a) System.arraycopy(src, 0, a, 0, n);
+	}
+
+	/**
+	 * 将长度都为w的字符串排序,字符属于扩展ASCII字母表.和LSD.sort(String[], int)的结果相同
+	 * @param a
+	 * @param w
+	 */
+	public static void sort(String[] a, int w) {
+		sort(a, w, ForkJoinPool.commonPool());
+	}
+
+	public static void sort(String[] a, int w, ForkJoinPool pool) {
+		int n = a.length;
+		if (n < 2) return;
+		final int R = R_CHAR;
+		final int P = chunks(n, pool);
+
+		final int[][][] count = new int[P][w][R];
+		final String[] src0 = a;
+		Parallel.forEach(pool, P, c -> {
+			int[][] cnt = count[c];
+			for (int i = lo(c, n, P); i < lo(c + 1, n, P); i++)
+				for (int d = 0; d < w; d++)
+					cnt[d][src0[i].charAt(d)]++;
+		});
+
+		String[] src = a, dst = new String[n];
+		boolean first = true;
+		for (int d = w - 1; d >= 0; d--) {
+			if (allSame(count, d, n)) continue;
+			final int digit = d;
+			final String[] from = src, to = dst;
+			if (!first) {
+				Parallel.forEach(pool, P, c -> {
+					int[] cnt = count[c][digit];
+					Arrays.fill(cnt, 0);
+					for (int i = lo(c, n, P); i < lo(c + 1, n, P); i++)
+						cnt[from[i].charAt(digit)]++;
+				});
+			}
+			toIndex(count, d, R);
+			Parallel.forEach(pool, P, c -> {
+				int[] next = count[c][digit];
+				for (int i = lo(c, n, P); i < lo(c + 1, n, P); i++)
+					to[next[from[i].charAt(digit)]++] = from[i];
+			});
+			src = to;
+			dst = from;
+			first = false;
+		}
+		if (src != a) System.arraycopy(src, 0, a, 0, n);
+	}
+
+	/***************************************************************************
+	 *  辅助方法
+	 ***************************************************************************/
+
+	private static void checkBits(int bits) {
+		if (bits < 1 || bits > 16) throw new IllegalArgumentException("bits per digit must be in [1, 16]: " + bits);
+	}
+
+	// 分段数:和线程数相同,数组较短时只分为一段
+	private static int chunks(int n, ForkJoinPool pool) {
+		if (n < SEQUENTIAL_CUTOFF) return 1;
+		return Math.max(1, Math.min(pool.getParallelism(), n / (SEQUENTIAL_CUTOFF / 4)));
+	}
+
+	// 第c段的起始位置
+	private static int lo(int c, int n, int P) {
+		return (int) ((long) n * c / P);
+	}
+
+	// 所有键的第d个数字是否都相同
+	private static boolean allSame(int[][][] count, int d, int n) {
+		int R = count[0][d].length;
+		for (int r = 0; r < R; r++) {
+			int total = 0;
+			for (int c = 0; c < count.length; c++)
+				total += count[c][d][r];
+			if (total == n) return true;
+			if (total != 0) return false;
+		}
+		return false;
+	}
+
+	// 把每段在每个桶中的频率转换为它在这个桶中写入的起始位置
+	private static void toIndex(int[][][] count, int d, int R) {
+		int next = 0;
+		for (int r = 0; r < R; r++) {
+			for (int c = 0; c < count.length; c++) {
+				int t = count[c][d][r];
+				count[c][d][r] = next;
+				next += t;
+			}
+		}
+	}
+
+	/**
+	 * 和Arrays.sort()比较:用法 java ParallelLSD n [位数] [重复次数]
+	 * */
+	public static void main(String[] args) {
+		int n = args.length > 0 ? Integer.parseInt(args[0]) : 10000000;
+		int bits = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_BITS;
+		int trials = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+		ForkJoinPool pool = ForkJoinPool.commonPool();
+
+		int[] source = new int[n];
+		for (int i = 0; i < n; i++)
+			source[i] = StdRandom.uniform(-1000000000, 1000000000);
+		int[] expected = source.clone();
+		Arrays.sort(expected);
+
+		double lsd = Double.POSITIVE_INFINITY, system = Double.POSITIVE_INFINITY;
+		for (int t = 0; t < trials; t++) {
+			int[] a = source.clone();
+			long start = System.nanoTime();
+			sort(a, bits, pool);
+			lsd = Math.min(lsd, (System.nanoTime() - start) / 1e6);
+			if (!Arrays.equals(a, expected)) throw new IllegalStateException("not sorted");
+
+			a = source.clone();
+			start = System.nanoTime();
+			Arrays.sort(a);
+			system = Math.min(system, (System.nanoTime() - start) / 1e6);
+		}
+		System.out.printf("n = %d, %d-bit digits, %d threads\n", n, bits, pool.getParallelism());
+		System.out.printf("ParallelLSD %10.1f ms\n", lsd);
+		System.out.printf("Arrays.sort %10.1f ms\n", system);
+	}
+}
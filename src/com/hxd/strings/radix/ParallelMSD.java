@@ -0,0 +1,381 @@
+package com.hxd.strings.radix;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * 候旭东 20261017 并行的高位优先排序
+ * 和MSD相同,用键索引计数法按第d个字符把a[lo..hi]分配到R个桶中,然后递归地按第d+1个字符将每个桶排序.
+ * 各个桶互相独立,所以长度超过PARALLEL_CUTOFF的桶作为单独的任务fork出去,较小的桶在当前线程中顺序排序.
+ * 和MSD的区别:
+ *    1: 辅助数组和原数组使用相同的下标(aux[lo..hi]),不同的任务写入互不重叠的区域,所以所有任务共用一个辅助数组;
+ *    2: 如果a[lo..hi]的第d个字符都相同(例如日志行共同的时间戳前缀),不再分配,直接检查下一个字符;
+ *    3: 除了String[],还可以对byte[][]排序,或者对一个共享的byte[]中用(起始位置,长度)表示的键排序.
+ *       字节按无符号数比较,UTF-8编码的字节序和码点的顺序相同,所以不需要为每一行创建String对象.
+ * String的版本和MSD一样假设字符属于扩展ASCII字母表
+ * */
+public class ParallelMSD {
+	private static final int R = 256;					// extended ASCII alphabet size
+	private static final int CUTOFF = 15;				// cutoff to insertion sort
+	/**
+	 * 桶的长度超过这个值时作为单独的任务并行排序
+	 * */
+	public static final int PARALLEL_CUTOFF = 1 << 13;
+
+	private ParallelMSD() {}
+
+	/***************************************************************************
+	 *  String[]
+	 ***************************************************************************/
+
+	/**
+	 * Rearranges the array of extended ASCII strings in ascending order.
+	 * @param a the array to be sorted
+	 */
+	public static void sort(String[] a) {
+		sort(a, ForkJoinPool.commonPool());
+	}
+
+	public static void sort(String[] a, ForkJoinPool pool) {
+		pool.invoke(new StringTask(a, new String[a.length], 0, a.length - 1, 0));
+	}
+
+	private static int charAt(String s, int d) {
+		if (d == s.length()) return -1;
+		return s.charAt(d);
+	}
+
+	private static class StringTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final String[] a, aux;
+		private final int lo, hi, d;
+
+		StringTask(String[] a, String[] aux, int lo, int hi, int d) {
+			this.a = a;
+			this.aux = aux;
+			this.lo = lo;
+			this.hi = hi;
+			this.d = d;
+		}
+
+		@Override
+		protected void compute() {
+			sort(a, aux, lo, hi, d, true);
+		}
+	}
+
+	// sort from a[lo] to a[hi], starting at the dth character; fork large buckets if parallel
+	private static void sort(String[] a, String[] aux, int lo, int hi, int d, boolean parallel) {
+		if (hi <= lo + CUTOFF) {
+			insertion(a, lo, hi, d);
+			return;
+		}
+		int[] count = new int[R+2];
+		while (true) {
+			for (int i = lo; i <= hi; i++)
+				count[charAt(a[i], d) + 2]++;
+			if (!sameChar(count, hi - lo + 1)) break;
+			if (count[1] != 0) return;		// 所有字符串都在第d个字符处结束,已经相等
+			Arrays.fill(count, 0);
+			d++;
+		}
+		for (int r = 0; r < R+1; r++)
+			count[r+1] += count[r];
+		for (int i = lo; i <= hi; i++)
+			aux[lo + count[charAt(a[i], d) + 1]++] = a[i];
+		System.arraycopy(aux, lo, a, lo, hi - lo + 1);
+
+		StringTask[] tasks = parallel ? new StringTask[R] : null;
+		for (int r = 0; r < R; r++) {
+			int l = lo + count[r], h = lo + count[r+1] - 1;
+			if (parallel && h - l + 1 > PARALLEL_CUTOFF) {
+				tasks[r] = new StringTask(a, aux, l, h, d+1);
+				tasks[r].fork();
+			}
+			else sort(a, aux, l, h, d+1, false);
+		}
+		join(tasks);
+	}
+
+	private static void insertion(String[] a, int lo, int hi, int d) {
+		for (int i = lo + 1; i <= hi; i++) {
+			String v = a[i];
+			int j = i;
+			for (; j > lo && less(v, a[j-1], d); j--)
+				a[j] = a[j-1];
+			a[j] = v;
+		}
+	}
+
+	private static boolean less(String v, String w, int d) {
+		int n = Math.min(v.length(), w.length());
+		for (int i = d; i < n; i++) {
+			if (v.charAt(i) < w.charAt(i)) return true;
+			if (v.charAt(i) > w.charAt(i)) return false;
+		}
+		return v.length() < w.length();
+	}
+
+	/***************************************************************************
+	 *  byte[][]
+	 ***************************************************************************/
+
+	/**
+	 * 按无符号字节的字典序将a排序
+	 * @param a the array to be sorted
+	 */
+	public static void sort(byte[][] a) {
+		sort(a, ForkJoinPool.commonPool());
+	}
+
+	public static void sort(byte[][] a, ForkJoinPool pool) {
+		pool.invoke(new BytesTask(a, new byte[a.length][], 0, a.length - 1, 0));
+	}
+
+	private static int byteAt(byte[] s, int d) {
+		if (d == s.length) return -1;
+		return s[d] & 0xFF;
+	}
+
+	private static class BytesTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final byte[][] a, aux;
+		private final int lo, hi, d;
+
+		BytesTask(byte[][] a, byte[][] aux, int lo, int hi, int d) {
+			this.a = a;
+			this.aux = aux;
+			this.lo = lo;
+			this.hi = hi;
+			this.d = d;
+		}
+
+		@Override
+		protected void compute() {
+			sort(a, aux, lo, hi, d, true);
+		}
+	}
+
+	private static void sort(byte[][] a, byte[][] aux, int lo, int hi, int d, boolean parallel) {
+		if (hi <= lo + CUTOFF) {
+			insertion(a, lo, hi, d);
+			return;
+		}
+		int[] count = new int[R+2];
+		while (true) {
+			for (int i = lo; i <= hi; i++)
+				count[byteAt(a[i], d) + 2]++;
+			if (!sameChar(count, hi - lo + 1)) break;
+			if (count[1] != 0) return;
+			Arrays.fill(count, 0);
+			d++;
+		}
+		for (int r = 0; r < R+1; r++)
+			count[r+1] += count[r];
+		for (int i = lo; i <= hi; i++)
+			aux[lo + count[byteAt(a[i], d) + 1]++] = a[i];
+		System.arraycopy(aux, lo, a, lo, hi - lo + 1);
+
+		BytesTask[] tasks = parallel ? new BytesTask[R] : null;
+		for (int r = 0; r < R; r++) {
+			int l = lo + count[r], h = lo + count[r+1] - 1;
+			if (parallel && h - l + 1 > PARALLEL_CUTOFF) {
+				tasks[r] = new BytesTask(a, aux, l, h, d+1);
+				tasks[r].fork();
+			}
+			else sort(a, aux, l, h, d+1, false);
+		}
+		join(tasks);
+	}
+
+	private static void insertion(byte[][] a, int lo, int hi, int d) {
+		for (int i = lo + 1; i <= hi; i++) {
+			byte[] v = a[i];
+			int j = i;
+			for (; j > lo && less(v, a[j-1], d); j--)
+				a[j] = a[j-1];
+			a[j] = v;
+		}
+	}
+
+	private static boolean less(byte[] v, byte[] w, int d) {
+		int n = Math.min(v.length, w.length);
+		for (int i = d; i < n; i++) {
+			int x = v[i] & 0xFF, y = w[i] & 0xFF;
+			if (x != y) return x < y;
+		}
+		return v.length < w.length;
+	}
+
+	/***************************************************************************
+	 *  共享缓冲区中的键:第i个键是buf[offset[i] .. offset[i]+length[i]-1]
+	 ***************************************************************************/
+
+	/**
+	 * 按无符号字节的字典序重排offset[]和length[](两者一起移动),缓冲区本身不变
+	 * @param buf 所有键所在的缓冲区
+	 * @param offset 每个键的起始位置
+	 * @param length 每个键的长度
+	 */
+	public static void sort(byte[] buf, int[] offset, int[] length) {
+		sort(buf, offset, length, ForkJoinPool.commonPool());
+	}
+
+	public static void sort(byte[] buf, int[] offset, int[] length, ForkJoinPool pool) {
+		if (offset.length != length.length) throw new IllegalArgumentException("offset and length differ in size");
+		int n = offset.length;
+		pool.invoke(new SliceTask(new Slices(buf, offset, length), 0, n - 1, 0));
+	}
+
+	/**
+	 * 缓冲区,两个下标数组和它们的辅助数组
+	 * */
+	private static final class Slices {
+		final byte[] buf;
+		final int[] offset, length, auxOffset, auxLength;
+
+		Slices(byte[] buf, int[] offset, int[] length) {
+			this.buf = buf;
+			this.offset = offset;
+			this.length = length;
+			this.auxOffset = new int[offset.length];
+			this.auxLength = new int[length.length];
+		}
+
+		int byteAt(int i, int d) {
+			if (d == length[i]) return -1;
+			return buf[offset[i] + d] & 0xFF;
+		}
+
+		boolean less(int i, int j, int d) {
+			int n = Math.min(length[i], length[j]);
+			for (int k = d; k < n; k++) {
+				int x = buf[offset[i] + k] & 0xFF, y = buf[offset[j] + k] & 0xFF;
+				if (x != y) return x < y;
+			}
+			return length[i] < length[j];
+		}
+
+		void exch(int i, int j) {
+			int t = offset[i]; offset[i] = offset[j]; offset[j] = t;
+			t = length[i]; length[i] = length[j]; length[j] = t;
+		}
+	}
+
+	private static class SliceTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final Slices s;
+		private final int lo, hi, d;
+
+		SliceTask(Slices s, int lo, int hi, int d) {
+			this.s = s;
+			this.lo = lo;
+			this.hi = hi;
+			this.d = d;
+		}
+
+		@Override
+		protected void compute() {
+			sort(s, lo, hi, d, true);
+		}
+	}
+
+	private static void sort(Slices s, int lo, int hi, int d, boolean parallel) {
+		if (hi <= lo + CUTOFF) {
+			for (int i = lo + 1; i <= hi; i++)
+				for (int j = i; j > lo && s.less(j, j-1, d); j--)
+					s.exch(j, j-1);
+			return;
+		}
+		int[] count = new int[R+2];
+		while (true) {
+			for (int i = lo; i <= hi; i++)
+				count[s.byteAt(i, d) + 2]++;
+			if (!sameChar(count, hi - lo + 1)) break;
+			if (count[1] != 0) return;
+			Arrays.fill(count, 0);
+			d++;
+		}
+		for (int r = 0; r < R+1; r++)
+			count[r+1] += count[r];
+		for (int i = lo; i <= hi; i++) {
+			int k = lo + count[s.byteAt(i, d) + 1]++;
+			s.auxOffset[k] = s.offset[i];
+			s.auxLength[k] = s.length[i];
+		}
+		System.arraycopy(s.auxOffset, lo, s.offset, lo, hi - lo + 1);
+		System.arraycopy(s.auxLength, lo, s.length, lo, hi - lo + 1);
+
+		SliceTask[] tasks = parallel ? new SliceTask[R] : null;
+		for (int r = 0; r < R; r++) {
+			int l = lo + count[r], h = lo + count[r+1] - 1;
+			if (parallel && h - l + 1 > PARALLEL_CUTOFF) {
+				tasks[r] = new SliceTask(s, l, h, d+1);
+				tasks[r].fork();
+			}
+			else sort(s, l, h, d+1, false);
+		}
+		join(tasks);
+	}
+
+	/***************************************************************************
+	 *  辅助方法
+	 ***************************************************************************/
+
+	// count[c+2]是第d个字符为c的键数(c=-1表示键已结束),所有n个键是否落在同一个桶中
+	private static boolean sameChar(int[] count, int n) {
+		for (int r = 1; r < count.length; r++)
+			if (count[r] != 0) return count[r] == n;
+		return true;
+	}
+
+	private static void join(ForkJoinTask<?>[] tasks) {
+		if (tasks == null) return;
+		for (int r = tasks.length - 1; r >= 0; r--)
+			if (tasks[r] != null) tasks[r].join();
+	}
+
+	/**
+	 * 不创建String,直接对文件中的UTF-8行排序后输出
+	 * 用法: java ParallelMSD file
+	 * */
+	public static void main(String[] args) {
+		byte[] buf;
+		try {
+			buf = Files.readAllBytes(Paths.get(args[0]));
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		int n = 0;
+		for (int i = 0; i < buf.length; i++)
+			if (buf[i] == '\n') n++;
+		if (buf.length > 0 && buf[buf.length - 1] != '\n') n++;
+		int[] offset = new int[n], length = new int[n];
+		for (int i = 0, start = 0, k = 0; i <= buf.length && k < n; i++) {
+			if (i == buf.length || buf[i] == '\n') {
+				offset[k] = start;
+				length[k++] = i - start;
+				start = i + 1;
+			}
+		}
+		long time = System.nanoTime();
+		sort(buf, offset, length);
+		time = System.nanoTime() - time;
+		PrintStream out = new PrintStream(new BufferedOutputStream(System.out, 1 << 16), false);
+		for (int i = 0; i < n; i++) {
+			out.write(buf, offset[i], length[i]);
+			out.write('\n');
+		}
+		out.flush();
+		System.err.printf("%d lines sorted in %.1f ms\n", n, time / 1e6);
+	}
+}